@@ -1,9 +1,12 @@
 package com.project.back_end.DTO;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 
+@JsonSerialize(using = AppointmentDTOSerializer.class)
 public class AppointmentDTO {
     private Long id;
     private Long doctorId;
@@ -15,9 +18,6 @@ public class AppointmentDTO {
     private String patientAddress;
     private LocalDateTime appointmentTime;
     private int status;
-    private LocalDate appointmentDate;
-    private LocalTime appointmentTimeOnly;
-    private LocalDateTime endTime;
 
     public AppointmentDTO(Long id, Long doctorId, Long patientId, String doctorName, String patientName, String patientEmail, String patientPhone, String patientAddress, LocalDateTime appointmentTime, int status) {
         this.id = id;
@@ -30,9 +30,6 @@ public class AppointmentDTO {
         this.patientAddress = patientAddress;
         this.appointmentTime = appointmentTime;
         this.status = status;
-        this.appointmentDate = appointmentTime.toLocalDate();
-        this.appointmentTimeOnly = appointmentTime.toLocalTime();
-        this.endTime = appointmentTime.plusHours(1);
     }
 
     public Long getId() {
@@ -115,27 +112,16 @@ public class AppointmentDTO {
         this.status = status;
     }
 
+    // Derived from appointmentTime on each call; AppointmentDTOSerializer derives all three at once
     public LocalDate getAppointmentDate() {
-        return appointmentDate;
-    }
-
-    public void setAppointmentDate(LocalDate appointmentDate) {
-        this.appointmentDate = appointmentDate;
+        return appointmentTime.toLocalDate();
     }
 
     public LocalTime getAppointmentTimeOnly() {
-        return appointmentTimeOnly;
-    }
-
-    public void setAppointmentTimeOnly(LocalTime appointmentTimeOnly) {
-        this.appointmentTimeOnly = appointmentTimeOnly;
+        return appointmentTime.toLocalTime();
     }
 
     public LocalDateTime getEndTime() {
-        return endTime;
-    }
-
-    public void setEndTime(LocalDateTime endTime) {
-        this.endTime = endTime;
+        return appointmentTime.plusHours(1);
     }
 }
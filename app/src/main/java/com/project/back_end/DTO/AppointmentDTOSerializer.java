@@ -0,0 +1,154 @@
+package com.project.back_end.DTO;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Writes an {@link AppointmentDTO} straight to the generator, in the same shape and ISO formats
+ * the default bean serializer produced, without introspecting getters.
+ * <p>
+ * Field names are encoded once. Whole-second times in years 0-9999, which is every booked
+ * slot, are written from a char buffer without going through {@link DateTimeFormatter};
+ * {@code appointmentDate} and {@code appointmentTimeOnly} are slices of {@code appointmentTime},
+ * so no {@code LocalDate}, {@code LocalTime} or intermediate string is created. Other times fall
+ * back to {@link DateTimeFormatter#ISO_LOCAL_DATE_TIME}.
+ * <p>
+ * The buffer is an attribute of the {@link SerializerProvider}, which Jackson creates for each
+ * {@code writeValue} call, so a whole list shares one buffer and no two threads ever do.
+ */
+public class AppointmentDTOSerializer extends StdSerializer<AppointmentDTO> {
+    private static final SerializableString ID = new SerializedString("id");
+    private static final SerializableString DOCTOR_ID = new SerializedString("doctorId");
+    private static final SerializableString PATIENT_ID = new SerializedString("patientId");
+    private static final SerializableString DOCTOR_NAME = new SerializedString("doctorName");
+    private static final SerializableString PATIENT_NAME = new SerializedString("patientName");
+    private static final SerializableString PATIENT_EMAIL = new SerializedString("patientEmail");
+    private static final SerializableString PATIENT_PHONE = new SerializedString("patientPhone");
+    private static final SerializableString PATIENT_ADDRESS = new SerializedString("patientAddress");
+    private static final SerializableString APPOINTMENT_TIME = new SerializedString("appointmentTime");
+    private static final SerializableString STATUS = new SerializedString("status");
+    private static final SerializableString APPOINTMENT_DATE = new SerializedString("appointmentDate");
+    private static final SerializableString APPOINTMENT_TIME_ONLY = new SerializedString("appointmentTimeOnly");
+    private static final SerializableString END_TIME = new SerializedString("endTime");
+    private static final Object BUFFER = new Object();
+
+    public AppointmentDTOSerializer() {
+        super(AppointmentDTO.class);
+    }
+
+    @Override
+    public void serialize(AppointmentDTO appointment, JsonGenerator generator, SerializerProvider provider) throws IOException {
+        generator.writeStartObject(appointment);
+        writeNumber(generator, ID, appointment.getId());
+        writeNumber(generator, DOCTOR_ID, appointment.getDoctorId());
+        writeNumber(generator, PATIENT_ID, appointment.getPatientId());
+        writeString(generator, DOCTOR_NAME, appointment.getDoctorName());
+        writeString(generator, PATIENT_NAME, appointment.getPatientName());
+        writeString(generator, PATIENT_EMAIL, appointment.getPatientEmail());
+        writeString(generator, PATIENT_PHONE, appointment.getPatientPhone());
+        writeString(generator, PATIENT_ADDRESS, appointment.getPatientAddress());
+
+        LocalDateTime time = appointment.getAppointmentTime();
+        if (time == null) {
+            writeNull(generator, APPOINTMENT_TIME);
+            writeNumber(generator, STATUS, appointment.getStatus());
+            writeNull(generator, APPOINTMENT_DATE);
+            writeNull(generator, APPOINTMENT_TIME_ONLY);
+            writeNull(generator, END_TIME);
+        } else if (!isPlain(time)) {
+            String formatted = DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(time);
+            int separator = formatted.indexOf('T');
+            writeString(generator, APPOINTMENT_TIME, formatted);
+            writeNumber(generator, STATUS, appointment.getStatus());
+            writeString(generator, APPOINTMENT_DATE, formatted.substring(0, separator));
+            writeString(generator, APPOINTMENT_TIME_ONLY, formatted.substring(separator + 1));
+            writeString(generator, END_TIME, DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(time.plusHours(1)));
+        } else {
+            // yyyy-MM-ddTHH:mm:ss, the date and the time-only fields are slices of it
+            char[] buffer = buffer(provider);
+            format(time, buffer);
+            generator.writeFieldName(APPOINTMENT_TIME);
+            generator.writeString(buffer, 0, 19);
+            writeNumber(generator, STATUS, appointment.getStatus());
+            generator.writeFieldName(APPOINTMENT_DATE);
+            generator.writeString(buffer, 0, 10);
+            generator.writeFieldName(APPOINTMENT_TIME_ONLY);
+            generator.writeString(buffer, 11, 8);
+            LocalDateTime end = time.plusHours(1);
+            if (isPlain(end)) {
+                format(end, buffer);
+                generator.writeFieldName(END_TIME);
+                generator.writeString(buffer, 0, 19);
+            } else {
+                writeString(generator, END_TIME, DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(end));
+            }
+        }
+        generator.writeEndObject();
+    }
+
+    private static char[] buffer(SerializerProvider provider) {
+        char[] buffer = (char[]) provider.getAttribute(BUFFER);
+        if (buffer == null) {
+            buffer = new char[19];
+            provider.setAttribute(BUFFER, buffer);
+        }
+        return buffer;
+    }
+
+    // ISO_LOCAL_DATE_TIME prints these as exactly 19 characters: a four digit year and no fraction
+    private static boolean isPlain(LocalDateTime time) {
+        return time.getNano() == 0 && time.getYear() >= 0 && time.getYear() <= 9999;
+    }
+
+    private static void format(LocalDateTime time, char[] buffer) {
+        int year = time.getYear();
+        digits(buffer, 0, year / 100);
+        digits(buffer, 2, year % 100);
+        buffer[4] = '-';
+        digits(buffer, 5, time.getMonthValue());
+        buffer[7] = '-';
+        digits(buffer, 8, time.getDayOfMonth());
+        buffer[10] = 'T';
+        digits(buffer, 11, time.getHour());
+        buffer[13] = ':';
+        digits(buffer, 14, time.getMinute());
+        buffer[16] = ':';
+        digits(buffer, 17, time.getSecond());
+    }
+
+    private static void digits(char[] buffer, int offset, int value) {
+        buffer[offset] = (char) ('0' + value / 10);
+        buffer[offset + 1] = (char) ('0' + value % 10);
+    }
+
+    private static void writeNumber(JsonGenerator generator, SerializableString name, int value) throws IOException {
+        generator.writeFieldName(name);
+        generator.writeNumber(value);
+    }
+
+    private static void writeNull(JsonGenerator generator, SerializableString name) throws IOException {
+        generator.writeFieldName(name);
+        generator.writeNull();
+    }
+
+    private static void writeNumber(JsonGenerator generator, SerializableString name, Long value) throws IOException {
+        generator.writeFieldName(name);
+        if (value == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(value);
+        }
+    }
+
+    private static void writeString(JsonGenerator generator, SerializableString name, String value) throws IOException {
+        generator.writeFieldName(name);
+        generator.writeString(value);
+    }
+}
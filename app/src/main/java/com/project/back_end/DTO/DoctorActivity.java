@@ -0,0 +1,47 @@
+package com.project.back_end.DTO;
+
+public class DoctorActivity {
+    private Long doctorId;
+    private String doctorName;
+    private long appointments;
+    private long uniquePatients;
+
+    public DoctorActivity(Long doctorId, String doctorName, long appointments, long uniquePatients) {
+        this.doctorId = doctorId;
+        this.doctorName = doctorName;
+        this.appointments = appointments;
+        this.uniquePatients = uniquePatients;
+    }
+
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    public void setDoctorId(Long doctorId) {
+        this.doctorId = doctorId;
+    }
+
+    public String getDoctorName() {
+        return doctorName;
+    }
+
+    public void setDoctorName(String doctorName) {
+        this.doctorName = doctorName;
+    }
+
+    public long getAppointments() {
+        return appointments;
+    }
+
+    public void setAppointments(long appointments) {
+        this.appointments = appointments;
+    }
+
+    public long getUniquePatients() {
+        return uniquePatients;
+    }
+
+    public void setUniquePatients(long uniquePatients) {
+        this.uniquePatients = uniquePatients;
+    }
+}
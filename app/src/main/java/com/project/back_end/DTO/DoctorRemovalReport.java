@@ -0,0 +1,66 @@
+package com.project.back_end.DTO;
+
+public class DoctorRemovalReport {
+    private final long doctorId;
+    private final long appointments;
+    private long archived;
+    private long availableTimesDeleted;
+    private long prescriptionsFlagged;
+    private int chunks;
+    private boolean removed;
+
+    // `appointments` is the count when the run started, including any left by an interrupted run
+    public DoctorRemovalReport(long doctorId, long appointments) {
+        this.doctorId = doctorId;
+        this.appointments = appointments;
+    }
+
+    public void recordArchived(int archivedInChunk, long prescriptionsFlaggedInChunk) {
+        chunks++;
+        archived += archivedInChunk;
+        prescriptionsFlagged += prescriptionsFlaggedInChunk;
+    }
+
+    public void recordAvailableTimesDeleted(int deletedInChunk) {
+        chunks++;
+        availableTimesDeleted += deletedInChunk;
+    }
+
+    public void recordRemoved() {
+        removed = true;
+    }
+
+    public long getDoctorId() {
+        return doctorId;
+    }
+
+    public long getAppointments() {
+        return appointments;
+    }
+
+    public long getArchived() {
+        return archived;
+    }
+
+    public long getAvailableTimesDeleted() {
+        return availableTimesDeleted;
+    }
+
+    public long getPrescriptionsFlagged() {
+        return prescriptionsFlagged;
+    }
+
+    public int getChunks() {
+        return chunks;
+    }
+
+    public boolean isRemoved() {
+        return removed;
+    }
+
+    @Override
+    public String toString() {
+        return "doctor=" + doctorId + ", archived=" + archived + "/" + appointments + ", availableTimesDeleted=" + availableTimesDeleted
+                + ", prescriptionsFlagged=" + prescriptionsFlagged + ", chunks=" + chunks + ", removed=" + removed;
+    }
+}
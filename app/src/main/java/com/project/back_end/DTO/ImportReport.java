@@ -0,0 +1,59 @@
+package com.project.back_end.DTO;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ImportReport {
+    private long read;
+    private long inserted;
+    private long failed;
+    private int batches;
+    private final List<String> errors = new ArrayList<>();
+    private final int maxErrors;
+
+    public ImportReport(int maxErrors) {
+        this.maxErrors = maxErrors;
+    }
+
+    public void recordRead() {
+        read++;
+    }
+
+    public void recordBatch(int insertedInBatch) {
+        batches++;
+        inserted += insertedInBatch;
+    }
+
+    // Every failure is counted, only the first `maxErrors` are kept so a bad file cannot exhaust memory
+    public void recordFailure(long line, String error) {
+        failed++;
+        if (errors.size() < maxErrors) {
+            errors.add("line " + line + ": " + error);
+        }
+    }
+
+    public long getRead() {
+        return read;
+    }
+
+    public long getInserted() {
+        return inserted;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public int getBatches() {
+        return batches;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    @Override
+    public String toString() {
+        return "read=" + read + ", inserted=" + inserted + ", failed=" + failed + ", batches=" + batches;
+    }
+}
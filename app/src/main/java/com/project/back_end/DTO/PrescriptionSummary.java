@@ -0,0 +1,39 @@
+package com.project.back_end.DTO;
+
+import java.time.LocalDateTime;
+
+public class PrescriptionSummary {
+    private String medication;
+    private String dosage;
+    private LocalDateTime issuedAt;
+
+    public PrescriptionSummary(String medication, String dosage, LocalDateTime issuedAt) {
+        this.medication = medication;
+        this.dosage = dosage;
+        this.issuedAt = issuedAt;
+    }
+
+    public String getMedication() {
+        return medication;
+    }
+
+    public void setMedication(String medication) {
+        this.medication = medication;
+    }
+
+    public String getDosage() {
+        return dosage;
+    }
+
+    public void setDosage(String dosage) {
+        this.dosage = dosage;
+    }
+
+    public LocalDateTime getIssuedAt() {
+        return issuedAt;
+    }
+
+    public void setIssuedAt(LocalDateTime issuedAt) {
+        this.issuedAt = issuedAt;
+    }
+}
@@ -0,0 +1,78 @@
+package com.project.back_end.cli;
+
+import com.project.back_end.DTO.ImportReport;
+import com.project.back_end.services.ClinicImportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+
+/**
+ * Imports CSV files of doctors, patients and appointments from the command line and exits:
+ * <pre>
+ * java -jar back-end-exec.jar --spring.main.web-application-type=none \
+ *     --import-doctors=doctors.csv --import-patients=patients.csv --import-appointments=appointments.csv
+ * </pre>
+ * Any of the options can be left out. The files are imported in this order, so appointments
+ * can refer to doctors and patients from the same run. The process exits with status 1 if any
+ * row failed. Without the options the runner does nothing.
+ */
+@Component
+public class ClinicImportRunner extends CommandLineJob {
+    private static final Logger log = LoggerFactory.getLogger(ClinicImportRunner.class);
+
+    static final String DOCTORS = "import-doctors";
+    static final String PATIENTS = "import-patients";
+    static final String APPOINTMENTS = "import-appointments";
+
+    private final ClinicImportService clinicImportService;
+
+    public ClinicImportRunner(ClinicImportService clinicImportService, ApplicationContext context) {
+        super(context);
+        this.clinicImportService = clinicImportService;
+    }
+
+    @FunctionalInterface
+    private interface Import {
+        ImportReport run(InputStream input, Consumer<ImportReport> progress) throws IOException;
+    }
+
+    @Override
+    boolean requested(ApplicationArguments args) {
+        return args.containsOption(DOCTORS) || args.containsOption(PATIENTS) || args.containsOption(APPOINTMENTS);
+    }
+
+    @Override
+    int execute(ApplicationArguments args) throws Exception {
+        long failed = 0;
+        failed += importFile(args, DOCTORS, clinicImportService::importDoctors);
+        failed += importFile(args, PATIENTS, clinicImportService::importPatients);
+        failed += importFile(args, APPOINTMENTS, clinicImportService::importAppointments);
+        return failed == 0 ? 0 : 1;
+    }
+
+    // Returns the number of failed rows
+    private long importFile(ApplicationArguments args, String option, Import importer) throws IOException {
+        if (!args.containsOption(option)) {
+            return 0;
+        }
+
+        Path file = Path.of(args.getOptionValues(option).get(0));
+        ImportReport report;
+        long started = System.nanoTime();
+        try (InputStream input = Files.newInputStream(file)) {
+            report = importer.run(input, progress -> log.info("{} progress: {}", file, progress));
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        log.info("{} done: {}, {} rows/s", file, report, Math.round(report.getInserted() / seconds));
+        report.getErrors().forEach(error -> log.warn("{}: {}", file, error));
+        return report.getFailed();
+    }
+}
@@ -0,0 +1,35 @@
+package com.project.back_end.cli;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+
+/**
+ * A job started by a command line option, after which the application exits. When
+ * {@link #requested} is false the runner does nothing and the application starts as usual;
+ * otherwise {@link #execute} runs and its result becomes the exit status, once the context
+ * has been closed.
+ */
+abstract class CommandLineJob implements ApplicationRunner {
+    private final ApplicationContext context;
+
+    CommandLineJob(ApplicationContext context) {
+        this.context = context;
+    }
+
+    abstract boolean requested(ApplicationArguments args);
+
+    // Returns the exit status
+    abstract int execute(ApplicationArguments args) throws Exception;
+
+    @Override
+    public final void run(ApplicationArguments args) throws Exception {
+        if (!requested(args)) {
+            return;
+        }
+
+        int status = execute(args);
+        System.exit(SpringApplication.exit(context, () -> status));
+    }
+}
@@ -0,0 +1,47 @@
+package com.project.back_end.cli;
+
+import com.project.back_end.DTO.DoctorRemovalReport;
+import com.project.back_end.services.DoctorRemovalService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * Removes a doctor and archives their appointments from the command line, then exits:
+ * <pre>
+ * java -jar back-end-exec.jar --spring.main.web-application-type=none --remove-doctor=42
+ * </pre>
+ * An interrupted removal is resumed by running the same command again. The process exits with
+ * status 1 if there is no such doctor. Without the option the runner does nothing.
+ */
+@Component
+public class DoctorRemovalRunner extends CommandLineJob {
+    private static final Logger log = LoggerFactory.getLogger(DoctorRemovalRunner.class);
+    static final String OPTION = "remove-doctor";
+
+    private final DoctorRemovalService doctorRemovalService;
+
+    public DoctorRemovalRunner(DoctorRemovalService doctorRemovalService, ApplicationContext context) {
+        super(context);
+        this.doctorRemovalService = doctorRemovalService;
+    }
+
+    @Override
+    boolean requested(ApplicationArguments args) {
+        return args.containsOption(OPTION);
+    }
+
+    @Override
+    int execute(ApplicationArguments args) {
+        long doctorId = Long.parseLong(args.getOptionValues(OPTION).get(0));
+        DoctorRemovalReport report = doctorRemovalService.remove(doctorId, progress -> log.info("Doctor {} removal progress: {}", doctorId, progress));
+        if (report == null) {
+            log.warn("No doctor {}", doctorId);
+        } else {
+            log.info("Doctor {} removed: {}", doctorId, report);
+        }
+        return report == null ? 1 : 0;
+    }
+}
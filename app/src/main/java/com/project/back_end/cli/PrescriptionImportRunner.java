@@ -0,0 +1,50 @@
+package com.project.back_end.cli;
+
+import com.project.back_end.DTO.ImportReport;
+import com.project.back_end.services.PrescriptionImportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Imports an NDJSON file of prescriptions from the command line and exits:
+ * <pre>
+ * java -jar back-end-exec.jar --spring.main.web-application-type=none --import-prescriptions=prescriptions.ndjson
+ * </pre>
+ * The process exits with status 1 if any record failed. Without the option the runner does nothing.
+ */
+@Component
+public class PrescriptionImportRunner extends CommandLineJob {
+    private static final Logger log = LoggerFactory.getLogger(PrescriptionImportRunner.class);
+    static final String OPTION = "import-prescriptions";
+
+    private final PrescriptionImportService prescriptionImportService;
+
+    public PrescriptionImportRunner(PrescriptionImportService prescriptionImportService, ApplicationContext context) {
+        super(context);
+        this.prescriptionImportService = prescriptionImportService;
+    }
+
+    @Override
+    boolean requested(ApplicationArguments args) {
+        return args.containsOption(OPTION);
+    }
+
+    @Override
+    int execute(ApplicationArguments args) throws Exception {
+        Path file = Path.of(args.getOptionValues(OPTION).get(0));
+        ImportReport report;
+        try (InputStream input = Files.newInputStream(file)) {
+            report = prescriptionImportService.importNdjson(input, progress -> log.info("{} progress: {}", file, progress));
+        }
+        log.info("{} done: {}", file, report);
+        report.getErrors().forEach(error -> log.warn("{}: {}", file, error));
+        return report.getFailed() == 0 ? 0 : 1;
+    }
+}
@@ -0,0 +1,61 @@
+package com.project.back_end.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.project.back_end.models.Doctor;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+
+/**
+ * Turns on the Hibernate second-level and query caches, backed by Caffeine through JCache,
+ * when {@code doctor.cache.mode=hibernate}. The doctor regions get the same size and time
+ * bounds as the local cache so the two modes can be compared like for like. In local mode the
+ * second-level cache is switched off in application.properties.
+ */
+@Configuration
+@ConditionalOnProperty(name = "doctor.cache.mode", havingValue = "hibernate")
+public class DoctorCacheConfig {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(@Value("${doctor.cache.max-size:10000}") long maxSize,
+                                              @Value("${doctor.cache.ttl:10m}") Duration ttl) {
+        // A manager of its own rather than the provider's default, which every context in the JVM shares
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(
+                URI.create("doctor-cache-" + System.identityHashCode(this)), getClass().getClassLoader());
+
+        var bounded = new CaffeineConfiguration<Object, Object>();
+        bounded.setMaximumSize(OptionalLong.of(maxSize));
+        bounded.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        bounded.setStatisticsEnabled(true);
+        cacheManager.createCache(Doctor.CACHE_REGION, bounded);
+        cacheManager.createCache(Doctor.CACHE_REGION + ".availableTimes", bounded);
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, bounded);
+
+        // Update timestamps must outlive every cached query result, so that region is not bounded
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, new CaffeineConfiguration<>());
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCache(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put("hibernate.cache.use_second_level_cache", true);
+            properties.put("hibernate.cache.use_query_cache", true);
+            properties.put("hibernate.cache.region.factory_class", "jcache");
+            properties.put("hibernate.javax.cache.cache_manager", hibernateCacheManager);
+            properties.put("hibernate.generate_statistics", true);
+        };
+    }
+}
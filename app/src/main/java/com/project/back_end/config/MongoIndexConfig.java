@@ -0,0 +1,37 @@
+package com.project.back_end.config;
+
+import com.project.back_end.models.Prescription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+
+/**
+ * Creates the indexes declared on the Mongo documents once the application is ready.
+ * Creating an index that already exists is a no-op. If MongoDB is unreachable the failure is
+ * logged and startup continues, so the MySQL-backed endpoints are not held hostage.
+ */
+@Configuration
+public class MongoIndexConfig {
+    private static final Logger log = LoggerFactory.getLogger(MongoIndexConfig.class);
+
+    private final MongoTemplate mongoTemplate;
+
+    public MongoIndexConfig(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createIndexes() {
+        var resolver = new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+        var indexOps = mongoTemplate.indexOps(Prescription.class);
+        try {
+            resolver.resolveIndexFor(Prescription.class).forEach(indexOps::ensureIndex);
+        } catch (RuntimeException e) {
+            log.warn("Could not create indexes for {}: {}", Prescription.class.getSimpleName(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.project.back_end.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.project.back_end.services.TokenService;
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * The staleness guard of {@link ReplicaDataSourceConfig}: for
+ * {@code datasource.replica.read-your-writes} after one of a user's read-write transactions
+ * commits, that user's read-only transactions stay on the primary, so a patient who just booked
+ * sees the booking before the replica has it.
+ * <p>
+ * Users are told apart by the role and subject of the request's {@code token} path variable.
+ * Requests without a valid token and background work are never held on the primary. The recent
+ * writers are kept in memory, so with several instances the guard relies on sticky sessions.
+ */
+public class ReadYourWrites implements HandlerInterceptor {
+    private static final ThreadLocal<String> CURRENT_USER = new ThreadLocal<>();
+
+    private final TokenService tokenService;
+    private final Cache<String, Boolean> recentWriters;
+
+    public ReadYourWrites(TokenService tokenService, Duration window, long maxUsers) {
+        this.tokenService = tokenService;
+        this.recentWriters = window.isZero() ? null : Caffeine.newBuilder().expireAfterWrite(window).maximumSize(maxUsers).build();
+    }
+
+    @Override
+    public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull Object handler) {
+        if (request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE) instanceof Map<?, ?> variables
+                && variables.get("token") instanceof String token) {
+            try {
+                Claims claims = tokenService.verify(token);
+                CURRENT_USER.set(claims.get(TokenService.ROLE_CLAIM) + ":" + claims.getSubject());
+            } catch (RuntimeException e) {
+                // The controller rejects the token
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull Object handler, Exception ex) {
+        CURRENT_USER.remove();
+    }
+
+    boolean pinned() {
+        String user = CURRENT_USER.get();
+        return user != null && recentWriters != null && recentWriters.getIfPresent(user) != null;
+    }
+
+    // Null when there is nobody to pin
+    TransactionSynchronization recordOnCommit() {
+        String user = CURRENT_USER.get();
+        if (user == null || recentWriters == null) {
+            return null;
+        }
+        return new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recentWriters.put(user, Boolean.TRUE);
+            }
+        };
+    }
+}
@@ -0,0 +1,42 @@
+package com.project.back_end.config;
+
+import java.util.function.Supplier;
+
+/**
+ * Lets code that must not read stale rows keep its read-only transactions on the primary while
+ * {@link ReplicaDataSourceConfig} routes the others to the replica. Does nothing without a
+ * replica.
+ */
+public final class ReplicaRouting {
+    private static final ThreadLocal<Integer> PRIMARY_DEPTH = ThreadLocal.withInitial(() -> 0);
+
+    private ReplicaRouting() {
+    }
+
+    // The routing happens when a transaction runs its first statement, so a transaction that
+    // already read from the replica stays there.
+    public static <T> T onPrimary(Supplier<T> action) {
+        PRIMARY_DEPTH.set(PRIMARY_DEPTH.get() + 1);
+        try {
+            return action.get();
+        } finally {
+            int depth = PRIMARY_DEPTH.get() - 1;
+            if (depth == 0) {
+                PRIMARY_DEPTH.remove();
+            } else {
+                PRIMARY_DEPTH.set(depth);
+            }
+        }
+    }
+
+    public static void onPrimary(Runnable action) {
+        onPrimary(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    static boolean primaryRequired() {
+        return PRIMARY_DEPTH.get() > 0;
+    }
+}
@@ -0,0 +1,31 @@
+package com.project.back_end.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Consulted when a transaction runs its first statement, behind the LazyConnectionDataSourceProxy
+class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    static final String PRIMARY = "primary";
+    static final String REPLICA = "replica";
+
+    private final ReadYourWrites readYourWrites;
+
+    ReplicaRoutingDataSource(ReadYourWrites readYourWrites) {
+        this.readYourWrites = readYourWrites;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return ReplicaRouting.primaryRequired() || readYourWrites.pinned() ? PRIMARY : REPLICA;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronization record = readYourWrites.recordOnCommit();
+            if (record != null) {
+                TransactionSynchronizationManager.registerSynchronization(record);
+            }
+        }
+        return PRIMARY;
+    }
+}
@@ -0,0 +1,75 @@
+package com.project.back_end.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactoryBean;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Counts the JDBC statements Hibernate prepares as {@code repository.statements}, tagged with the
+ * JPA repository whose method was running when they were issued.
+ * <p>
+ * Statements issued outside any repository call are tagged {@value #NONE}. Those are lazy loads
+ * in the services and flushes at commit, so a loop over lazy associations shows up there as an
+ * N+1 pattern. Nested repository calls are counted against the outermost one.
+ */
+@Configuration
+public class RepositoryMetricsConfig {
+    static final String NONE = "none";
+
+    private static final ThreadLocal<String> CURRENT_REPOSITORY = new ThreadLocal<>();
+
+    @Bean
+    public static BeanPostProcessor repositoryStatementTagging() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof JpaRepositoryFactoryBean<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxy, information) -> proxy.addAdvice(tagging(information.getRepositoryInterface().getSimpleName()))));
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static MethodInterceptor tagging(String repository) {
+        return invocation -> {
+            if (CURRENT_REPOSITORY.get() != null) {
+                return invocation.proceed();
+            }
+            CURRENT_REPOSITORY.set(repository);
+            try {
+                return invocation.proceed();
+            } finally {
+                CURRENT_REPOSITORY.remove();
+            }
+        };
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer repositoryStatementCounter(ObjectProvider<MeterRegistry> meterRegistry) {
+        Map<String, Counter> counters = new ConcurrentHashMap<>();
+        StatementInspector inspector = sql -> {
+            String repository = Objects.requireNonNullElse(CURRENT_REPOSITORY.get(), NONE);
+            counters.computeIfAbsent(repository, tag -> Counter.builder("repository.statements")
+                    .description("JDBC statements prepared by Hibernate")
+                    .tag("repository", tag)
+                    .register(meterRegistry.getObject()))
+                    .increment();
+            return sql;
+        };
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+    }
+}
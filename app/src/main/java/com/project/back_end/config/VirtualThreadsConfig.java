@@ -0,0 +1,21 @@
+package com.project.back_end.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Refuses to start with {@code spring.threads.virtual.enabled=true} on a JDK older than 21. Spring
+ * Boot would otherwise ignore the property there and keep the platform thread pools, which are
+ * sized for a different load than the Hikari pool bound virtual threads rely on.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadsConfig {
+
+    public VirtualThreadsConfig() {
+        int feature = Runtime.version().feature();
+        if (feature < 21) {
+            throw new IllegalStateException("spring.threads.virtual.enabled=true needs Java 21 or newer, running on Java " + feature);
+        }
+    }
+}
@@ -1,7 +1,34 @@
 package com.project.back_end.controllers;
 
+import com.project.back_end.models.Appointment;
+import com.project.back_end.services.AppointmentService;
+import com.project.back_end.services.Service;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDate;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/appointments")
 public class AppointmentController {
+    private final AppointmentService appointmentService;
+    private final Service service;
+
+    public AppointmentController(AppointmentService appointmentService, Service service) {
+        this.appointmentService = appointmentService;
+        this.service = service;
+    }
 
 // 1. Set Up the Controller Class:
 //    - Annotate the class with `@RestController` to define it as a REST API controller.
@@ -20,22 +47,62 @@ public class AppointmentController {
 //    - First validates the token for role `"doctor"` using the `Service`.
 //    - If the token is valid, returns appointments for the given patient on the specified date.
 //    - If the token is invalid or expired, responds with the appropriate message and status code.
+    @GetMapping("/{date}/{patientName}/{token}")
+    public ResponseEntity<Map<String, Object>> getAppointments(@PathVariable LocalDate date, @PathVariable String patientName,
+                                                               @PathVariable String token,
+                                                               @RequestParam(required = false) Integer page,
+                                                               @RequestParam(required = false) Integer size) {
+        if (!service.validateToken(token, "doctor")) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Invalid authentication token"));
+        }
+        return ResponseEntity.ok(appointmentService.getAppointment(patientName, date, token, page, size));
+    }
 
 
 // 4. Define the `bookAppointment` Method:
 //    - Handles HTTP POST requests to create a new appointment.
 //    - Accepts a validated `Appointment` object in the request body and a token as a path variable.
-//    - Validates the token for the `"patient"` role.
+//    - Validates the token for the `"patient"` role, and that the appointment is booked for the patient the token belongs to.
 //    - Uses service logic to validate the appointment data (e.g., check for doctor availability and time conflicts).
 //    - Returns success if booked, or appropriate error messages if the doctor ID is invalid or the slot is already taken.
+    @PostMapping("/{token}")
+    public ResponseEntity<Map<String, String>> bookAppointment(@Valid @RequestBody Appointment appointment, @PathVariable String token) {
+        if (!service.validateToken(token, "patient")) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Invalid authentication token"));
+        }
+        if (appointment.getPatient() == null || !service.isSender(token, appointment.getPatient().getId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("error", "Patient mismatch with sender"));
+        }
+        switch (service.validateAppointment(appointment, "patient")) {
+            case -1:
+                return ResponseEntity.badRequest().body(Map.of("error", "Invalid Doctor requested for Appointment. Doctor not found."));
+            case 0:
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", "Appointment time not available or invalid"));
+        }
+        switch (appointmentService.bookAppointment(appointment)) {
+            case 1:
+                return ResponseEntity.status(HttpStatus.CREATED).body(Map.of("message", "Appointment booked successfully"));
+            case -1:
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", "Appointment time not available or invalid"));
+            default:
+                return ResponseEntity.internalServerError().body(Map.of("error", "Could not book appointment"));
+        }
+    }
 
 
 // 5. Define the `updateAppointment` Method:
 //    - Handles HTTP PUT requests to modify an existing appointment.
 //    - Accepts a validated `Appointment` object and a token as input.
 //    - Validates the token for `"patient"` role.
-//    - Delegates the update logic to the `AppointmentService`.
+//    - Delegates the update logic to the `AppointmentService`, which refuses to update another patient's appointment.
 //    - Returns an appropriate success or failure response based on the update result.
+    @PutMapping("/{token}")
+    public ResponseEntity<Map<String, String>> updateAppointment(@Valid @RequestBody Appointment appointment, @PathVariable String token) {
+        if (!service.validateToken(token, "patient")) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Invalid authentication token"));
+        }
+        return appointmentService.updateAppointment(appointment, token);
+    }
 
 
 // 6. Define the `cancelAppointment` Method:
@@ -43,6 +110,10 @@ public class AppointmentController {
 //    - Accepts the appointment ID and a token as path variables.
 //    - Validates the token for `"patient"` role to ensure the user is authorized to cancel the appointment.
 //    - Calls `AppointmentService` to handle the cancellation process and returns the result.
+    @DeleteMapping("/{id}/{token}")
+    public ResponseEntity<Map<String, String>> cancelAppointment(@PathVariable Long id, @PathVariable String token) {
+        return appointmentService.cancelAppointment(id, token);
+    }
 
 
 }
@@ -1,7 +1,34 @@
 package com.project.back_end.controllers;
 
-
+import com.project.back_end.DTO.Login;
+import com.project.back_end.services.DoctorService;
+import com.project.back_end.services.Service;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+@RestController
+@RequestMapping("${api.path}doctor")
 public class DoctorController {
+    private final DoctorService doctorService;
+    private final Service service;
+
+    public DoctorController(DoctorService doctorService, Service service) {
+        this.doctorService = doctorService;
+        this.service = service;
+    }
 
 // 1. Set Up the Controller Class:
 //    - Annotate the class with `@RestController` to define it as a REST controller that serves JSON responses.
@@ -19,11 +46,57 @@ public class DoctorController {
 //    - Requires `user` type, `doctorId`, `date`, and `token` as path variables.
 //    - First validates the token against the user type.
 //    - If the token is invalid, returns an error response; otherwise, returns the availability status for the doctor.
+    @GetMapping("/availability/{user}/{doctorId}/{date}/{token}")
+    public ResponseEntity<Map<String, Object>> getDoctorAvailability(@PathVariable String user, @PathVariable Long doctorId,
+                                                                     @PathVariable LocalDate date, @PathVariable String token) {
+        if (!service.validateToken(token, user)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Invalid authentication token"));
+        }
+        try {
+            return ResponseEntity.ok(Map.of("availableTimes", doctorService.getDoctorAvailability(doctorId, date)));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        }
+    }
 
 
 // 4. Define the `getDoctor` Method:
 //    - Handles HTTP GET requests to retrieve a list of all doctors.
 //    - Returns the list within a response map under the key `"doctors"` with HTTP 200 OK status.
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> getDoctor() {
+        return ResponseEntity.ok(Map.of("doctors", doctorService.getDoctors()));
+    }
+
+//    - `/page/{user}/{token}` returns one keyset page: doctors with an id greater than `after`, and the `next` cursor.
+//    - Like `/stream`, it exports contact details in bulk, so it needs a valid token for the given user type.
+    @GetMapping("/page/{user}/{token}")
+    public ResponseEntity<Map<String, Object>> getDoctorPage(@PathVariable String user, @PathVariable String token,
+                                                             @RequestParam(required = false) Long after,
+                                                             @RequestParam(required = false) Integer size) {
+        if (!service.validateToken(token, user)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Invalid authentication token"));
+        }
+        return ResponseEntity.ok(doctorService.getDoctorPage(after, size));
+    }
+
+//    - `/cache/stats/{token}` reports doctor cache hits and misses to admins.
+    @GetMapping("/cache/stats/{token}")
+    public ResponseEntity<Map<String, Object>> getCacheStats(@PathVariable String token) {
+        if (!service.validateToken(token, "admin")) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Invalid authentication token"));
+        }
+        return ResponseEntity.ok(doctorService.getCacheStats());
+    }
+
+//    - `/stream/{user}/{token}` writes the whole directory as a JSON array, page by page, without holding it in memory.
+    @GetMapping(value = "/stream/{user}/{token}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamDoctors(@PathVariable String user, @PathVariable String token) {
+        if (!service.validateToken(token, user)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(doctorService::streamDoctors);
+    }
 
 
 // 5. Define the `saveDoctor` Method:
@@ -37,6 +110,11 @@ public class DoctorController {
 //    - Handles HTTP POST requests for doctor login.
 //    - Accepts a validated `Login` DTO containing credentials.
 //    - Delegates authentication to the `DoctorService` and returns login status and token information.
+//    - The response completes asynchronously once the password hash has been checked.
+    @PostMapping("/login")
+    public CompletableFuture<ResponseEntity<Map<String, String>>> doctorLogin(@RequestBody Login login) {
+        return doctorService.validateDoctor(login);
+    }
 
 
 // 7. Define the `updateDoctor` Method:
@@ -56,6 +134,10 @@ public class DoctorController {
 //    - Handles HTTP GET requests to filter doctors based on name, time, and specialty.
 //    - Accepts `name`, `time`, and `speciality` as path variables.
 //    - Calls the shared `Service` to perform filtering logic and returns matching doctors in the response.
+    @GetMapping("/filter/{name}/{time}/{speciality}")
+    public ResponseEntity<Map<String, Object>> filter(@PathVariable String name, @PathVariable String time, @PathVariable String speciality) {
+        return ResponseEntity.ok(service.filterDoctor(name, speciality, time));
+    }
 
 
 }
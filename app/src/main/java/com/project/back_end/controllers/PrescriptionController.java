@@ -1,7 +1,39 @@
 package com.project.back_end.controllers;
 
+import com.project.back_end.models.Prescription;
+import com.project.back_end.services.PrescriptionImportService;
+import com.project.back_end.services.PrescriptionService;
+import com.project.back_end.services.Service;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+@RestController
+@RequestMapping("${api.path}prescription")
 public class PrescriptionController {
-    
+    private final PrescriptionService prescriptionService;
+    private final PrescriptionImportService prescriptionImportService;
+    private final Service service;
+
+    public PrescriptionController(PrescriptionService prescriptionService, PrescriptionImportService prescriptionImportService, Service service) {
+        this.prescriptionService = prescriptionService;
+        this.prescriptionImportService = prescriptionImportService;
+        this.service = service;
+    }
+
 // 1. Set Up the Controller Class:
 //    - Annotate the class with `@RestController` to define it as a REST API controller.
 //    - Use `@RequestMapping("${api.path}prescription")` to set the base path for all prescription-related endpoints.
@@ -20,6 +52,13 @@ public class PrescriptionController {
 //    - Validates the token for the `"doctor"` role.
 //    - If the token is valid, updates the status of the corresponding appointment to reflect that a prescription has been added.
 //    - Delegates the saving logic to `PrescriptionService` and returns a response indicating success or failure.
+    @PostMapping("/{token}")
+    public Mono<ResponseEntity<Map<String, String>>> savePrescription(@Valid @RequestBody Prescription prescription, @PathVariable String token) {
+        if (!service.validateToken(token, "doctor")) {
+            return Mono.just(ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", "Invalid authentication token")));
+        }
+        return prescriptionService.savePrescription(prescription);
+    }
 
 
 // 4. Define the `getPrescription` Method:
@@ -28,6 +67,35 @@ public class PrescriptionController {
 //    - Validates the token for the `"doctor"` role using the shared service.
 //    - If the token is valid, fetches the prescription using the `PrescriptionService`.
 //    - Returns the prescription details or an appropriate error message if validation fails.
+    @GetMapping("/{appointmentId}/{token}")
+    public Mono<ResponseEntity<Map<String, Object>>> getPrescription(@PathVariable Long appointmentId, @PathVariable String token) {
+        if (!service.validateToken(token, "doctor")) {
+            return Mono.just(ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", "Invalid authentication token")));
+        }
+        return prescriptionService.getPrescription(appointmentId);
+    }
+
+//    - `/patient/{patientId}/{token}` streams a patient's whole history as NDJSON, newest first. Spring MVC
+//      requests one prescription at a time from the publisher, so a slow client slows the Mongo cursor down.
+    @GetMapping(value = "/patient/{patientId}/{token}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Flux<Prescription>> getPrescriptionHistory(@PathVariable Long patientId, @PathVariable String token) {
+        if (!service.validateToken(token, "doctor")) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Flux.empty());
+        }
+        return ResponseEntity.ok(prescriptionService.getPrescriptionHistory(patientId));
+    }
+
 
+// 5. Define the `importPrescriptions` Method:
+//    - Handles HTTP POST requests with an NDJSON body (one prescription per line) and an admin token.
+//    - The body is streamed into `PrescriptionImportService`, so the upload is never held in memory.
+//    - Returns the import report: counts of read, inserted and failed records and the first errors.
+    @PostMapping(value = "/import/{token}", consumes = {"application/x-ndjson", "text/plain"})
+    public ResponseEntity<?> importPrescriptions(@PathVariable String token, InputStream body) throws IOException {
+        if (!service.validateToken(token, "admin")) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Invalid authentication token"));
+        }
+        return ResponseEntity.ok(prescriptionImportService.importNdjson(body));
+    }
 
 }
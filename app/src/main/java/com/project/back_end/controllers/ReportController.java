@@ -0,0 +1,65 @@
+package com.project.back_end.controllers;
+
+import com.project.back_end.services.ReportingService;
+import com.project.back_end.services.Service;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Map;
+
+/**
+ * Admin reports served from the counters kept by {@link ReportingService}.
+ */
+@RestController
+@RequestMapping("${api.path}reports")
+public class ReportController {
+    private final ReportingService reportingService;
+    private final Service service;
+
+    public ReportController(ReportingService reportingService, Service service) {
+        this.reportingService = reportingService;
+        this.service = service;
+    }
+
+    @GetMapping("/daily/{date}/{token}")
+    public ResponseEntity<Map<String, Object>> getDailyReport(@PathVariable LocalDate date, @PathVariable String token) {
+        if (!service.validateToken(token, "admin")) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Invalid authentication token"));
+        }
+        return ResponseEntity.ok(Map.of("date", date, "doctors", reportingService.getDailyReport(date)));
+    }
+
+    @GetMapping("/monthly/{year}/{month}/{token}")
+    public ResponseEntity<Map<String, Object>> getMonthlyReport(@PathVariable int year, @PathVariable int month, @PathVariable String token,
+                                                                @RequestParam(defaultValue = "1") int top) {
+        if (!service.validateToken(token, "admin")) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Invalid authentication token"));
+        }
+        return ResponseEntity.ok(Map.of("doctors", reportingService.getMonthlyReport(YearMonth.of(year, month), Math.max(top, 1))));
+    }
+
+    @GetMapping("/yearly/{year}/{token}")
+    public ResponseEntity<Map<String, Object>> getYearlyReport(@PathVariable int year, @PathVariable String token,
+                                                               @RequestParam(defaultValue = "1") int top) {
+        if (!service.validateToken(token, "admin")) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Invalid authentication token"));
+        }
+        return ResponseEntity.ok(Map.of("doctors", reportingService.getYearlyReport(year, Math.max(top, 1))));
+    }
+
+    @PostMapping("/reconcile/{token}")
+    public ResponseEntity<Map<String, Object>> reconcile(@PathVariable String token) {
+        if (!service.validateToken(token, "admin")) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Invalid authentication token"));
+        }
+        return ResponseEntity.ok(Map.of("repairedPeriods", reportingService.reconcileRecent()));
+    }
+}
@@ -10,7 +10,11 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = Appointment.SLOT_CONSTRAINT, columnNames = {"doctor_id", "appointment_time"}),
+        indexes = @Index(name = "idx_appointment_time", columnList = "appointment_time"))
 public class Appointment {
+    public static final String SLOT_CONSTRAINT = "uk_appointment_doctor_time";
+
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
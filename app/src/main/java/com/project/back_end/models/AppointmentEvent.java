@@ -0,0 +1,127 @@
+package com.project.back_end.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * A change to a doctor's appointments waiting to be delivered to one subscriber. Written by
+ * {@code AppointmentOutbox} in the transaction that makes the change, one row per subscriber,
+ * and deleted by {@code AppointmentEventDispatcher} once that subscriber has handled it. Each
+ * failed delivery is counted in {@code attempts} and pushes {@code retryAt} back; an event that
+ * fails too often is {@code parked} and no longer delivered.
+ */
+@Entity
+@Table(name = "appointment_event", indexes = @Index(name = "idx_appointment_event_subscriber", columnList = "subscriber, id"))
+public class AppointmentEvent {
+    public enum Type {
+        BOOKED, MOVED, CANCELLED, DOCTOR_REMOVED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 50)
+    private String subscriber;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 14)
+    private Type type;
+
+    @Column(nullable = false)
+    private Long doctorId;
+
+    // Null for DOCTOR_REMOVED
+    private Long appointmentId;
+
+    private Long patientId;
+
+    private LocalDateTime appointmentTime;
+
+    // The time a MOVED appointment had before
+    private LocalDateTime previousTime;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    // Not delivered again before this time; null until a delivery fails
+    private LocalDateTime retryAt;
+
+    @Column(nullable = false)
+    private boolean parked;
+
+    public AppointmentEvent() {
+    }
+
+    public AppointmentEvent(String subscriber, Type type, Long doctorId, Long appointmentId, Long patientId,
+                            LocalDateTime appointmentTime, LocalDateTime previousTime, LocalDateTime createdAt) {
+        this.subscriber = subscriber;
+        this.type = type;
+        this.doctorId = doctorId;
+        this.appointmentId = appointmentId;
+        this.patientId = patientId;
+        this.appointmentTime = appointmentTime;
+        this.previousTime = previousTime;
+        this.createdAt = createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getSubscriber() {
+        return subscriber;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    public Long getAppointmentId() {
+        return appointmentId;
+    }
+
+    public Long getPatientId() {
+        return patientId;
+    }
+
+    public LocalDateTime getAppointmentTime() {
+        return appointmentTime;
+    }
+
+    public LocalDateTime getPreviousTime() {
+        return previousTime;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public LocalDateTime getRetryAt() {
+        return retryAt;
+    }
+
+    public boolean isParked() {
+        return parked;
+    }
+}
@@ -0,0 +1,60 @@
+package com.project.back_end.models;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * The cold tier of {@link Appointment}: appointments older than {@code appointment.cold.horizon},
+ * and every appointment of a removed doctor. Rows keep their original id so prescriptions that
+ * reference them still resolve, and are only written by
+ * {@link com.project.back_end.repo.ArchivedAppointmentRepository#archive}.
+ */
+@Entity
+@Table(name = "archived_appointment", indexes = {
+        @Index(name = "idx_archived_appointment_doctor_time", columnList = "doctor_id, appointment_time"),
+        @Index(name = "idx_archived_appointment_time", columnList = "appointment_time")})
+public class ArchivedAppointment {
+    @Id
+    private Long id;
+
+    private Long doctorId;
+
+    private Long patientId;
+
+    private LocalDateTime appointmentTime;
+
+    private int status;
+
+    private LocalDateTime archivedAt;
+
+    public ArchivedAppointment() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    public Long getPatientId() {
+        return patientId;
+    }
+
+    public LocalDateTime getAppointmentTime() {
+        return appointmentTime;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+}
@@ -6,11 +6,16 @@ import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.util.List;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Doctor.CACHE_REGION)
 public class Doctor {
+    public static final String CACHE_REGION = "doctor";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -38,6 +43,7 @@ public class Doctor {
 
     @NotNull
     @ElementCollection
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Doctor.CACHE_REGION + ".availableTimes")
     private List<String> availableTimes;
 
     public Long getId() {
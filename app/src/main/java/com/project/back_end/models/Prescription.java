@@ -5,9 +5,16 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.time.LocalDateTime;
+
+// Both compound indexes end with medication and dosage so the summary projections are covered queries
 @Document(collection = "prescriptions")
+@CompoundIndex(name = "appointment_medication_dosage", def = "{ 'appointmentId': 1, 'medication': 1, 'dosage': 1 }")
+@CompoundIndex(name = "patient_issued_medication_dosage", def = "{ 'patientId': 1, 'issuedAt': -1, 'medication': 1, 'dosage': 1 }")
 public class Prescription {
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
@@ -17,9 +24,15 @@ public class Prescription {
     @Size(min = 3, max = 100)
     private String patientName;
 
+    // One prescription per appointment, enforced by the server rather than checked before saving
     @NotNull
+    @Indexed(name = "appointment_unique", unique = true)
     private Long appointmentId;
 
+    private Long patientId;
+
+    private LocalDateTime issuedAt;
+
     @NotNull
     @Size(min = 3, max = 100)
     private String medication;
@@ -30,6 +43,12 @@ public class Prescription {
     @Size(max = 200)
     private String doctorNotes;
 
+    // Set once the appointment was cancelled; the prescription itself is kept
+    private boolean appointmentCancelled;
+
+    // Set once the appointment was moved to archived_appointment along with its removed doctor
+    private boolean appointmentArchived;
+
     public Prescription(String patientName, Long appointmentId, String medication, String dosage, String doctorNotes) {
         this.patientName = patientName;
         this.appointmentId = appointmentId;
@@ -62,6 +81,22 @@ public class Prescription {
         this.appointmentId = appointmentId;
     }
 
+    public Long getPatientId() {
+        return patientId;
+    }
+
+    public void setPatientId(Long patientId) {
+        this.patientId = patientId;
+    }
+
+    public LocalDateTime getIssuedAt() {
+        return issuedAt;
+    }
+
+    public void setIssuedAt(LocalDateTime issuedAt) {
+        this.issuedAt = issuedAt;
+    }
+
     public String getMedication() {
         return medication;
     }
@@ -85,4 +120,20 @@ public class Prescription {
     public void setDoctorNotes(String doctorNotes) {
         this.doctorNotes = doctorNotes;
     }
+
+    public boolean isAppointmentCancelled() {
+        return appointmentCancelled;
+    }
+
+    public void setAppointmentCancelled(boolean appointmentCancelled) {
+        this.appointmentCancelled = appointmentCancelled;
+    }
+
+    public boolean isAppointmentArchived() {
+        return appointmentArchived;
+    }
+
+    public void setAppointmentArchived(boolean appointmentArchived) {
+        this.appointmentArchived = appointmentArchived;
+    }
 }
@@ -0,0 +1,107 @@
+package com.project.back_end.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Appointments and distinct patients of one doctor in one day, month or year, kept up to date
+ * by {@code ReportingService} as appointments are booked, moved and cancelled.
+ */
+@Entity
+@Table(name = "report_counter", indexes = @Index(name = "idx_report_counter_period", columnList = "period, period_start, appointments"))
+@IdClass(ReportCounter.Key.class)
+public class ReportCounter {
+    @Id
+    private Long doctorId;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 5)
+    private ReportPeriod period;
+
+    @Id
+    private LocalDate periodStart;
+
+    private long appointments;
+
+    private long uniquePatients;
+
+    public ReportCounter() {
+    }
+
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    public void setDoctorId(Long doctorId) {
+        this.doctorId = doctorId;
+    }
+
+    public ReportPeriod getPeriod() {
+        return period;
+    }
+
+    public void setPeriod(ReportPeriod period) {
+        this.period = period;
+    }
+
+    public LocalDate getPeriodStart() {
+        return periodStart;
+    }
+
+    public void setPeriodStart(LocalDate periodStart) {
+        this.periodStart = periodStart;
+    }
+
+    public long getAppointments() {
+        return appointments;
+    }
+
+    public void setAppointments(long appointments) {
+        this.appointments = appointments;
+    }
+
+    public long getUniquePatients() {
+        return uniquePatients;
+    }
+
+    public void setUniquePatients(long uniquePatients) {
+        this.uniquePatients = uniquePatients;
+    }
+
+    public static class Key implements Serializable {
+        private Long doctorId;
+        private ReportPeriod period;
+        private LocalDate periodStart;
+
+        public Key() {
+        }
+
+        public Key(Long doctorId, ReportPeriod period, LocalDate periodStart) {
+            this.doctorId = doctorId;
+            this.period = period;
+            this.periodStart = periodStart;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key key && Objects.equals(doctorId, key.doctorId)
+                    && period == key.period && Objects.equals(periodStart, key.periodStart);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(doctorId, period, periodStart);
+        }
+    }
+}
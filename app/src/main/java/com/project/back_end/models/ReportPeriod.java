@@ -0,0 +1,23 @@
+package com.project.back_end.models;
+
+import java.time.LocalDate;
+
+public enum ReportPeriod {
+    DAY, MONTH, YEAR;
+
+    public LocalDate start(LocalDate date) {
+        return switch (this) {
+            case DAY -> date;
+            case MONTH -> date.withDayOfMonth(1);
+            case YEAR -> date.withDayOfYear(1);
+        };
+    }
+
+    public LocalDate next(LocalDate start) {
+        return switch (this) {
+            case DAY -> start.plusDays(1);
+            case MONTH -> start.plusMonths(1);
+            case YEAR -> start.plusYears(1);
+        };
+    }
+}
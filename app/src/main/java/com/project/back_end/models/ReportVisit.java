@@ -0,0 +1,94 @@
+package com.project.back_end.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * How many appointments one patient has with one doctor in a day, month or year. The row exists
+ * while the count is positive, which is what makes the patient count in {@link ReportCounter}
+ * maintainable without rescanning appointments.
+ */
+@Entity
+@Table(name = "report_visit")
+@IdClass(ReportVisit.Key.class)
+public class ReportVisit {
+    @Id
+    private Long doctorId;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(length = 5)
+    private ReportPeriod period;
+
+    @Id
+    private LocalDate periodStart;
+
+    @Id
+    private Long patientId;
+
+    private long visits;
+
+    public ReportVisit() {
+    }
+
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    public ReportPeriod getPeriod() {
+        return period;
+    }
+
+    public LocalDate getPeriodStart() {
+        return periodStart;
+    }
+
+    public Long getPatientId() {
+        return patientId;
+    }
+
+    public long getVisits() {
+        return visits;
+    }
+
+    public void setVisits(long visits) {
+        this.visits = visits;
+    }
+
+    public static class Key implements Serializable {
+        private Long doctorId;
+        private ReportPeriod period;
+        private LocalDate periodStart;
+        private Long patientId;
+
+        public Key() {
+        }
+
+        public Key(Long doctorId, ReportPeriod period, LocalDate periodStart, Long patientId) {
+            this.doctorId = doctorId;
+            this.period = period;
+            this.periodStart = periodStart;
+            this.patientId = patientId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key key && Objects.equals(doctorId, key.doctorId) && period == key.period
+                    && Objects.equals(periodStart, key.periodStart) && Objects.equals(patientId, key.patientId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(doctorId, period, periodStart, patientId);
+        }
+    }
+}
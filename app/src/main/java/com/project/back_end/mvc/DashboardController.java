@@ -1,26 +1,47 @@
 package com.project.back_end.mvc;
 
+import com.project.back_end.services.DashboardService;
 import com.project.back_end.services.Service;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
 import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.context.request.ServletWebRequest;
 
 @Controller
 public class DashboardController {
     @Autowired
     private Service service;
 
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Value("${dashboard.prerender:false}")
+    private boolean prerender;
+
 // 3. Define the `adminDashboard` Method:
 //    - Handles HTTP GET requests to `/adminDashboard/{token}`.
 //    - Accepts an admin's token as a path variable.
 //    - Validates the token using the shared service for the `"admin"` role.
 //    - If the token is valid (i.e., no errors returned), forwards the user to the `"admin/adminDashboard"` view.
 //    - If invalid, redirects to the root URL, likely the login or home page.
+//    - With `dashboard.prerender=true` the doctor cards come from the cached snapshot, and a matching
+//      `If-None-Match` is answered with 304 before anything is rendered.
     @GetMapping("/adminDashboard/{token}")
-    public String adminDashboard(@PathVariable String token) {
+    public String adminDashboard(@PathVariable String token, ServletWebRequest request, Model model) {
         if (!service.validateToken(token, "admin")) {
-            return "/";
+            return "redirect:/";
+        }
+        if (prerender) {
+            DashboardService.Snapshot snapshot = dashboardService.adminSnapshot();
+            request.getResponse().setHeader("Cache-Control", CacheControl.noCache().cachePrivate().getHeaderValue());
+            if (request.checkNotModified(snapshot.etag())) {
+                return null;
+            }
+            model.addAttribute("doctorCards", snapshot.cardsHtml());
         }
 
         return "admin/adminDashboard";
@@ -0,0 +1,46 @@
+package com.project.back_end.repo;
+
+import com.project.back_end.models.AppointmentEvent;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface AppointmentEventRepository extends JpaRepository<AppointmentEvent, Long> {
+
+    // Leaves out every event of a doctor with an event waiting to be retried, so their order is kept
+    @Query("SELECT e FROM AppointmentEvent e WHERE e.subscriber = :subscriber AND e.parked = false " +
+            "AND e.doctorId NOT IN (SELECT w.doctorId FROM AppointmentEvent w " +
+            "WHERE w.subscriber = :subscriber AND w.parked = false AND w.retryAt > :now) ORDER BY e.id")
+    public List<AppointmentEvent> findDeliverable(String subscriber, LocalDateTime now, Limit limit);
+
+    // The events still to be delivered that move an appointment into or out of [from, to), and doctor removals
+    @Query("SELECT e FROM AppointmentEvent e WHERE e.subscriber = :subscriber AND e.parked = false AND (" +
+            "e.type = com.project.back_end.models.AppointmentEvent.Type.DOCTOR_REMOVED " +
+            "OR (e.appointmentTime >= :from AND e.appointmentTime < :to) OR (e.previousTime >= :from AND e.previousTime < :to))")
+    public List<AppointmentEvent> findPendingBetween(String subscriber, LocalDateTime from, LocalDateTime to);
+
+    @Modifying
+    @Query("UPDATE AppointmentEvent e SET e.attempts = e.attempts + 1, e.retryAt = :retryAt WHERE e.id IN :ids")
+    public int recordFailedAttempt(List<Long> ids, LocalDateTime retryAt);
+
+    @Modifying
+    @Query("UPDATE AppointmentEvent e SET e.parked = true WHERE e.id IN :ids AND e.attempts >= :maxAttempts")
+    public int parkExhausted(List<Long> ids, int maxAttempts);
+
+    // Rows already delivered and deleted by another instance are not returned
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM AppointmentEvent e WHERE e.id IN :ids ORDER BY e.id")
+    public List<AppointmentEvent> lockAllByIdIn(List<Long> ids);
+
+    @Modifying
+    @Query("DELETE FROM AppointmentEvent e WHERE e.id IN :ids")
+    public int deleteAllByIdIn(List<Long> ids);
+}
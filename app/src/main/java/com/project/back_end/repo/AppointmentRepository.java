@@ -1,14 +1,19 @@
 package com.project.back_end.repo;
 
+import com.project.back_end.DTO.AppointmentDTO;
 import com.project.back_end.models.Appointment;
-import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface AppointmentRepository extends JpaRepository<Appointment, Long> {
@@ -16,16 +21,60 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
     @Query("SELECT a FROM Appointment a LEFT JOIN FETCH a.doctor d LEFT JOIN FETCH d.availableTimes WHERE a.doctor.id = :doctorId AND a.appointmentTime BETWEEN :start AND :end")
     public List<Appointment> findByDoctorIdAndAppointmentTimeBetween(Long doctorId, LocalDateTime start, LocalDateTime end);
 
-    @Query("SELECT a FROM Appointment a LEFT JOIN FETCH a.doctor d LEFT JOIN FETCH d.availableTimes LEFT JOIN FETCH a.patient p WHERE a.doctor.id = :doctorId AND LOWER(p.name) LIKE CONCAT('%',LOWER(:patientName),'%') AND a.appointmentTime BETWEEN :start AND :end")
-    public List<Appointment> findByDoctorIdAndPatient_NameContainingIgnoreCaseAndAppointmentTimeBetween(Long doctorId, String patientName, LocalDateTime start, LocalDateTime end);
+    // One row per appointment over [start, end), read as a range on the (doctor_id, appointment_time) unique index
+    @Query("SELECT new com.project.back_end.DTO.AppointmentDTO(a.id, d.id, p.id, d.name, p.name, p.email, p.phone, p.address, a.appointmentTime, a.status) " +
+            "FROM Appointment a JOIN a.doctor d JOIN a.patient p " +
+            "WHERE d.id = :doctorId AND a.appointmentTime >= :start AND a.appointmentTime < :end ORDER BY a.appointmentTime")
+    public List<AppointmentDTO> findSchedule(Long doctorId, LocalDateTime start, LocalDateTime end);
+
+    // Same range as findSchedule, filtered on a LIKE pattern over idx_patient_name. The match is
+    // case-insensitive through the column's _ci collation, the MySQL default.
+    @Query(value = "SELECT new com.project.back_end.DTO.AppointmentDTO(a.id, d.id, p.id, d.name, p.name, p.email, p.phone, p.address, a.appointmentTime, a.status) " +
+            "FROM Appointment a JOIN a.doctor d JOIN a.patient p " +
+            "WHERE d.id = :doctorId AND a.appointmentTime >= :start AND a.appointmentTime < :end AND p.name LIKE :namePattern ESCAPE '!' " +
+            "ORDER BY a.appointmentTime",
+            countQuery = "SELECT COUNT(a) FROM Appointment a JOIN a.patient p " +
+                    "WHERE a.doctor.id = :doctorId AND a.appointmentTime >= :start AND a.appointmentTime < :end AND p.name LIKE :namePattern ESCAPE '!'")
+    public Page<AppointmentDTO> findScheduleByPatientName(Long doctorId, String namePattern, LocalDateTime start, LocalDateTime end, Pageable pageable);
+
+    // findScheduleByPatientName without the count, for reading the tier from a seek position
+    @Query("SELECT new com.project.back_end.DTO.AppointmentDTO(a.id, d.id, p.id, d.name, p.name, p.email, p.phone, p.address, a.appointmentTime, a.status) " +
+            "FROM Appointment a JOIN a.doctor d JOIN a.patient p " +
+            "WHERE d.id = :doctorId AND a.appointmentTime >= :start AND a.appointmentTime < :end AND p.name LIKE :namePattern ESCAPE '!' " +
+            "ORDER BY a.appointmentTime")
+    public List<AppointmentDTO> findScheduleByPatientName(Long doctorId, String namePattern, LocalDateTime start, LocalDateTime end, Limit limit);
+
+    // The times of findScheduleByPatientName, read off the index to seek a page across the tiers
+    @Query("SELECT a.appointmentTime FROM Appointment a JOIN a.patient p " +
+            "WHERE a.doctor.id = :doctorId AND a.appointmentTime >= :start AND a.appointmentTime < :end AND p.name LIKE :namePattern ESCAPE '!' " +
+            "ORDER BY a.appointmentTime")
+    public List<LocalDateTime> findScheduleTimesByPatientName(Long doctorId, String namePattern, LocalDateTime start, LocalDateTime end, Pageable pageable);
+
+    @Query("SELECT COUNT(a) FROM Appointment a JOIN a.patient p " +
+            "WHERE a.doctor.id = :doctorId AND a.appointmentTime >= :start AND a.appointmentTime < :end AND p.name LIKE :namePattern ESCAPE '!'")
+    public long countScheduleByPatientName(Long doctorId, String namePattern, LocalDateTime start, LocalDateTime end);
+
+    @Query("SELECT a.id FROM Appointment a WHERE a.doctor.id = :doctorId ORDER BY a.id")
+    public List<Long> findIdsByDoctorId(Long doctorId, Limit limit);
+
+    public long countByDoctorId(Long doctorId);
+
+    // Oldest first, along idx_appointment_time
+    @Query("SELECT a.id FROM Appointment a WHERE a.appointmentTime < :before ORDER BY a.appointmentTime")
+    public List<Long> findIdsBefore(LocalDateTime before, Limit limit);
 
     @Modifying
-    @Transactional
-//    @Query("DELETE FROM Appointment a WHERE a.doctor.id = :doctorId")
-    public void deleteAllByDoctorId(Long doctorId);
+    @Query("DELETE FROM Appointment a WHERE a.id IN :ids")
+    public int deleteAllByIdIn(List<Long> ids);
 
     public List<Appointment> findByPatientId(Long patientId);
 
+    @Query("SELECT a.patient.id FROM Appointment a WHERE a.id = :id")
+    public Optional<Long> findPatientIdById(Long id);
+
+    @Query("SELECT a.id, a.patient.id FROM Appointment a WHERE a.id IN :ids")
+    public List<Object[]> findPatientIdsByIdIn(Collection<Long> ids);
+
     public List<Appointment> findByPatient_IdAndStatusOrderByAppointmentTimeAsc(Long patientId, int status);
 
     @Query("SELECT a FROM Appointment a WHERE LOWER(a.doctor.name) LIKE CONCAT('%',LOWER(:doctorName),'%') AND a.patient.id = :patientId")
@@ -34,6 +83,18 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
     @Query("SELECT a FROM Appointment a WHERE LOWER(a.doctor.name) LIKE CONCAT('%',LOWER(:doctorName),'%') AND a.patient.id = :patientId AND a.status = :status")
     public List<Appointment> filterByDoctorNameAndPatientIdAndStatus(String doctorName, Long patientId, int status);
 
+    @Query("SELECT a.doctor.id, a.appointmentTime FROM Appointment a WHERE a.appointmentTime >= :from")
+    public List<Object[]> findSlotsFrom(LocalDateTime from);
+
+    @Query("SELECT a.appointmentTime FROM Appointment a WHERE a.doctor.id = :doctorId AND a.appointmentTime >= :from")
+    public List<LocalDateTime> findSlotsByDoctorIdFrom(Long doctorId, LocalDateTime from);
+
+    @Query("SELECT a.doctor.id, COUNT(a), COUNT(DISTINCT a.patient.id) FROM Appointment a WHERE a.appointmentTime >= :start AND a.appointmentTime < :end GROUP BY a.doctor.id")
+    public List<Object[]> countByDoctorBetween(LocalDateTime start, LocalDateTime end);
+
+    @Query("SELECT a.doctor.id, a.patient.id, COUNT(a) FROM Appointment a WHERE a.appointmentTime >= :start AND a.appointmentTime < :end GROUP BY a.doctor.id, a.patient.id")
+    public List<Object[]> countByDoctorAndPatientBetween(LocalDateTime start, LocalDateTime end);
+
     @Query("UPDATE Appointment a SET a.status = :status WHERE a.id = :id")
     public void updateStatus(int status, Long id);
 }
@@ -0,0 +1,61 @@
+package com.project.back_end.repo;
+
+import com.project.back_end.DTO.AppointmentDTO;
+import com.project.back_end.models.ArchivedAppointment;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+// Reads join Doctor, so the appointments of removed doctors drop out like they did from `appointment`
+@Repository
+public interface ArchivedAppointmentRepository extends JpaRepository<ArchivedAppointment, Long> {
+
+    // Copies the appointments in one statement
+    @Modifying
+    @Query(value = "INSERT INTO archived_appointment (id, doctor_id, patient_id, appointment_time, status, archived_at) " +
+            "SELECT a.id, a.doctor_id, a.patient_id, a.appointment_time, a.status, :archivedAt FROM appointment a " +
+            "WHERE a.id IN :ids",
+            nativeQuery = true)
+    public int archive(List<Long> ids, LocalDateTime archivedAt);
+
+    public long countByDoctorId(Long doctorId);
+
+    @Query("SELECT a.id, a.patientId FROM ArchivedAppointment a WHERE a.id IN :ids")
+    public List<Object[]> findPatientIdsByIdIn(Collection<Long> ids);
+
+    // AppointmentRepository.findScheduleByPatientName over the cold tier
+    @Query(value = "SELECT new com.project.back_end.DTO.AppointmentDTO(a.id, d.id, p.id, d.name, p.name, p.email, p.phone, p.address, a.appointmentTime, a.status) " +
+            "FROM ArchivedAppointment a JOIN Doctor d ON d.id = a.doctorId JOIN Patient p ON p.id = a.patientId " +
+            "WHERE a.doctorId = :doctorId AND a.appointmentTime >= :start AND a.appointmentTime < :end AND p.name LIKE :namePattern ESCAPE '!' " +
+            "ORDER BY a.appointmentTime",
+            countQuery = "SELECT COUNT(a) FROM ArchivedAppointment a JOIN Doctor d ON d.id = a.doctorId JOIN Patient p ON p.id = a.patientId " +
+                    "WHERE a.doctorId = :doctorId AND a.appointmentTime >= :start AND a.appointmentTime < :end AND p.name LIKE :namePattern ESCAPE '!'")
+    public Page<AppointmentDTO> findScheduleByPatientName(Long doctorId, String namePattern, LocalDateTime start, LocalDateTime end, Pageable pageable);
+
+    @Query("SELECT new com.project.back_end.DTO.AppointmentDTO(a.id, d.id, p.id, d.name, p.name, p.email, p.phone, p.address, a.appointmentTime, a.status) " +
+            "FROM ArchivedAppointment a JOIN Doctor d ON d.id = a.doctorId JOIN Patient p ON p.id = a.patientId " +
+            "WHERE a.doctorId = :doctorId AND a.appointmentTime >= :start AND a.appointmentTime < :end AND p.name LIKE :namePattern ESCAPE '!' " +
+            "ORDER BY a.appointmentTime")
+    public List<AppointmentDTO> findScheduleByPatientName(Long doctorId, String namePattern, LocalDateTime start, LocalDateTime end, Limit limit);
+
+    @Query("SELECT a.appointmentTime FROM ArchivedAppointment a JOIN Doctor d ON d.id = a.doctorId JOIN Patient p ON p.id = a.patientId " +
+            "WHERE a.doctorId = :doctorId AND a.appointmentTime >= :start AND a.appointmentTime < :end AND p.name LIKE :namePattern ESCAPE '!' " +
+            "ORDER BY a.appointmentTime")
+    public List<LocalDateTime> findScheduleTimesByPatientName(Long doctorId, String namePattern, LocalDateTime start, LocalDateTime end, Pageable pageable);
+
+    @Query("SELECT COUNT(a) FROM ArchivedAppointment a JOIN Doctor d ON d.id = a.doctorId JOIN Patient p ON p.id = a.patientId " +
+            "WHERE a.doctorId = :doctorId AND a.appointmentTime >= :start AND a.appointmentTime < :end AND p.name LIKE :namePattern ESCAPE '!'")
+    public long countScheduleByPatientName(Long doctorId, String namePattern, LocalDateTime start, LocalDateTime end);
+
+    @Query("SELECT a.doctorId, a.patientId, COUNT(a) FROM ArchivedAppointment a JOIN Doctor d ON d.id = a.doctorId " +
+            "WHERE a.appointmentTime >= :start AND a.appointmentTime < :end GROUP BY a.doctorId, a.patientId")
+    public List<Object[]> countByDoctorAndPatientBetween(LocalDateTime start, LocalDateTime end);
+}
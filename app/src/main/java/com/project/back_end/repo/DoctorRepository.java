@@ -1,8 +1,15 @@
 package com.project.back_end.repo;
 
 import com.project.back_end.models.Doctor;
+import jakarta.persistence.QueryHint;
+import jakarta.transaction.Transactional;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -12,12 +19,39 @@ public interface DoctorRepository extends JpaRepository<Doctor, Long> {
 
     public Doctor findByEmail(String email);
 
+    @EntityGraph(attributePaths = "availableTimes")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    public Doctor findWithAvailableTimesByEmail(String email);
+
     @Query("SELECT d FROM Doctor d WHERE d.name LIKE CONCAT('%',:name,'%')")
     public List<Doctor> findByNameLike(String name);
 
     @Query("SELECT d FROM Doctor d WHERE LOWER(d.name) LIKE CONCAT('%',LOWER(:name),'%') and LOWER(d.specialty) = LOWER(:specialty)")
     public List<Doctor> findByNameContainingIgnoreCaseAndSpecialtyIgnoreCase(String name, String speciality);
 
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT DISTINCT d FROM Doctor d LEFT JOIN FETCH d.availableTimes ORDER BY d.id")
+    public List<Doctor> findAllWithAvailableTimes();
+
+    @Query("SELECT d.id FROM Doctor d WHERE d.id > :afterId ORDER BY d.id")
+    public List<Long> findIdsAfter(Long afterId, Limit limit);
+
+    @Query("SELECT DISTINCT d FROM Doctor d LEFT JOIN FETCH d.availableTimes WHERE d.id IN :ids ORDER BY d.id")
+    public List<Doctor> findAllWithAvailableTimesByIdIn(List<Long> ids);
+
+    @Query("SELECT d.id, t FROM Doctor d JOIN d.availableTimes t")
+    public List<Object[]> findAllAvailableTimes();
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Doctor d SET d.password = :password WHERE d.id = :id")
+    public void updatePassword(Long id, String password);
+
+    // At most `limit` rows per statement, so each transaction stays short however many slots the doctor has
+    @Modifying
+    @Query(value = "DELETE FROM doctor_available_times WHERE doctor_id = :doctorId LIMIT :limit", nativeQuery = true)
+    public int deleteAvailableTimes(Long doctorId, int limit);
+
 //    @Query("SELECT d FROM Doctor d WHERE LOWER(d.specialty) = LOWER(:specialty)")
     public List<Doctor> findBySpecialtyIgnoreCase(String specialty);
 
@@ -1,11 +1,28 @@
 package com.project.back_end.repo;
 
+import com.project.back_end.DTO.PrescriptionSummary;
 import com.project.back_end.models.Prescription;
+import org.springframework.data.mongodb.repository.Hint;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface PrescriptionRepository extends MongoRepository<Prescription, String> {
     public List<Prescription> findByAppointmentId(Long appointmentId);
-}
 
+    // Covered by appointment_medication_dosage: _id is excluded so no document is fetched. The hint
+    // keeps the planner off appointment_unique, which would have to fetch the document
+    @Hint("appointment_medication_dosage")
+    @Query(value = "{ 'appointmentId': ?0 }", fields = "{ '_id': 0, 'medication': 1, 'dosage': 1 }")
+    public List<PrescriptionSummary> findSummariesByAppointmentId(Long appointmentId);
+
+    @Query(value = "{ 'patientId': ?0, 'issuedAt': { '$gte': ?1, '$lt': ?2 } }", sort = "{ 'issuedAt': -1 }")
+    public List<Prescription> findByPatientIdAndIssuedAtInRange(Long patientId, LocalDateTime from, LocalDateTime to);
+
+    // Covered by patient_issued_medication_dosage
+    @Query(value = "{ 'patientId': ?0, 'issuedAt': { '$gte': ?1, '$lt': ?2 } }", sort = "{ 'issuedAt': -1 }",
+            fields = "{ '_id': 0, 'medication': 1, 'dosage': 1, 'issuedAt': 1 }")
+    public List<PrescriptionSummary> findSummariesByPatientIdAndIssuedAtInRange(Long patientId, LocalDateTime from, LocalDateTime to);
+}
@@ -0,0 +1,12 @@
+package com.project.back_end.repo;
+
+import com.project.back_end.models.Prescription;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Flux;
+
+public interface ReactivePrescriptionRepository extends ReactiveMongoRepository<Prescription, String> {
+    public Flux<Prescription> findByAppointmentId(Long appointmentId);
+
+    // Walks patient_issued_medication_dosage in index order
+    public Flux<Prescription> findByPatientIdOrderByIssuedAtDesc(Long patientId);
+}
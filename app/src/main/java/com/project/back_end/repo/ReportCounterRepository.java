@@ -0,0 +1,53 @@
+package com.project.back_end.repo;
+
+import com.project.back_end.DTO.DoctorActivity;
+import com.project.back_end.models.ReportCounter;
+import com.project.back_end.models.ReportPeriod;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ReportCounterRepository extends JpaRepository<ReportCounter, ReportCounter.Key> {
+
+    // A single atomic upsert, so concurrent bookings for one doctor never lose an increment
+    @Modifying
+    @Query(value = "INSERT INTO report_counter (doctor_id, period, period_start, appointments, unique_patients) " +
+            "VALUES (:doctorId, :period, :periodStart, :appointments, :uniquePatients) " +
+            "ON DUPLICATE KEY UPDATE appointments = appointments + :appointments, unique_patients = unique_patients + :uniquePatients",
+            nativeQuery = true)
+    public void add(Long doctorId, String period, LocalDate periodStart, long appointments, long uniquePatients);
+
+    @Query("SELECT new com.project.back_end.DTO.DoctorActivity(c.doctorId, d.name, c.appointments, c.uniquePatients) " +
+            "FROM ReportCounter c JOIN Doctor d ON d.id = c.doctorId " +
+            "WHERE c.period = :period AND c.periodStart = :periodStart AND c.appointments > 0 ORDER BY d.name, d.id")
+    public List<DoctorActivity> findActivity(ReportPeriod period, LocalDate periodStart);
+
+    // Reads the head of idx_report_counter_period backwards, whatever the size of the appointment history
+    @Query("SELECT new com.project.back_end.DTO.DoctorActivity(c.doctorId, d.name, c.appointments, c.uniquePatients) " +
+            "FROM ReportCounter c JOIN Doctor d ON d.id = c.doctorId " +
+            "WHERE c.period = :period AND c.periodStart = :periodStart AND c.appointments > 0 ORDER BY c.appointments DESC, c.doctorId")
+    public List<DoctorActivity> findTopActivity(ReportPeriod period, LocalDate periodStart, Limit limit);
+
+    public List<ReportCounter> findByPeriodAndPeriodStart(ReportPeriod period, LocalDate periodStart);
+
+    // Also locks the gaps of the period's index range, so no counter for it can be inserted either
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM ReportCounter c WHERE c.period = :period AND c.periodStart = :periodStart")
+    public List<ReportCounter> lockByPeriod(ReportPeriod period, LocalDate periodStart);
+
+    @Modifying
+    @Query("DELETE FROM ReportCounter c WHERE c.period = :period AND c.periodStart = :periodStart")
+    public void deleteByPeriod(ReportPeriod period, LocalDate periodStart);
+
+    @Modifying
+    @Query("DELETE FROM ReportCounter c WHERE c.doctorId = :doctorId")
+    public void deleteByDoctorId(Long doctorId);
+}
@@ -0,0 +1,42 @@
+package com.project.back_end.repo;
+
+import com.project.back_end.models.ReportPeriod;
+import com.project.back_end.models.ReportVisit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface ReportVisitRepository extends JpaRepository<ReportVisit, ReportVisit.Key> {
+
+    @Modifying
+    @Query(value = "INSERT INTO report_visit (doctor_id, period, period_start, patient_id, visits) " +
+            "VALUES (:doctorId, :period, :periodStart, :patientId, :visits) " +
+            "ON DUPLICATE KEY UPDATE visits = visits + :visits",
+            nativeQuery = true)
+    public void add(Long doctorId, String period, LocalDate periodStart, Long patientId, long visits);
+
+    @Query("SELECT v.visits FROM ReportVisit v WHERE v.doctorId = :doctorId AND v.period = :period AND v.periodStart = :periodStart AND v.patientId = :patientId")
+    public Long findVisits(Long doctorId, ReportPeriod period, LocalDate periodStart, Long patientId);
+
+    @Modifying
+    @Query("DELETE FROM ReportVisit v WHERE v.doctorId = :doctorId AND v.period = :period AND v.periodStart = :periodStart AND v.patientId = :patientId AND v.visits <= 0")
+    public int deleteIfEmpty(Long doctorId, ReportPeriod period, LocalDate periodStart, Long patientId);
+
+    // Reads only the keys, since a year holds a row per doctor and patient
+    @Query(value = "SELECT patient_id FROM report_visit WHERE period = :period AND period_start = :periodStart FOR UPDATE",
+            nativeQuery = true)
+    public List<Long> lockByPeriod(String period, LocalDate periodStart);
+
+    @Modifying
+    @Query("DELETE FROM ReportVisit v WHERE v.period = :period AND v.periodStart = :periodStart")
+    public void deleteByPeriod(ReportPeriod period, LocalDate periodStart);
+
+    @Modifying
+    @Query("DELETE FROM ReportVisit v WHERE v.doctorId = :doctorId")
+    public void deleteByDoctorId(Long doctorId);
+}
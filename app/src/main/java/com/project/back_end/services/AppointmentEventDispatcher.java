@@ -0,0 +1,244 @@
+package com.project.back_end.services;
+
+import com.project.back_end.models.AppointmentEvent;
+import com.project.back_end.repo.AppointmentEventRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Delivers the events recorded by {@link AppointmentOutbox} to each
+ * {@link AppointmentEventSubscriber}, at least once and in order for each doctor.
+ * <p>
+ * Every subscriber has its own thread, so a slow or failing subscriber only delays itself. The
+ * thread reads up to {@code appointment.events.batch-size} of the subscriber's oldest events,
+ * groups them by doctor and hands each group to the subscriber in a transaction that locks the
+ * rows, calls the subscriber and deletes them. A group that fails is rolled back, its events'
+ * {@code attempts} are counted and it is retried after {@code appointment.events.retry-backoff},
+ * doubling with each attempt. Until then none of that doctor's events are read, so they are
+ * neither delivered out of order nor fill the batch ahead of other doctors. After
+ * {@code appointment.events.max-attempts} failures the group is parked: it stays in the table,
+ * counted by {@code appointment.events.parked}, but is never delivered, and that doctor's later
+ * events go ahead without it.
+ * <p>
+ * The threads are woken after each commit that records events, and otherwise poll every
+ * {@code appointment.events.poll-interval} for events committed by other instances.
+ * <p>
+ * Events are delivered in id order. Two concurrent transactions for the same doctor can commit
+ * out of id order; if the later one is delivered first, the earlier one follows on the next
+ * pass.
+ * <p>
+ * With {@code appointment.events.workers.enabled=false} no threads are started and events are
+ * only delivered by {@link #drain()}.
+ */
+@Service
+public class AppointmentEventDispatcher implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(AppointmentEventDispatcher.class);
+
+    private final AppointmentEventRepository eventRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final List<Worker> workers;
+    private final int batchSize;
+    private final Duration pollInterval;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+    private final boolean autoStartup;
+    private volatile boolean running;
+
+    public AppointmentEventDispatcher(AppointmentEventRepository eventRepository, TransactionTemplate transactionTemplate,
+                                      MeterRegistry meterRegistry, List<AppointmentEventSubscriber> subscribers,
+                                      @Value("${appointment.events.batch-size:500}") int batchSize,
+                                      @Value("${appointment.events.poll-interval:5s}") Duration pollInterval,
+                                      @Value("${appointment.events.max-attempts:10}") int maxAttempts,
+                                      @Value("${appointment.events.retry-backoff:5s}") Duration retryBackoff,
+                                      @Value("${appointment.events.workers.enabled:true}") boolean autoStartup) {
+        this.eventRepository = eventRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+        this.workers = subscribers.stream().map(Worker::new).toList();
+        this.batchSize = batchSize;
+        this.pollInterval = pollInterval;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = retryBackoff;
+        this.autoStartup = autoStartup;
+    }
+
+    @Override
+    public boolean isAutoStartup() {
+        return autoStartup;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        for (Worker worker : workers) {
+            worker.thread = new Thread(worker, "appointment-events-" + worker.subscriber.name());
+            worker.thread.setDaemon(true);
+            worker.thread.start();
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        for (Worker worker : workers) {
+            worker.thread.interrupt();
+        }
+        for (Worker worker : workers) {
+            try {
+                worker.thread.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Signals every subscriber's thread that new events were committed.
+     */
+    public void wake() {
+        for (Worker worker : workers) {
+            if (worker.wakeups.availablePermits() == 0) {
+                worker.wakeups.release();
+            }
+        }
+    }
+
+    /**
+     * Delivers everything pending on the calling thread, until every subscriber's backlog is
+     * empty or only holds events that failed and are waiting to be retried. Returns the number
+     * of events delivered.
+     */
+    public int drain() {
+        int total = 0;
+        for (Worker worker : workers) {
+            int delivered;
+            do {
+                delivered = worker.dispatch();
+                total += delivered;
+            } while (delivered > 0);
+        }
+        return total;
+    }
+
+    private final class Worker implements Runnable {
+        private final AppointmentEventSubscriber subscriber;
+        private final Semaphore wakeups = new Semaphore(0);
+        // Keeps drain() and the worker thread from delivering the same rows side by side
+        private final ReentrantLock lock = new ReentrantLock();
+        private Thread thread;
+
+        private Worker(AppointmentEventSubscriber subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                try {
+                    if (dispatch() == 0) {
+                        wakeups.tryAcquire(pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+                        wakeups.drainPermits();
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                } catch (RuntimeException e) {
+                    if (!running) {
+                        return;
+                    }
+                    log.warn("Reading the {} events failed", subscriber.name(), e);
+                    try {
+                        Thread.sleep(pollInterval.toMillis());
+                    } catch (InterruptedException interrupted) {
+                        return;
+                    }
+                }
+            }
+        }
+
+        // A batch with failed groups is followed by another read, which leaves those doctors out
+        private int dispatch() {
+            lock.lock();
+            try {
+                int delivered = 0;
+                boolean anyFailed;
+                do {
+                    anyFailed = false;
+                    var byDoctor = new LinkedHashMap<Long, List<AppointmentEvent>>();
+                    for (AppointmentEvent event : eventRepository.findDeliverable(subscriber.name(), LocalDateTime.now(), Limit.of(batchSize))) {
+                        byDoctor.computeIfAbsent(event.getDoctorId(), doctorId -> new ArrayList<>()).add(event);
+                    }
+
+                    for (var group : byDoctor.entrySet()) {
+                        List<Long> ids = group.getValue().stream().map(AppointmentEvent::getId).toList();
+                        try {
+                            Integer count = transactionTemplate.execute(status -> deliver(ids));
+                            delivered += count == null ? 0 : count;
+                        } catch (RuntimeException e) {
+                            meterRegistry.counter("appointment.events.failed", "subscriber", subscriber.name()).increment(ids.size());
+                            failed(group.getKey(), group.getValue(), e);
+                            anyFailed = true;
+                        }
+                    }
+                } while (anyFailed);
+                return delivered;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Counts the attempt in a transaction of its own, the delivery's having rolled back
+        private void failed(Long doctorId, List<AppointmentEvent> group, RuntimeException cause) {
+            int attempts = 1 + group.stream().mapToInt(AppointmentEvent::getAttempts).max().orElse(0);
+            List<Long> ids = group.stream().map(AppointmentEvent::getId).toList();
+            if (attempts < maxAttempts) {
+                Duration backoff = retryBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+                transactionTemplate.executeWithoutResult(status ->
+                        eventRepository.recordFailedAttempt(ids, LocalDateTime.now().plus(backoff)));
+                log.warn("{} failed on {} events of doctor {} (attempt {} of {}), retrying them in {}",
+                        subscriber.name(), ids.size(), doctorId, attempts, maxAttempts, backoff, cause);
+                return;
+            }
+
+            Integer parked = transactionTemplate.execute(status -> {
+                eventRepository.recordFailedAttempt(ids, null);
+                return eventRepository.parkExhausted(ids, maxAttempts);
+            });
+            meterRegistry.counter("appointment.events.parked", "subscriber", subscriber.name()).increment(parked == null ? 0 : parked);
+            log.error("{} failed on events {} of doctor {} {} times, parking them; later events of the doctor are delivered without them",
+                    subscriber.name(), ids, doctorId, maxAttempts, cause);
+        }
+
+        private int deliver(List<Long> ids) {
+            List<AppointmentEvent> events = eventRepository.lockAllByIdIn(ids);
+            if (events.isEmpty()) {
+                return 0;
+            }
+            subscriber.handle(events);
+            eventRepository.deleteAllByIdIn(events.stream().map(AppointmentEvent::getId).toList());
+            meterRegistry.counter("appointment.events.delivered", "subscriber", subscriber.name()).increment(events.size());
+            return events.size();
+        }
+    }
+}
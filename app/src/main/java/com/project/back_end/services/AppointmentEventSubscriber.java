@@ -0,0 +1,26 @@
+package com.project.back_end.services;
+
+import com.project.back_end.models.AppointmentEvent;
+
+import java.util.List;
+
+/**
+ * Receives appointment changes from {@link AppointmentEventDispatcher} after the transaction
+ * that made them has committed. Every bean implementing this gets every event.
+ */
+public interface AppointmentEventSubscriber {
+
+    /**
+     * Stored with each pending event, at most 50 characters. Renaming a subscriber orphans the
+     * events still pending under the old name.
+     */
+    String name();
+
+    /**
+     * Handles events of a single doctor, oldest first. Runs inside the transaction that removes
+     * them from the outbox, so database writes made here commit with the removal and are
+     * applied exactly once. Throwing rolls everything back and the events are delivered again
+     * later, so any work outside the database must be safe to repeat.
+     */
+    void handle(List<AppointmentEvent> events);
+}
@@ -0,0 +1,70 @@
+package com.project.back_end.services;
+
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.AppointmentEvent;
+import com.project.back_end.repo.AppointmentEventRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records appointment changes for {@link AppointmentEventSubscriber}s, in the transaction that
+ * makes the change, so an event exists if and only if the change committed. Each event is
+ * written once per subscriber, and the dispatcher is woken after commit to deliver it.
+ */
+@Service
+public class AppointmentOutbox {
+    private final AppointmentEventRepository eventRepository;
+    private final AppointmentEventDispatcher dispatcher;
+    private final List<String> subscribers;
+
+    public AppointmentOutbox(AppointmentEventRepository eventRepository, AppointmentEventDispatcher dispatcher,
+                             List<AppointmentEventSubscriber> subscribers) {
+        this.eventRepository = eventRepository;
+        this.dispatcher = dispatcher;
+        this.subscribers = subscribers.stream().map(AppointmentEventSubscriber::name).toList();
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void booked(Appointment appointment) {
+        publish(AppointmentEvent.Type.BOOKED, appointment, null);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void moved(Appointment appointment, LocalDateTime previousTime) {
+        publish(AppointmentEvent.Type.MOVED, appointment, previousTime);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void cancelled(Appointment appointment) {
+        publish(AppointmentEvent.Type.CANCELLED, appointment, null);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void doctorRemoved(Long doctorId) {
+        publish(AppointmentEvent.Type.DOCTOR_REMOVED, doctorId, null, null, null, null);
+    }
+
+    private void publish(AppointmentEvent.Type type, Appointment appointment, LocalDateTime previousTime) {
+        publish(type, appointment.getDoctor().getId(), appointment.getId(), appointment.getPatient().getId(),
+                appointment.getAppointmentTime(), previousTime);
+    }
+
+    private void publish(AppointmentEvent.Type type, Long doctorId, Long appointmentId, Long patientId,
+                         LocalDateTime appointmentTime, LocalDateTime previousTime) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        var now = LocalDateTime.now();
+        var events = new ArrayList<AppointmentEvent>(subscribers.size());
+        for (String subscriber : subscribers) {
+            events.add(new AppointmentEvent(subscriber, type, doctorId, appointmentId, patientId, appointmentTime, previousTime, now));
+        }
+        eventRepository.saveAll(events);
+        Transactions.afterCommit(dispatcher::wake);
+    }
+}
@@ -2,14 +2,18 @@ package com.project.back_end.services;
 
 import com.project.back_end.DTO.AppointmentDTO;
 import com.project.back_end.models.Appointment;
-import com.project.back_end.models.Doctor;
 import com.project.back_end.repo.AppointmentRepository;
 import com.project.back_end.repo.DoctorRepository;
 import com.project.back_end.repo.PatientRepository;
-import jakarta.transaction.Transactional;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -19,51 +23,110 @@ import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
+@Timed("service")
 public class AppointmentService {
     private AppointmentRepository appointmentRepository;
     private com.project.back_end.services.Service service;
     private TokenService tokenService;
     private PatientRepository patientRepository;
     private DoctorRepository doctorRepository;
+    private AvailabilityService availabilityService;
+    private AppointmentOutbox appointmentOutbox;
+    private AppointmentTiers appointmentTiers;
+    private TransactionTemplate transactionTemplate;
 
-    public AppointmentService(AppointmentRepository appointmentRepository, com.project.back_end.services.Service service, TokenService tokenService, PatientRepository patientRepository, DoctorRepository doctorRepository) {
+    @Value("${appointment.page.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${appointment.page.max-size:500}")
+    private int maxPageSize;
+
+    public AppointmentService(AppointmentRepository appointmentRepository, com.project.back_end.services.Service service, TokenService tokenService, PatientRepository patientRepository, DoctorRepository doctorRepository, AvailabilityService availabilityService, AppointmentOutbox appointmentOutbox, AppointmentTiers appointmentTiers, TransactionTemplate transactionTemplate) {
         this.appointmentRepository = appointmentRepository;
         this.service = service;
         this.tokenService = tokenService;
         this.patientRepository = patientRepository;
         this.doctorRepository = doctorRepository;
+        this.availabilityService = availabilityService;
+        this.appointmentOutbox = appointmentOutbox;
+        this.appointmentTiers = appointmentTiers;
+        this.transactionTemplate = transactionTemplate;
     }
 
-    @Transactional
+    /**
+     * Books the appointment, returning 1 on success, -1 if the slot is already taken and 0 on any
+     * other failure. Concurrent requests for the same slot are settled in memory by
+     * {@link AvailabilityService#tryClaim}; the unique slot constraint settles the rest.
+     * The insert and its outbox event run in a transaction of their own so a constraint
+     * violation surfaces here instead of at commit. Report counters are updated from the event
+     * after commit.
+     */
     public int bookAppointment(Appointment appointment) {
+        Long doctorId = appointment.getDoctor().getId();
+        LocalDateTime time = appointment.getAppointmentTime();
+        if (!availabilityService.tryClaim(doctorId, time)) {
+            return -1;
+        }
         try {
-            appointmentRepository.save(appointment);
+            transactionTemplate.executeWithoutResult(status -> {
+                appointmentRepository.save(appointment);
+                appointmentOutbox.booked(appointment);
+            });
+        } catch (DataIntegrityViolationException e) {
+            if (isSlotConflict(e)) {
+                return -1;
+            }
+            availabilityService.released(doctorId, time);
+            return 0;
         } catch (Exception e) {
+            availabilityService.released(doctorId, time);
             return 0;
         }
 
         return 1;
     }
 
-    @Transactional
-    public ResponseEntity<Map<String, String>> updateAppointment(Appointment appointment) {
+    private static boolean isSlotConflict(DataIntegrityViolationException e) {
+        String message = e.getMostSpecificCause().getMessage();
+        return message != null && message.toLowerCase().contains(Appointment.SLOT_CONSTRAINT);
+    }
+
+    /**
+     * Moves or updates the appointment for the patient the token belongs to. Another patient's
+     * appointment is refused with 403, and the patient and doctor cannot be changed. A move claims
+     * the new slot with {@link AvailabilityService#tryClaim}, as a booking does, and releases the
+     * old one once the move commits; a move that loses the slot to another request gets 409. So does
+     * an appointment already moved to the cold tier, which is past and kept read-only.
+     */
+    public ResponseEntity<Map<String, String>> updateAppointment(Appointment appointment, String token) {
         var message = new HashMap<String, String>();
+        Long doctorId = appointment.getDoctor().getId();
+        LocalDateTime time = appointment.getAppointmentTime();
+        boolean claimed = false;
         try {
             var result = appointmentRepository.findById(appointment.getId());
-            if (result.isEmpty()) {
+            if (result.isEmpty() && appointmentTiers.isArchived(appointment.getId())) {
+                message.put("error", "Archived appointments cannot be changed");
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(message);
+            } else if (result.isEmpty()) {
                 message.put("error", "Update request for invalid appointment ID");
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(message);
             }
 
             var beforeAppointment = result.get();
-            if (!beforeAppointment.getPatient().getId().equals(appointment.getPatient().getId())) {
+            if (!beforeAppointment.getPatient().getId().equals(tokenService.extractUserId(token))) {
+                message.put("error", "Patient mismatch with sender");
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).body(message);
+            } else if (!beforeAppointment.getPatient().getId().equals(appointment.getPatient().getId())) {
                 message.put("error", "Patient not same as previous appointment");
                 return ResponseEntity.status(HttpStatus.CONFLICT).body(message);
-            } else if (!beforeAppointment.getDoctor().getId().equals(appointment.getDoctor().getId())) {
+            } else if (!beforeAppointment.getDoctor().getId().equals(doctorId)) {
                 message.put("error", "Doctor not same as previous appointment");
                 return ResponseEntity.status(HttpStatus.CONFLICT).body(message);
             }
-            int validatedAppointment = service.validateAppointment(appointment, "patient");
+            LocalDateTime previousTime = beforeAppointment.getAppointmentTime();
+            boolean sameSlot = previousTime.equals(time);
+            int validatedAppointment = sameSlot ? 1 : service.validateAppointment(appointment, "patient");
             switch (validatedAppointment) {
                 case 1:
                     break;
@@ -74,11 +137,36 @@ public class AppointmentService {
                     message.put("error", "Invalid Doctor requested for Appointment. Doctor not found.");
                     return ResponseEntity.badRequest().body(message);
             }
-            appointmentRepository.save(appointment);
+            if (!sameSlot) {
+                if (!availabilityService.tryClaim(doctorId, time)) {
+                    message.put("error", "Appointment time not available or invalid");
+                    return ResponseEntity.status(HttpStatus.CONFLICT).body(message);
+                }
+                claimed = true;
+            }
+
+            // In a transaction of its own so a constraint violation surfaces here instead of at commit
+            transactionTemplate.executeWithoutResult(status -> {
+                appointmentRepository.save(appointment);
+                if (!sameSlot) {
+                    appointmentOutbox.moved(appointment, previousTime);
+                    availabilityService.released(doctorId, previousTime);
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            if (isSlotConflict(e)) {
+                message.put("error", "Appointment time not available or invalid");
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(message);
+            }
+            releaseClaim(claimed, doctorId, time);
+            message.put("error", e.toString());
+            return ResponseEntity.internalServerError().body(message);
         } catch (IllegalArgumentException e) {
+            releaseClaim(claimed, doctorId, time);
             message.put("error", e.toString());
             return ResponseEntity.badRequest().body(message);
         } catch (Exception e) {
+            releaseClaim(claimed, doctorId, time);
             message.put("error", e.toString());
             return ResponseEntity.internalServerError().body(message);
         }
@@ -87,6 +175,12 @@ public class AppointmentService {
         return ResponseEntity.ok().body(message);
     }
 
+    private void releaseClaim(boolean claimed, Long doctorId, LocalDateTime time) {
+        if (claimed) {
+            availabilityService.released(doctorId, time);
+        }
+    }
+
     public ResponseEntity<Map<String, String>> cancelAppointment(Long id, String token) {
         var message = new HashMap<String, String>();
         if (!tokenService.validateToken(token, "patient")) {
@@ -95,17 +189,24 @@ public class AppointmentService {
         }
         try {
             var aptmt = appointmentRepository.findById(id);
-            if (aptmt.isEmpty()) {
+            if (aptmt.isEmpty() && appointmentTiers.isArchived(id)) {
+                message.put("error", "Archived appointments cannot be cancelled");
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(message);
+            } else if (aptmt.isEmpty()) {
                 message.put("error", "Appointment not found");
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body(message);
             }
             var appointment = aptmt.get();
-            String tokenEmail = tokenService.extractEmail(token);
-            if (!tokenEmail.equals(appointment.getPatient().getEmail())) {
+            Long patientId = tokenService.extractUserId(token);
+            if (!appointment.getPatient().getId().equals(patientId)) {
                 message.put("error", "Patient mismatch with sender");
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body(message);
             }
-            appointmentRepository.delete(appointment);
+            transactionTemplate.executeWithoutResult(status -> {
+                appointmentRepository.delete(appointment);
+                appointmentOutbox.cancelled(appointment);
+            });
+            availabilityService.released(appointment.getDoctor().getId(), appointment.getAppointmentTime());
         } catch (Exception e) {
             message.put("error", e.toString());
             return ResponseEntity.internalServerError().body(message);
@@ -113,28 +214,48 @@ public class AppointmentService {
         return ResponseEntity.ok().body(message);
     }
 
-    @Transactional
+    @Transactional(readOnly = true)
     public Map<String, Object> getAppointment(String pname, LocalDate date, String token) {
+        return getAppointment(pname, date, token, null, null);
+    }
+
+    /**
+     * Returns one page of the calling doctor's appointments for {@code date}, from midnight up to
+     * but not including the next midnight, as {@link AppointmentDTO}s under "appointments",
+     * together with "page", "size" and "total". If {@code pname} is given, only patients whose
+     * name starts with it, ignoring case, are returned. The filter runs in the database. Days past
+     * the {@link AppointmentTiers} horizon are read from the cold tier as well.
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getAppointment(String pname, LocalDate date, String token, Integer page, Integer size) {
         if (!tokenService.validateToken(token, "doctor")) {
             throw new RuntimeException("Invalid authentication token");
         }
-        String tokenEmail = tokenService.extractEmail(token);
-        Doctor doctor = doctorRepository.findByEmail(tokenEmail);
-        LocalDateTime startOfDay = date.atStartOfDay();
-        LocalDateTime endOfDay = startOfDay.plusHours(23);
-        var appointments = appointmentRepository.findByDoctorIdAndAppointmentTimeBetween(doctor.getId(), startOfDay, endOfDay);
+        Long doctorId = tokenService.extractUserId(token);
+        int pageNumber = page == null || page < 0 ? 0 : page;
+        int pageSize = size == null || size <= 0 ? defaultPageSize : Math.min(size, maxPageSize);
+        var appointments = appointmentTiers.findScheduleByPatientName(doctorId, prefixPattern(pname),
+                date.atStartOfDay(), date.plusDays(1).atStartOfDay(), PageRequest.of(pageNumber, pageSize));
+
         var map = new HashMap<String, Object>();
-        if (pname == null || pname.isBlank()) {
-            map.put("message", appointments);
-            return map;
-        }
-        var filteredAppointments = appointments
-                .stream()
-                .filter(appointment -> appointment.getPatient().getName().equals(pname))
-                .toList();
-        map.put("message", filteredAppointments);
+        map.put("appointments", appointments.getContent());
+        map.put("page", pageNumber);
+        map.put("size", pageSize);
+        map.put("total", appointments.getTotalElements());
         return map;
     }
+
+    // Escapes LIKE wildcards with '!', which unlike '\' needs no quoting in MySQL string literals.
+    // The doctor dashboard sends "null" when the search bar is empty.
+    private static String prefixPattern(String prefix) {
+        if (prefix == null || prefix.isBlank() || prefix.equals("null")) {
+            return "%";
+        }
+        return prefix.trim()
+                .replace("!", "!!")
+                .replace("%", "!%")
+                .replace("_", "!_") + "%";
+    }
 // 3. **Add @Transactional Annotation for Methods that Modify Database**:
 //    - The methods that modify or update the database should be annotated with `@Transactional` to ensure atomicity and consistency of the operations.
 //    - Instruction: Add the `@Transactional` annotation above methods that interact with the database, especially those modifying data.
@@ -0,0 +1,216 @@
+package com.project.back_end.services;
+
+import com.project.back_end.DTO.AppointmentDTO;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.ArchivedAppointmentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongFunction;
+import java.util.stream.Stream;
+
+/**
+ * Keeps {@code appointment} down to recent and upcoming appointments. Appointments older than
+ * {@code appointment.cold.horizon} are moved to {@code archived_appointment} on
+ * {@code appointment.cold.cron}, in transactions of {@code appointment.cold.chunk-size} rows that
+ * copy and delete them with one statement each.
+ * <p>
+ * The time range decides where a query goes. A range starting within the horizon only reads
+ * {@code appointment}, since nothing that recent is ever moved. An older range reads both tables
+ * and merges the results, which also finds rows the next move has yet to reach. A row is in
+ * exactly one table at any time, because the copy and the delete commit together.
+ * <p>
+ * Lowering the horizon is safe. Raising it does not move rows back, so for a while a range
+ * between the old and the new horizon would miss the rows already moved.
+ */
+@Service
+public class AppointmentTiers {
+    private static final Logger log = LoggerFactory.getLogger(AppointmentTiers.class);
+
+    private final AppointmentRepository appointmentRepository;
+    private final ArchivedAppointmentRepository archivedAppointmentRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${appointment.cold.horizon:90d}")
+    private Duration horizon;
+
+    @Value("${appointment.cold.chunk-size:1000}")
+    private int chunkSize;
+
+    public AppointmentTiers(AppointmentRepository appointmentRepository, ArchivedAppointmentRepository archivedAppointmentRepository,
+                            TransactionTemplate transactionTemplate) {
+        this.appointmentRepository = appointmentRepository;
+        this.archivedAppointmentRepository = archivedAppointmentRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public Page<AppointmentDTO> findScheduleByPatientName(Long doctorId, String namePattern, LocalDateTime start, LocalDateTime end, Pageable pageable) {
+        if (isHot(start)) {
+            return appointmentRepository.findScheduleByPatientName(doctorId, namePattern, start, end, pageable);
+        }
+        long hotTotal = appointmentRepository.countScheduleByPatientName(doctorId, namePattern, start, end);
+        long coldTotal = archivedAppointmentRepository.countScheduleByPatientName(doctorId, namePattern, start, end);
+        long offset = pageable.getOffset();
+        if (offset >= hotTotal + coldTotal) {
+            return new PageImpl<>(List.of(), pageable, hotTotal + coldTotal);
+        }
+        LongFunction<LocalDateTime> hotAt = i -> appointmentRepository.findScheduleTimesByPatientName(doctorId, namePattern, start, end,
+                PageRequest.of(Math.toIntExact(i), 1)).get(0);
+        LongFunction<LocalDateTime> coldAt = i -> archivedAppointmentRepository.findScheduleTimesByPatientName(doctorId, namePattern, start, end,
+                PageRequest.of(Math.toIntExact(i), 1)).get(0);
+        // Binary search for how many of the rows before the page are hot, one time off each index per step
+        long lo = Math.max(0, offset - coldTotal);
+        long hi = Math.min(offset, hotTotal);
+        while (lo < hi) {
+            long hot = (lo + hi) / 2;
+            if (hotAt.apply(hot).isBefore(coldAt.apply(offset - hot - 1))) {
+                lo = hot + 1;
+            } else {
+                hi = hot;
+            }
+        }
+        long cold = offset - lo;
+        LocalDateTime from;
+        if (lo == hotTotal) {
+            from = coldAt.apply(cold);
+        } else if (cold == coldTotal) {
+            from = hotAt.apply(lo);
+        } else {
+            LocalDateTime hotFrom = hotAt.apply(lo);
+            LocalDateTime coldFrom = coldAt.apply(cold);
+            from = hotFrom.isBefore(coldFrom) ? hotFrom : coldFrom;
+        }
+        // Each table is read from the page's first time for one page at most, however deep the page
+        Limit limit = Limit.of(pageable.getPageSize());
+        List<AppointmentDTO> content = Stream.concat(
+                        appointmentRepository.findScheduleByPatientName(doctorId, namePattern, from, end, limit).stream(),
+                        archivedAppointmentRepository.findScheduleByPatientName(doctorId, namePattern, from, end, limit).stream())
+                .sorted(Comparator.comparing(AppointmentDTO::getAppointmentTime))
+                .limit(pageable.getPageSize())
+                .toList();
+        return new PageImpl<>(content, pageable, hotTotal + coldTotal);
+    }
+
+    /**
+     * Whether the appointment has been moved to {@code archived_appointment}, for telling an
+     * archived id from an unknown one.
+     */
+    public boolean isArchived(Long id) {
+        return archivedAppointmentRepository.existsById(id);
+    }
+
+    /**
+     * The patient of every appointment in {@code ids} that exists, by appointment id. Ids are not
+     * tied to a time, so {@code archived_appointment} is read for the ones {@code appointment}
+     * does not have.
+     */
+    public Map<Long, Long> findPatientIds(Collection<Long> ids) {
+        var patientIds = new HashMap<Long, Long>();
+        if (ids.isEmpty()) {
+            return patientIds;
+        }
+        for (Object[] row : appointmentRepository.findPatientIdsByIdIn(ids)) {
+            patientIds.put((Long) row[0], (Long) row[1]);
+        }
+        List<Long> missing = ids.stream().filter(id -> !patientIds.containsKey(id)).distinct().toList();
+        if (!missing.isEmpty()) {
+            for (Object[] row : archivedAppointmentRepository.findPatientIdsByIdIn(missing)) {
+                patientIds.put((Long) row[0], (Long) row[1]);
+            }
+        }
+        return patientIds;
+    }
+
+    /**
+     * Rows of doctor id, appointments and distinct patients over [start, end), as
+     * {@link AppointmentRepository#countByDoctorBetween}.
+     */
+    public List<Object[]> countByDoctorBetween(LocalDateTime start, LocalDateTime end) {
+        if (isHot(start)) {
+            return appointmentRepository.countByDoctorBetween(start, end);
+        }
+        // Distinct patients cannot be added up across the tables, so they are counted from the visits
+        var byDoctor = new LinkedHashMap<Long, long[]>();
+        for (Object[] row : countByDoctorAndPatientBetween(start, end)) {
+            long[] counts = byDoctor.computeIfAbsent((Long) row[0], doctorId -> new long[2]);
+            counts[0] += (Long) row[2];
+            counts[1]++;
+        }
+        var rows = new ArrayList<Object[]>(byDoctor.size());
+        byDoctor.forEach((doctorId, counts) -> rows.add(new Object[]{doctorId, counts[0], counts[1]}));
+        return rows;
+    }
+
+    /**
+     * Rows of doctor id, patient id and appointments over [start, end), as
+     * {@link AppointmentRepository#countByDoctorAndPatientBetween}.
+     */
+    public List<Object[]> countByDoctorAndPatientBetween(LocalDateTime start, LocalDateTime end) {
+        if (isHot(start)) {
+            return appointmentRepository.countByDoctorAndPatientBetween(start, end);
+        }
+        var visits = new LinkedHashMap<List<Long>, Long>();
+        for (Object[] row : appointmentRepository.countByDoctorAndPatientBetween(start, end)) {
+            visits.merge(List.of((Long) row[0], (Long) row[1]), (Long) row[2], Long::sum);
+        }
+        for (Object[] row : archivedAppointmentRepository.countByDoctorAndPatientBetween(start, end)) {
+            visits.merge(List.of((Long) row[0], (Long) row[1]), (Long) row[2], Long::sum);
+        }
+        var rows = new ArrayList<Object[]>(visits.size());
+        visits.forEach((key, count) -> rows.add(new Object[]{key.get(0), key.get(1), count}));
+        return rows;
+    }
+
+    /**
+     * Moves every appointment older than the horizon to the cold tier and returns how many were
+     * moved. A failed run leaves the committed chunks moved and is picked up by the next one.
+     */
+    @Scheduled(cron = "${appointment.cold.cron:0 0 4 * * *}")
+    public int moveCold() {
+        LocalDateTime before = coldBefore();
+        LocalDateTime movedAt = LocalDateTime.now();
+        int moved = 0;
+        Integer chunk;
+        while ((chunk = transactionTemplate.execute(status -> moveChunk(before, movedAt))) != null && chunk > 0) {
+            moved += chunk;
+        }
+        log.info("Moved {} appointments from before {} to the cold tier", moved, before);
+        return moved;
+    }
+
+    private int moveChunk(LocalDateTime before, LocalDateTime movedAt) {
+        List<Long> ids = appointmentRepository.findIdsBefore(before, Limit.of(chunkSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        archivedAppointmentRepository.archive(ids, movedAt);
+        appointmentRepository.deleteAllByIdIn(ids);
+        return ids.size();
+    }
+
+    private boolean isHot(LocalDateTime start) {
+        return !start.isBefore(coldBefore());
+    }
+
+    private LocalDateTime coldBefore() {
+        return LocalDateTime.now().minus(horizon);
+    }
+}
@@ -0,0 +1,269 @@
+package com.project.back_end.services;
+
+import com.project.back_end.config.ReplicaRouting;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory slot calendar for every doctor.
+ * <p>
+ * Appointments last one hour and start on the hour, so a doctor's day is kept as a 24-bit mask
+ * where bit {@code h} stands for the slot starting at {@code h:00}. Each doctor holds the mask of
+ * their working slots (from {@code availableTimes}) and one booked mask per day with appointments.
+ * Availability is {@code working & ~booked}, answered without going to the database.
+ * <p>
+ * The calendar is rebuilt from MySQL once the application is ready, and a doctor missing from
+ * the calendar is loaded on first access. Booking changes are applied after their transaction
+ * commits, so rolled back bookings never show up as taken. Days before today are never booked,
+ * and a calendar drops the masks of past days the first time it is booked on a new day.
+ */
+@Service
+public class AvailabilityService {
+    private static final int SLOTS_PER_DAY = 24;
+
+    private final DoctorRepository doctorRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final DoctorCache doctorCache;
+    private final Map<Long, DoctorCalendar> calendars = new ConcurrentHashMap<>();
+
+    public AvailabilityService(DoctorRepository doctorRepository, AppointmentRepository appointmentRepository, DoctorCache doctorCache) {
+        this.doctorRepository = doctorRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.doctorCache = doctorCache;
+    }
+
+    // Calendars load from the primary, since a slot booked but not yet replicated would look free
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        var loaded = new ConcurrentHashMap<Long, DoctorCalendar>();
+        ReplicaRouting.onPrimary(() -> {
+            for (Object[] row : doctorRepository.findAllAvailableTimes()) {
+                loaded.computeIfAbsent((Long) row[0], id -> new DoctorCalendar()).addWorkingSlot((String) row[1]);
+            }
+            for (Object[] row : appointmentRepository.findSlotsFrom(LocalDate.now().atStartOfDay())) {
+                DoctorCalendar calendar = loaded.get((Long) row[0]);
+                if (calendar != null) {
+                    calendar.book((LocalDateTime) row[1]);
+                }
+            }
+        });
+        calendars.keySet().retainAll(loaded.keySet());
+        calendars.putAll(loaded);
+    }
+
+    public boolean isKnownDoctor(Long doctorId) {
+        return calendar(doctorId) != null;
+    }
+
+    public List<String> getAvailableTimes(Long doctorId, LocalDate date) {
+        DoctorCalendar calendar = calendar(doctorId);
+        if (calendar == null) {
+            throw new RuntimeException("Invalid doctor ID.");
+        }
+
+        return calendar.availableTimes(date);
+    }
+
+    public Map<LocalDate, List<String>> getAvailableTimes(Long doctorId, LocalDate from, LocalDate to) {
+        DoctorCalendar calendar = calendar(doctorId);
+        if (calendar == null) {
+            throw new RuntimeException("Invalid doctor ID.");
+        }
+
+        var availability = new LinkedHashMap<LocalDate, List<String>>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            availability.put(date, calendar.availableTimes(date));
+        }
+        return availability;
+    }
+
+    public boolean isAvailable(Long doctorId, LocalDateTime time) {
+        DoctorCalendar calendar = calendar(doctorId);
+        return calendar != null && calendar.isAvailable(time);
+    }
+
+    /**
+     * Atomically marks the slot as booked if it is still free in this instance's calendar.
+     * A slot outside the doctor's working hours, a time that is not on the hour and a time in the
+     * past are never claimed. Only the bookings of the same doctor and day contend with each
+     * other. The unique (doctor_id, appointment_time) constraint remains the final word across
+     * instances.
+     */
+    public boolean tryClaim(Long doctorId, LocalDateTime time) {
+        DoctorCalendar calendar = calendar(doctorId);
+        return calendar == null || calendar.claim(time);
+    }
+
+    public void booked(Long doctorId, LocalDateTime time) {
+        Transactions.afterCommit(() -> {
+            DoctorCalendar calendar = calendars.get(doctorId);
+            if (calendar != null) {
+                calendar.book(time);
+            }
+        });
+    }
+
+    public void released(Long doctorId, LocalDateTime time) {
+        Transactions.afterCommit(() -> {
+            DoctorCalendar calendar = calendars.get(doctorId);
+            if (calendar != null) {
+                calendar.release(time);
+            }
+        });
+    }
+
+    public void doctorChanged(Long doctorId, List<String> availableTimes) {
+        Transactions.afterCommit(() -> {
+            DoctorCalendar calendar = calendars.get(doctorId);
+            if (calendar != null) {
+                calendar.setWorkingSlots(availableTimes);
+            }
+        });
+    }
+
+    public void doctorRemoved(Long doctorId) {
+        Transactions.afterCommit(() -> calendars.remove(doctorId));
+    }
+
+    private DoctorCalendar calendar(Long doctorId) {
+        if (doctorId == null) {
+            return null;
+        }
+        DoctorCalendar calendar = calendars.get(doctorId);
+        if (calendar != null) {
+            return calendar;
+        }
+        Optional<Doctor> doctor = doctorCache.findById(doctorId);
+        if (doctor.isEmpty()) {
+            return null;
+        }
+
+        // Loaded outside the map lock: a racing load for the same doctor is discarded
+        DoctorCalendar loaded = load(doctorId, doctor.get().getAvailableTimes());
+        DoctorCalendar existing = calendars.putIfAbsent(doctorId, loaded);
+        return existing != null ? existing : loaded;
+    }
+
+    private DoctorCalendar load(Long doctorId, List<String> availableTimes) {
+        var calendar = new DoctorCalendar();
+        calendar.setWorkingSlots(availableTimes);
+        ReplicaRouting.onPrimary(() -> {
+            for (LocalDateTime time : appointmentRepository.findSlotsByDoctorIdFrom(doctorId, LocalDate.now().atStartOfDay())) {
+                calendar.book(time);
+            }
+        });
+        return calendar;
+    }
+
+    static int slotOf(LocalTime time) {
+        return time.getHour();
+    }
+
+    static int slotOf(String availableTime) {
+        return slotOf(LocalTime.parse(availableTime.split("-")[0].trim()));
+    }
+
+    private static final class DoctorCalendar {
+        private final String[] labels = new String[SLOTS_PER_DAY];
+        private volatile int working;
+        private final Map<LocalDate, Integer> booked = new ConcurrentHashMap<>();
+        private volatile LocalDate prunedOn = LocalDate.now();
+
+        synchronized void addWorkingSlot(String availableTime) {
+            int slot = slotOf(availableTime);
+            labels[slot] = availableTime;
+            working |= 1 << slot;
+        }
+
+        synchronized void setWorkingSlots(List<String> availableTimes) {
+            int mask = 0;
+            for (String availableTime : availableTimes) {
+                int slot = slotOf(availableTime);
+                labels[slot] = availableTime;
+                mask |= 1 << slot;
+            }
+            working = mask;
+        }
+
+        void book(LocalDateTime time) {
+            LocalDate today = pruneBefore();
+            if (time.toLocalDate().isBefore(today)) {
+                return;
+            }
+            int bit = 1 << slotOf(time.toLocalTime());
+            booked.merge(time.toLocalDate(), bit, (mask, b) -> mask | b);
+        }
+
+        boolean claim(LocalDateTime time) {
+            int bit = 1 << slotOf(time.toLocalTime());
+            if (!isSlotStart(time) || (working & bit) == 0) {
+                return false;
+            }
+            pruneBefore();
+            var claimed = new boolean[1];
+            booked.compute(time.toLocalDate(), (date, mask) -> {
+                int current = mask == null ? 0 : mask;
+                claimed[0] = (current & bit) == 0;
+                return current | bit;
+            });
+            return claimed[0];
+        }
+
+        void release(LocalDateTime time) {
+            int bit = ~(1 << slotOf(time.toLocalTime()));
+            booked.computeIfPresent(time.toLocalDate(), (date, mask) -> (mask & bit) == 0 ? null : mask & bit);
+        }
+
+        boolean isAvailable(LocalDateTime time) {
+            if (!isSlotStart(time)) {
+                return false;
+            }
+            return (free(time.toLocalDate()) & (1 << slotOf(time.toLocalTime()))) != 0;
+        }
+
+        List<String> availableTimes(LocalDate date) {
+            int free = free(date);
+            var times = new ArrayList<String>(Integer.bitCount(free));
+            while (free != 0) {
+                int slot = Integer.numberOfTrailingZeros(free);
+                times.add(labels[slot]);
+                free &= free - 1;
+            }
+            return times;
+        }
+
+        // On the hour and not yet started
+        private static boolean isSlotStart(LocalDateTime time) {
+            return time.truncatedTo(ChronoUnit.HOURS).equals(time) && !time.isBefore(LocalDateTime.now());
+        }
+
+        // Drops the masks of past days once a day; returns today
+        private LocalDate pruneBefore() {
+            LocalDate today = LocalDate.now();
+            if (prunedOn.isBefore(today)) {
+                prunedOn = today;
+                booked.keySet().removeIf(date -> date.isBefore(today));
+            }
+            return today;
+        }
+
+        private int free(LocalDate date) {
+            return working & ~booked.getOrDefault(date, 0);
+        }
+    }
+}
@@ -0,0 +1,396 @@
+package com.project.back_end.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.project.back_end.DTO.ImportReport;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk onboarding of doctors, patients and appointments from CSV files with a header row:
+ * <pre>
+ * doctors:      name,specialty,email,password,phone,availableTimes   (times separated by ';')
+ * patients:     name,email,password,phone,address                    (password may be empty)
+ * appointments: doctorEmail,patientEmail,appointmentTime,status      (ISO time, status 0 or 1)
+ * </pre>
+ * The input is streamed, so only one batch is held in memory. Each batch of
+ * {@code clinic.import.batch-size} rows is written in its own transaction with one batched
+ * INSERT per table, which the MySQL driver sends as multi-row statements
+ * ({@code rewriteBatchedStatements=true}). Ids stay AUTO_INCREMENT; the available times and
+ * appointments find the rows they reference by email, with one query per batch.
+ * <p>
+ * Rows that fail validation, repeat an email (or a doctor's slot) already stored or earlier in
+ * the batch, or name an unknown doctor or patient are reported with their line number and
+ * skipped, so an interrupted import can be run again with the same file. If a batch fails as a
+ * whole, all of its rows are reported. Passwords that are already {@code {bcrypt}} or
+ * {@code {argon2}} hashes are stored as they are; others are hashed on the calling thread,
+ * which dominates the import time at the default cost.
+ * <p>
+ * The search index, calendars and doctor cache are updated as each batch commits, as for a
+ * single save. Imports do not go through the appointment events, so each batch of
+ * appointments is added to the report counters in the transaction that inserts it.
+ */
+@Service
+public class ClinicImportService {
+    private static final Logger log = LoggerFactory.getLogger(ClinicImportService.class);
+
+    private static final String INSERT_DOCTOR = "INSERT INTO doctor (name, specialty, email, password, phone) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_AVAILABLE_TIME = "INSERT INTO doctor_available_times (doctor_id, available_times) VALUES (?, ?)";
+    private static final String INSERT_PATIENT = "INSERT INTO patient (name, email, password, phone, address) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_APPOINTMENT = "INSERT INTO appointment (doctor_id, patient_id, appointment_time, status) VALUES (?, ?, ?, ?)";
+    // Both tiers, so appointments already moved to the cold tier are not imported twice
+    private static final String TAKEN_SLOTS = """
+            SELECT doctor_id, appointment_time FROM appointment WHERE doctor_id IN (:doctorIds) AND appointment_time IN (:times)
+            UNION ALL
+            SELECT doctor_id, appointment_time FROM archived_appointment WHERE doctor_id IN (:doctorIds) AND appointment_time IN (:times)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final CredentialService credentialService;
+    private final DoctorSearchIndex doctorSearchIndex;
+    private final AvailabilityService availabilityService;
+    private final DoctorCache doctorCache;
+    private final ReportingService reportingService;
+    private final int batchSize;
+    private final int maxReportedErrors;
+    private final CsvMapper csvMapper = new CsvMapper();
+
+    public ClinicImportService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate, Validator validator,
+                               CredentialService credentialService, DoctorSearchIndex doctorSearchIndex,
+                               AvailabilityService availabilityService, DoctorCache doctorCache,
+                               ReportingService reportingService,
+                               @Value("${clinic.import.batch-size:1000}") int batchSize,
+                               @Value("${clinic.import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.credentialService = credentialService;
+        this.doctorSearchIndex = doctorSearchIndex;
+        this.availabilityService = availabilityService;
+        this.doctorCache = doctorCache;
+        this.reportingService = reportingService;
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    record DoctorRow(String name, String specialty, String email, String password, String phone, String availableTimes) {
+    }
+
+    record PatientRow(String name, String email, String password, String phone, String address) {
+    }
+
+    record AppointmentRow(String doctorEmail, String patientEmail, String appointmentTime, String status) {
+    }
+
+    private record Booking(String doctorEmail, String patientEmail, LocalDateTime time, int status) {
+    }
+
+    @FunctionalInterface
+    private interface BatchWriter<E> {
+        // Writes what it accepts of the batch and reports the rest
+        void write(List<E> batch, List<Long> lines, ImportReport report);
+    }
+
+    public ImportReport importDoctors(InputStream input, Consumer<ImportReport> progress) throws IOException {
+        return importCsv(input, DoctorRow.class, this::toDoctor, this::writeDoctors, progress);
+    }
+
+    public ImportReport importPatients(InputStream input, Consumer<ImportReport> progress) throws IOException {
+        return importCsv(input, PatientRow.class, this::toPatient, this::writePatients, progress);
+    }
+
+    public ImportReport importAppointments(InputStream input, Consumer<ImportReport> progress) throws IOException {
+        return importCsv(input, AppointmentRow.class, this::toBooking, this::writeAppointments, progress);
+    }
+
+    private <R, E> ImportReport importCsv(InputStream input, Class<R> rowType, Function<R, E> parse,
+                                          BatchWriter<E> writer, Consumer<ImportReport> progress) throws IOException {
+        var report = new ImportReport(maxReportedErrors);
+        var batch = new ArrayList<E>(batchSize);
+        var lines = new ArrayList<Long>(batchSize);
+        ObjectReader reader = csvMapper.readerFor(rowType).with(CsvSchema.emptySchema().withHeader());
+
+        try (MappingIterator<R> rows = reader.readValues(input)) {
+            while (rows.hasNextValue()) {
+                long lineNumber = rows.getCurrentLocation().getLineNr();
+                report.recordRead();
+
+                E item;
+                try {
+                    item = parse.apply(rows.nextValue());
+                } catch (JsonProcessingException e) {
+                    report.recordFailure(lineNumber, "unreadable row: " + e.getOriginalMessage());
+                    continue;
+                } catch (RuntimeJsonMappingException e) {
+                    report.recordFailure(lineNumber, "unreadable row: " + e.getMessage());
+                    continue;
+                } catch (IllegalArgumentException e) {
+                    report.recordFailure(lineNumber, e.getMessage());
+                    continue;
+                }
+
+                batch.add(item);
+                lines.add(lineNumber);
+                if (batch.size() == batchSize) {
+                    flush(writer, batch, lines, report);
+                    progress.accept(report);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            flush(writer, batch, lines, report);
+            progress.accept(report);
+        }
+
+        return report;
+    }
+
+    private <E> void flush(BatchWriter<E> writer, List<E> batch, List<Long> lines, ImportReport report) {
+        writer.write(batch, lines, report);
+        batch.clear();
+        lines.clear();
+    }
+
+    private Doctor toDoctor(DoctorRow row) {
+        var doctor = new Doctor();
+        doctor.setName(row.name());
+        doctor.setSpecialty(row.specialty());
+        doctor.setEmail(row.email());
+        doctor.setPassword(row.password());
+        doctor.setPhone(row.phone());
+        doctor.setAvailableTimes(row.availableTimes() == null ? List.of() : Arrays.stream(row.availableTimes().split(";"))
+                .map(String::trim)
+                .filter(time -> !time.isEmpty())
+                .toList());
+        return validated(doctor);
+    }
+
+    private Patient toPatient(PatientRow row) {
+        var patient = new Patient();
+        patient.setName(row.name());
+        patient.setEmail(row.email());
+        patient.setPassword(row.password() == null || row.password().isEmpty() ? null : row.password());
+        patient.setPhone(row.phone());
+        patient.setAddress(row.address());
+        return validated(patient);
+    }
+
+    private Booking toBooking(AppointmentRow row) {
+        if (row.doctorEmail() == null || row.patientEmail() == null || row.appointmentTime() == null) {
+            throw new IllegalArgumentException("doctorEmail, patientEmail and appointmentTime are required");
+        }
+        LocalDateTime time;
+        try {
+            time = LocalDateTime.parse(row.appointmentTime());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("appointmentTime is not an ISO date-time: " + row.appointmentTime());
+        }
+        int status = row.status() == null || row.status().isEmpty() ? 0 : switch (row.status()) {
+            case "0" -> 0;
+            case "1" -> 1;
+            default -> throw new IllegalArgumentException("status must be 0 or 1");
+        };
+        return new Booking(row.doctorEmail(), row.patientEmail(), time, status);
+    }
+
+    private <T> T validated(T entity) {
+        Set<ConstraintViolation<T>> violations = validator.validate(entity);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+        }
+        return entity;
+    }
+
+    private void writeDoctors(List<Doctor> batch, List<Long> lines, ImportReport report) {
+        var doctors = new ArrayList<Doctor>(batch.size());
+        var accepted = new ArrayList<Long>(batch.size());
+        Set<String> registered = existingEmails("doctor", batch.stream().map(Doctor::getEmail).toList());
+        var seen = new HashSet<String>();
+        for (int i = 0; i < batch.size(); i++) {
+            Doctor doctor = batch.get(i);
+            if (registered.contains(doctor.getEmail()) || !seen.add(doctor.getEmail())) {
+                report.recordFailure(lines.get(i), "email already registered: " + doctor.getEmail());
+                continue;
+            }
+            // Hashed before the transaction opens, so it is not held open for the hashing time
+            if (!credentialService.isEncoded(doctor.getPassword())) {
+                doctor.setPassword(credentialService.encode(doctor.getPassword()));
+            }
+            doctors.add(doctor);
+            accepted.add(lines.get(i));
+        }
+
+        commit(accepted, report, status -> {
+            jdbcTemplate.batchUpdate(INSERT_DOCTOR, doctors, doctors.size(), (statement, doctor) -> {
+                statement.setString(1, doctor.getName());
+                statement.setString(2, doctor.getSpecialty());
+                statement.setString(3, doctor.getEmail());
+                statement.setString(4, doctor.getPassword());
+                statement.setString(5, doctor.getPhone());
+            });
+            Map<String, Long> ids = idsByEmail("doctor", doctors.stream().map(Doctor::getEmail).toList());
+            var times = new ArrayList<Object[]>();
+            for (Doctor doctor : doctors) {
+                doctor.setId(ids.get(doctor.getEmail()));
+                doctor.getAvailableTimes().forEach(time -> times.add(new Object[]{doctor.getId(), time}));
+                Transactions.afterCommit(() -> doctorSearchIndex.index(doctor));
+                Transactions.afterCommit(() -> doctorCache.evict(doctor));
+            }
+            jdbcTemplate.batchUpdate(INSERT_AVAILABLE_TIME, times);
+            return doctors.size();
+        });
+    }
+
+    private void writePatients(List<Patient> batch, List<Long> lines, ImportReport report) {
+        var patients = new ArrayList<Patient>(batch.size());
+        var accepted = new ArrayList<Long>(batch.size());
+        Set<String> registered = existingEmails("patient", batch.stream().map(Patient::getEmail).toList());
+        var seen = new HashSet<String>();
+        for (int i = 0; i < batch.size(); i++) {
+            Patient patient = batch.get(i);
+            if (registered.contains(patient.getEmail()) || !seen.add(patient.getEmail())) {
+                report.recordFailure(lines.get(i), "email already registered: " + patient.getEmail());
+                continue;
+            }
+            if (patient.getPassword() != null && !credentialService.isEncoded(patient.getPassword())) {
+                patient.setPassword(credentialService.encode(patient.getPassword()));
+            }
+            patients.add(patient);
+            accepted.add(lines.get(i));
+        }
+
+        commit(accepted, report, status -> {
+            jdbcTemplate.batchUpdate(INSERT_PATIENT, patients, patients.size(), (statement, patient) -> {
+                statement.setString(1, patient.getName());
+                statement.setString(2, patient.getEmail());
+                statement.setString(3, patient.getPassword());
+                statement.setString(4, patient.getPhone());
+                statement.setString(5, patient.getAddress());
+            });
+            return patients.size();
+        });
+    }
+
+    private void writeAppointments(List<Booking> batch, List<Long> lines, ImportReport report) {
+        Map<String, Long> doctorIds = idsByEmail("doctor", batch.stream().map(Booking::doctorEmail).distinct().toList());
+        Map<String, Long> patientIds = idsByEmail("patient", batch.stream().map(Booking::patientEmail).distinct().toList());
+        Set<List<Object>> taken = takenSlots(batch.stream().map(booking -> doctorIds.get(booking.doctorEmail())).filter(Objects::nonNull).toList(),
+                batch.stream().map(Booking::time).toList());
+
+        var rows = new ArrayList<Object[]>(batch.size());
+        var booked = new ArrayList<ReportingService.Booked>(batch.size());
+        var accepted = new ArrayList<Long>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            Booking booking = batch.get(i);
+            Long doctorId = doctorIds.get(booking.doctorEmail());
+            Long patientId = patientIds.get(booking.patientEmail());
+            if (doctorId == null) {
+                report.recordFailure(lines.get(i), "no doctor with email " + booking.doctorEmail());
+            } else if (patientId == null) {
+                report.recordFailure(lines.get(i), "no patient with email " + booking.patientEmail());
+            } else if (!taken.add(List.of(doctorId, booking.time()))) {
+                report.recordFailure(lines.get(i), "doctor " + booking.doctorEmail() + " already has an appointment at " + booking.time());
+            } else {
+                rows.add(new Object[]{doctorId, patientId, booking.time(), booking.status()});
+                booked.add(new ReportingService.Booked(doctorId, patientId, booking.time()));
+                accepted.add(lines.get(i));
+            }
+        }
+
+        commit(accepted, report, status -> {
+            jdbcTemplate.batchUpdate(INSERT_APPOINTMENT, rows);
+            reportingService.bookedAll(booked);
+            for (Object[] row : rows) {
+                availabilityService.booked((Long) row[0], (LocalDateTime) row[2]);
+            }
+            return rows.size();
+        });
+    }
+
+    /**
+     * Inserts one batch in its own transaction. If it fails, every row in it is reported with
+     * the cause.
+     */
+    private void commit(List<Long> lines, ImportReport report, TransactionCallback<Integer> insert) {
+        if (lines.isEmpty()) {
+            report.recordBatch(0);
+            return;
+        }
+        try {
+            Integer inserted = transactionTemplate.execute(insert);
+            report.recordBatch(inserted == null ? 0 : inserted);
+        } catch (DataAccessException e) {
+            log.warn("Import batch of {} rows rolled back", lines.size(), e);
+            report.recordBatch(0);
+            String error = "batch rolled back: " + e.getMostSpecificCause().getMessage();
+            lines.forEach(line -> report.recordFailure(line, error));
+        }
+    }
+
+    private Set<String> existingEmails(String table, List<String> emails) {
+        return idsByEmail(table, emails).keySet();
+    }
+
+    // Table names are constants of this class, never input
+    private Map<String, Long> idsByEmail(String table, List<String> emails) {
+        var ids = new HashMap<String, Long>();
+        if (emails.isEmpty()) {
+            return ids;
+        }
+        namedJdbcTemplate.query("SELECT id, email FROM " + table + " WHERE email IN (:emails)", Map.of("emails", emails),
+                resultSet -> {
+                    ids.put(resultSet.getString(2), resultSet.getLong(1));
+                });
+        return ids;
+    }
+
+    private Set<List<Object>> takenSlots(List<Long> doctorIds, List<LocalDateTime> times) {
+        var taken = new HashSet<List<Object>>();
+        if (doctorIds.isEmpty()) {
+            return taken;
+        }
+        var params = Map.of("doctorIds", new HashSet<>(doctorIds), "times", new HashSet<>(times));
+        namedJdbcTemplate.query(TAKEN_SLOTS, params, resultSet -> {
+            taken.add(List.of(resultSet.getLong(1), resultSet.getObject(2, LocalDateTime.class)));
+        });
+        return taken;
+    }
+}
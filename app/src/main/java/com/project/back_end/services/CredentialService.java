@@ -0,0 +1,149 @@
+package com.project.back_end.services;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Password hashing and verification.
+ * <p>
+ * New hashes use {@code credentials.algorithm}, {@code bcrypt} or {@code argon2}, at the cost set
+ * by {@code credentials.bcrypt.strength} or {@code credentials.argon2.*}, and are stored with an
+ * {@code {id}} prefix naming the algorithm. Stored values without a prefix are the plaintext
+ * passwords of rows written before hashing, and are compared in constant time. When a login
+ * matches a plaintext value, a hash from the other algorithm or one below the current cost, the
+ * password is hashed again and handed to the caller to store, so existing rows move to the
+ * current settings as their users log in.
+ * <p>
+ * Verification is deliberately slow, so it runs on its own pool of
+ * {@code credentials.hash.threads} threads (one per core by default) behind a queue of
+ * {@code credentials.hash.queue-capacity} logins. A burst of logins waits there instead of
+ * holding request threads, and once the queue is full further logins are rejected straight away.
+ * The pool is reported as the {@code credential.hash} executor metrics.
+ */
+@Service
+public class CredentialService {
+    private static final Logger log = LoggerFactory.getLogger(CredentialService.class);
+
+    private final PasswordEncoder encoder;
+    private final ThreadPoolExecutor executor;
+    // Checked for unknown users, so they take as long to reject as a wrong password
+    private final String unknownUserHash;
+
+    public CredentialService(@Value("${credentials.algorithm:bcrypt}") String algorithm,
+                             @Value("${credentials.bcrypt.strength:10}") int bcryptStrength,
+                             @Value("${credentials.argon2.memory-kib:19456}") int argon2MemoryKib,
+                             @Value("${credentials.argon2.iterations:2}") int argon2Iterations,
+                             @Value("${credentials.hash.threads:0}") int threads,
+                             @Value("${credentials.hash.queue-capacity:64}") int queueCapacity,
+                             MeterRegistry meterRegistry) {
+        var delegating = new DelegatingPasswordEncoder(algorithm, Map.of(
+                "bcrypt", new BCryptPasswordEncoder(bcryptStrength),
+                "argon2", new Argon2PasswordEncoder(16, 32, 1, argon2MemoryKib, argon2Iterations)));
+        delegating.setDefaultPasswordEncoderForMatches(new PlaintextPasswordEncoder());
+        this.encoder = delegating;
+
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        var count = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    var thread = new Thread(runnable, "credential-hash-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        new ExecutorServiceMetrics(executor, "credential.hash", Tags.empty()).bindTo(meterRegistry);
+
+        this.unknownUserHash = encoder.encode(UUID.randomUUID().toString());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Hashes {@code rawPassword} with the current algorithm and cost, on the calling thread.
+     */
+    public String encode(String rawPassword) {
+        return encoder.encode(rawPassword);
+    }
+
+    /**
+     * Whether {@code password} is already a hash this service can check, as exported from
+     * another installation, rather than a password to encode.
+     */
+    public boolean isEncoded(String password) {
+        return password.startsWith("{bcrypt}") || password.startsWith("{argon2}");
+    }
+
+    /**
+     * Checks {@code rawPassword} against {@code storedPassword} on the hashing pool. Pass null
+     * for an unknown user; the result is then false. On a match with an outdated stored value,
+     * {@code rehash} is called on the hashing thread with the new hash; if it fails, the login
+     * still succeeds and the next one tries again.
+     *
+     * @throws RejectedExecutionException when the queue is full
+     */
+    public CompletableFuture<Boolean> verify(String storedPassword, String rawPassword, Consumer<String> rehash) {
+        if (rawPassword == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            if (storedPassword == null) {
+                encoder.matches(rawPassword, unknownUserHash);
+                return false;
+            }
+            if (!encoder.matches(rawPassword, storedPassword)) {
+                return false;
+            }
+            if (encoder.upgradeEncoding(storedPassword)) {
+                try {
+                    rehash.accept(encoder.encode(rawPassword));
+                } catch (RuntimeException e) {
+                    log.warn("Could not store the upgraded password hash", e);
+                }
+            }
+            return true;
+        }, executor);
+    }
+
+    // Rows stored before passwords were hashed; never used to encode
+    private static class PlaintextPasswordEncoder implements PasswordEncoder {
+        @Override
+        public String encode(CharSequence rawPassword) {
+            throw new UnsupportedOperationException("Passwords are not stored in plaintext");
+        }
+
+        @Override
+        public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return MessageDigest.isEqual(rawPassword.toString().getBytes(StandardCharsets.UTF_8),
+                    encodedPassword.getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public boolean upgradeEncoding(String encodedPassword) {
+            return true;
+        }
+    }
+}
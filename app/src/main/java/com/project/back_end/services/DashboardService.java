@@ -0,0 +1,76 @@
+package com.project.back_end.services;
+
+import com.project.back_end.models.Doctor;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Server-rendered doctor cards for the admin dashboard, kept as a snapshot.
+ * <p>
+ * The snapshot is rebuilt only when {@link DoctorCache#version()} has moved, so an unchanged
+ * directory costs neither a query nor a render. Its ETag hashes the rendered cards and the
+ * dashboard template, so it changes with the data or a new deployment and is the same on every
+ * instance.
+ */
+@Service
+public class DashboardService {
+    static final String CARDS_TEMPLATE = "admin/doctorCards";
+    private static final String PAGE_TEMPLATE = "templates/admin/adminDashboard.html";
+
+    private final DoctorCache doctorCache;
+    private final TemplateEngine templateEngine;
+    private final byte[] pageTemplateDigest;
+    private volatile Snapshot snapshot;
+
+    public record Snapshot(long version, String cardsHtml, String etag) {
+    }
+
+    public DashboardService(DoctorCache doctorCache, TemplateEngine templateEngine) {
+        this.doctorCache = doctorCache;
+        this.templateEngine = templateEngine;
+        try {
+            this.pageTemplateDigest = sha256(new ClassPathResource(PAGE_TEMPLATE).getContentAsByteArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public Snapshot adminSnapshot() {
+        long version = doctorCache.version();
+        Snapshot current = snapshot;
+        if (current != null && current.version() == version) {
+            return current;
+        }
+
+        List<Doctor> doctors = doctorCache.findAll();
+        var context = new Context();
+        context.setVariable("doctors", doctors);
+        String cardsHtml = templateEngine.process(CARDS_TEMPLATE, context);
+        byte[] cardsDigest = sha256(cardsHtml.getBytes(StandardCharsets.UTF_8));
+        byte[] digest = new byte[16];
+        for (int i = 0; i < digest.length; i++) {
+            digest[i] = (byte) (cardsDigest[i] ^ pageTemplateDigest[i]);
+        }
+        current = new Snapshot(version, cardsHtml, "\"" + HexFormat.of().formatHex(digest) + "\"");
+        snapshot = current;
+        return current;
+    }
+
+    private static byte[] sha256(byte[] bytes) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.project.back_end.services;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.project.back_end.config.ReplicaRouting;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.repo.DoctorRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Read-through cache for doctors, sitting in front of {@link DoctorRepository}.
+ * <p>
+ * With {@code doctor.cache.mode=local} (the default) doctors are kept in bounded Caffeine caches
+ * by id and by email, plus one entry for the full directory, each expiring after
+ * {@code doctor.cache.ttl}. {@link #evict(Doctor)} is called from the doctor write paths after
+ * commit. With {@code doctor.cache.mode=hibernate} the reads go through the repository and are
+ * served by the Hibernate second-level cache region {@value Doctor#CACHE_REGION} and the query
+ * cache, configured in {@code DoctorCacheConfig}, which Hibernate invalidates itself.
+ * <p>
+ * Cached doctors are shared between requests and must be treated as read-only. Both modes load
+ * from the primary, since a row read from a lagging replica would be served until it expires.
+ * <p>
+ * The local caches hold futures and the loading query runs on the calling thread after the
+ * future is installed, never inside the cache's map lock, so a virtual thread waiting on MySQL
+ * does not pin its carrier. Concurrent misses on one key still share a single load.
+ */
+@Service
+public class DoctorCache {
+    private static final String ALL = "all";
+
+    private final DoctorRepository doctorRepository;
+    private final EntityManagerFactory entityManagerFactory;
+    private final boolean local;
+    private final AsyncCache<Long, Optional<Doctor>> byId;
+    private final AsyncCache<String, Doctor> byEmail;
+    private final AsyncCache<String, List<Doctor>> all;
+    private final AtomicLong version = new AtomicLong();
+
+    public DoctorCache(DoctorRepository doctorRepository,
+                       EntityManagerFactory entityManagerFactory,
+                       @Value("${doctor.cache.mode:local}") String mode,
+                       @Value("${doctor.cache.max-size:10000}") long maxSize,
+                       @Value("${doctor.cache.ttl:10m}") Duration ttl) {
+        this.doctorRepository = doctorRepository;
+        this.entityManagerFactory = entityManagerFactory;
+        this.local = !mode.equalsIgnoreCase("hibernate");
+        this.byId = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().buildAsync();
+        this.byEmail = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl).recordStats().buildAsync();
+        this.all = Caffeine.newBuilder().maximumSize(1).expireAfterWrite(ttl).recordStats().buildAsync();
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<Doctor> findById(Long id) {
+        if (!local) {
+            return ReplicaRouting.onPrimary(() -> {
+                Optional<Doctor> doctor = doctorRepository.findById(id);
+                doctor.ifPresent(found -> Hibernate.initialize(found.getAvailableTimes()));
+                return doctor;
+            });
+        }
+        return load(byId, id, key -> doctorRepository.findAllWithAvailableTimesByIdIn(List.of(key)).stream().findFirst());
+    }
+
+    @Transactional(readOnly = true)
+    public Doctor findByEmail(String email) {
+        if (!local) {
+            return ReplicaRouting.onPrimary(() -> doctorRepository.findWithAvailableTimesByEmail(email));
+        }
+        return load(byEmail, email, doctorRepository::findWithAvailableTimesByEmail);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Doctor> findAll() {
+        if (!local) {
+            return ReplicaRouting.onPrimary(doctorRepository::findAllWithAvailableTimes);
+        }
+        return load(all, ALL, key -> List.copyOf(doctorRepository.findAllWithAvailableTimes()));
+    }
+
+    // A null or failed result is not kept by the cache, so the next call loads again
+    private static <K, V> V load(AsyncCache<K, V> cache, K key, Function<K, V> loader) {
+        var loading = new CompletableFuture<V>();
+        CompletableFuture<V> future = cache.get(key, (k, executor) -> loading);
+        if (future == loading) {
+            try {
+                loading.complete(ReplicaRouting.onPrimary(() -> loader.apply(key)));
+            } catch (RuntimeException e) {
+                loading.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Drops every entry that can hold {@code doctor}: its id, any email that resolved to it
+     * (the email may just have changed), its current email and the full directory.
+     */
+    public void evict(Doctor doctor) {
+        invalidate(doctor.getId());
+        if (doctor.getEmail() != null) {
+            byEmail.synchronous().invalidate(doctor.getEmail());
+        }
+        version.incrementAndGet();
+    }
+
+    public void evict(Long doctorId) {
+        invalidate(doctorId);
+        version.incrementAndGet();
+    }
+
+    // The version moves only once the entries are gone, so a reader that sees the new version
+    // cannot load a doctor still cached from before the change
+    private void invalidate(Long doctorId) {
+        byId.synchronous().invalidate(doctorId);
+        byEmail.synchronous().asMap().values().removeIf(cached -> cached != null && cached.getId().equals(doctorId));
+        all.synchronous().invalidateAll();
+    }
+
+    /**
+     * Counts evictions, so callers can tell whether anything they derived from the doctors is
+     * still current without querying. Read it before reading the doctors.
+     */
+    public long version() {
+        return version.get();
+    }
+
+    /**
+     * Hit and miss counters per cache, for comparing the two modes.
+     */
+    public Map<String, Object> stats() {
+        var stats = new LinkedHashMap<String, Object>();
+        stats.put("mode", local ? "local" : "hibernate");
+        if (local) {
+            stats.put("byId", stats(byId.synchronous()));
+            stats.put("byEmail", stats(byEmail.synchronous()));
+            stats.put("all", stats(all.synchronous()));
+            return stats;
+        }
+
+        var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        stats.put("entity", stats(statistics.getDomainDataRegionStatistics(Doctor.CACHE_REGION)));
+        stats.put("availableTimes", stats(statistics.getDomainDataRegionStatistics(Doctor.CACHE_REGION + ".availableTimes")));
+        stats.put("queries", Map.of(
+                "hits", statistics.getQueryCacheHitCount(),
+                "misses", statistics.getQueryCacheMissCount(),
+                "puts", statistics.getQueryCachePutCount()));
+        return stats;
+    }
+
+    private static Map<String, Object> stats(Cache<?, ?> cache) {
+        CacheStats stats = cache.stats();
+        return Map.of(
+                "hits", stats.hitCount(),
+                "misses", stats.missCount(),
+                "hitRate", stats.hitRate(),
+                "evictions", stats.evictionCount(),
+                "size", cache.estimatedSize());
+    }
+
+    private static Map<String, Object> stats(CacheRegionStatistics stats) {
+        return Map.of(
+                "hits", stats.getHitCount(),
+                "misses", stats.getMissCount(),
+                "puts", stats.getPutCount());
+    }
+}
@@ -0,0 +1,120 @@
+package com.project.back_end.services;
+
+import com.project.back_end.DTO.DoctorRemovalReport;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.ArchivedAppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+
+/**
+ * Removes a doctor together with their appointments and available times, in transactions of
+ * at most {@code doctor.removal.chunk-size} rows.
+ * <p>
+ * Each appointment chunk is copied to {@code archived_appointment} and deleted with one
+ * statement each, and the chunk's prescriptions in Mongo are flagged {@code appointmentArchived}
+ * before it commits. The available times are then deleted chunk by chunk, and a last transaction
+ * sweeps up appointments booked meanwhile and deletes the doctor. Since the doctor goes last, an
+ * interrupted removal is resumed by running it again: it carries on with what is left.
+ */
+@Service
+public class DoctorRemovalService {
+    private static final Logger log = LoggerFactory.getLogger(DoctorRemovalService.class);
+
+    private final DoctorRepository doctorRepository;
+    private final AppointmentRepository appointmentRepository;
+    private final ArchivedAppointmentRepository archivedAppointmentRepository;
+    private final AppointmentOutbox appointmentOutbox;
+    private final AvailabilityService availabilityService;
+    private final DoctorSearchIndex doctorSearchIndex;
+    private final DoctorCache doctorCache;
+    private final ObjectProvider<PrescriptionLinks> prescriptionLinks;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${doctor.removal.chunk-size:1000}")
+    private int chunkSize;
+
+    public DoctorRemovalService(DoctorRepository doctorRepository, AppointmentRepository appointmentRepository,
+                                ArchivedAppointmentRepository archivedAppointmentRepository, AppointmentOutbox appointmentOutbox,
+                                AvailabilityService availabilityService, DoctorSearchIndex doctorSearchIndex, DoctorCache doctorCache,
+                                ObjectProvider<PrescriptionLinks> prescriptionLinks, TransactionTemplate transactionTemplate) {
+        this.doctorRepository = doctorRepository;
+        this.appointmentRepository = appointmentRepository;
+        this.archivedAppointmentRepository = archivedAppointmentRepository;
+        this.appointmentOutbox = appointmentOutbox;
+        this.availabilityService = availabilityService;
+        this.doctorSearchIndex = doctorSearchIndex;
+        this.doctorCache = doctorCache;
+        this.prescriptionLinks = prescriptionLinks;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    public DoctorRemovalReport remove(long doctorId) {
+        return remove(doctorId, report -> log.info("Doctor removal progress: {}", report));
+    }
+
+    /**
+     * Removes the doctor, calling {@code progress} after each committed chunk. Returns
+     * {@code null} if there is no such doctor, which is also the case once a removal finished.
+     * A failure leaves the committed chunks in place for the next run.
+     */
+    public DoctorRemovalReport remove(long doctorId, Consumer<DoctorRemovalReport> progress) {
+        if (!doctorRepository.existsById(doctorId)) {
+            return null;
+        }
+        var report = new DoctorRemovalReport(doctorId, appointmentRepository.countByDoctorId(doctorId));
+        var archivedAt = LocalDateTime.now();
+
+        while (inTransaction(() -> archiveChunk(doctorId, archivedAt, report)) > 0) {
+            progress.accept(report);
+        }
+        int deleted;
+        while ((deleted = inTransaction(() -> doctorRepository.deleteAvailableTimes(doctorId, chunkSize))) > 0) {
+            report.recordAvailableTimesDeleted(deleted);
+            progress.accept(report);
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            // Appointments booked while the chunks above ran
+            while (archiveChunk(doctorId, archivedAt, report) > 0) {
+            }
+            appointmentOutbox.doctorRemoved(doctorId);
+            doctorRepository.deleteById(doctorId);
+            availabilityService.doctorRemoved(doctorId);
+            Transactions.afterCommit(() -> doctorSearchIndex.remove(doctorId));
+            Transactions.afterCommit(() -> doctorCache.evict(doctorId));
+        });
+        report.recordRemoved();
+        progress.accept(report);
+        return report;
+    }
+
+    private int archiveChunk(long doctorId, LocalDateTime archivedAt, DoctorRemovalReport report) {
+        List<Long> ids = appointmentRepository.findIdsByDoctorId(doctorId, Limit.of(chunkSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        int archived = archivedAppointmentRepository.archive(ids, archivedAt);
+        appointmentRepository.deleteAllByIdIn(ids);
+        // Flagged before the commit: if the commit fails the chunk is redone, and flagging again is harmless
+        PrescriptionLinks links = prescriptionLinks.getIfAvailable();
+        long flagged = links == null ? 0 : links.appointmentsArchived(ids);
+        report.recordArchived(archived, flagged);
+        return archived;
+    }
+
+    private int inTransaction(IntSupplier chunk) {
+        Integer count = transactionTemplate.execute(status -> chunk.getAsInt());
+        return count == null ? 0 : count;
+    }
+}
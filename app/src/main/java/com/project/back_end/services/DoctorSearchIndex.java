@@ -0,0 +1,310 @@
+package com.project.back_end.services;
+
+import com.project.back_end.config.ReplicaRouting;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.repo.DoctorRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process search index over doctor name, specialty and time of day.
+ * <p>
+ * Names are split into lower-cased trigrams, each mapped to the sorted ids of the doctors whose
+ * name contains it. A substring query intersects the postings of its own trigrams, smallest
+ * first, and checks the few survivors against the stored name, so {@code LIKE '%name%'}
+ * semantics are kept without scanning every doctor. Specialty is an exact, case-insensitive
+ * match on its own postings, and AM/PM is a flag on each entry.
+ * <p>
+ * Writes are rare and copy the affected postings arrays; reads never lock. Results are always
+ * checked against {@code entries}, which is the source of truth, so a reader racing a writer can
+ * at worst miss the doctor being changed. A full {@link #load} builds new maps and publishes them
+ * with a single volatile write, so a search sees either the old index or the new one, never a
+ * half-filled one. {@link #rebuild} reads the database without holding the lock, so the writes
+ * made meanwhile are recorded and replayed onto the new index before it is published.
+ */
+@Service
+public class DoctorSearchIndex {
+    private static final int GRAM = 3;
+    private static final int REBUILD_PAGE_SIZE = 1000;
+    private static final long[] EMPTY = new long[0];
+
+    private final DoctorRepository doctorRepository;
+    private final Object rebuilding = new Object();
+    private volatile Index index = new Index(new ConcurrentHashMap<>(), new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+    // The last write per doctor id since a rebuild started, null for a removal; guarded by this
+    private Map<Long, Doctor> writesDuringRebuild;
+
+    private record Entry(Doctor doctor, String name, String specialty, boolean am, boolean pm) {
+    }
+
+    private record Index(Map<Long, Entry> entries, Map<String, long[]> namePostings, Map<String, long[]> specialtyPostings) {
+    }
+
+    public DoctorSearchIndex(DoctorRepository doctorRepository) {
+        this.doctorRepository = doctorRepository;
+    }
+
+    // From the primary, since the index is only kept current by this instance's writes after that
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (rebuilding) {
+            synchronized (this) {
+                writesDuringRebuild = new HashMap<>();
+            }
+            try {
+                List<Doctor> doctors = readAll();
+                synchronized (this) {
+                    load(doctors);
+                    writesDuringRebuild.forEach((doctorId, doctor) -> {
+                        if (doctor == null) {
+                            unindex(doctorId);
+                        } else {
+                            put(doctor);
+                        }
+                    });
+                }
+            } finally {
+                synchronized (this) {
+                    writesDuringRebuild = null;
+                }
+            }
+        }
+    }
+
+    private List<Doctor> readAll() {
+        var doctors = new ArrayList<Doctor>();
+        ReplicaRouting.onPrimary(() -> {
+            long after = 0L;
+            List<Long> ids;
+            do {
+                ids = doctorRepository.findIdsAfter(after, Limit.of(REBUILD_PAGE_SIZE));
+                if (!ids.isEmpty()) {
+                    doctors.addAll(doctorRepository.findAllWithAvailableTimesByIdIn(ids));
+                    after = ids.get(ids.size() - 1);
+                }
+            } while (ids.size() == REBUILD_PAGE_SIZE);
+        });
+        return doctors;
+    }
+
+    /**
+     * Replaces the whole index with {@code doctors}, building every postings array in one pass.
+     */
+    public synchronized void load(List<Doctor> doctors) {
+        var names = new HashMap<String, List<Long>>();
+        var specialties = new HashMap<String, List<Long>>();
+        var entries = new ConcurrentHashMap<Long, Entry>();
+        for (Doctor doctor : doctors) {
+            Entry entry = entry(doctor);
+            entries.put(doctor.getId(), entry);
+            for (String gram : grams(entry.name())) {
+                names.computeIfAbsent(gram, g -> new ArrayList<>()).add(doctor.getId());
+            }
+            specialties.computeIfAbsent(entry.specialty(), s -> new ArrayList<>()).add(doctor.getId());
+        }
+
+        var namePostings = new ConcurrentHashMap<String, long[]>();
+        names.forEach((gram, ids) -> namePostings.put(gram, sorted(ids)));
+        var specialtyPostings = new ConcurrentHashMap<String, long[]>();
+        specialties.forEach((specialty, ids) -> specialtyPostings.put(specialty, sorted(ids)));
+        index = new Index(entries, namePostings, specialtyPostings);
+    }
+
+    public synchronized void index(Doctor doctor) {
+        if (writesDuringRebuild != null) {
+            writesDuringRebuild.put(doctor.getId(), doctor);
+        }
+        put(doctor);
+    }
+
+    public synchronized void remove(Long doctorId) {
+        if (writesDuringRebuild != null) {
+            writesDuringRebuild.put(doctorId, null);
+        }
+        unindex(doctorId);
+    }
+
+    private void put(Doctor doctor) {
+        unindex(doctor.getId());
+        Index current = index;
+        Entry entry = entry(doctor);
+        for (String gram : grams(entry.name())) {
+            current.namePostings().merge(gram, new long[]{doctor.getId()}, DoctorSearchIndex::union);
+        }
+        current.specialtyPostings().merge(entry.specialty(), new long[]{doctor.getId()}, DoctorSearchIndex::union);
+        current.entries().put(doctor.getId(), entry);
+    }
+
+    private void unindex(Long doctorId) {
+        Index current = index;
+        Entry entry = current.entries().remove(doctorId);
+        if (entry == null) {
+            return;
+        }
+        for (String gram : grams(entry.name())) {
+            current.namePostings().computeIfPresent(gram, (g, ids) -> without(ids, doctorId));
+        }
+        current.specialtyPostings().computeIfPresent(entry.specialty(), (s, ids) -> without(ids, doctorId));
+    }
+
+    /**
+     * Returns the doctors whose name contains {@code name} and whose specialty equals
+     * {@code specialty}, ignoring case, and who have a slot in the given half of the day
+     * ("AM" or "PM"). A null or blank argument does not filter. Results are ordered by id.
+     */
+    public List<Doctor> search(String name, String specialty, String time) {
+        String nameQuery = normalize(name);
+        String specialtyQuery = normalize(specialty);
+        String timeQuery = normalize(time);
+        Index current = index;
+
+        long[] candidates = null;
+        if (specialtyQuery != null) {
+            candidates = current.specialtyPostings().getOrDefault(specialtyQuery, EMPTY);
+        }
+        if (nameQuery != null && nameQuery.length() >= GRAM) {
+            var postings = new ArrayList<long[]>();
+            for (String gram : grams(nameQuery)) {
+                postings.add(current.namePostings().getOrDefault(gram, EMPTY));
+            }
+            postings.sort((a, b) -> Integer.compare(a.length, b.length));
+            for (long[] ids : postings) {
+                candidates = candidates == null ? ids : intersect(candidates, ids);
+                if (candidates.length == 0) {
+                    break;
+                }
+            }
+        }
+
+        var result = new ArrayList<Doctor>();
+        if (candidates == null) {
+            current.entries().values().stream()
+                    .filter(entry -> matches(entry, nameQuery, specialtyQuery, timeQuery))
+                    .map(Entry::doctor)
+                    .sorted((a, b) -> Long.compare(a.getId(), b.getId()))
+                    .forEach(result::add);
+            return result;
+        }
+        for (long id : candidates) {
+            Entry entry = current.entries().get(id);
+            if (entry != null && matches(entry, nameQuery, specialtyQuery, timeQuery)) {
+                result.add(entry.doctor());
+            }
+        }
+        return result;
+    }
+
+    private static boolean matches(Entry entry, String name, String specialty, String time) {
+        if (name != null && !entry.name().contains(name)) {
+            return false;
+        }
+        if (specialty != null && !entry.specialty().equals(specialty)) {
+            return false;
+        }
+        if ("am".equals(time)) {
+            return entry.am();
+        }
+        if ("pm".equals(time)) {
+            return entry.pm();
+        }
+        return true;
+    }
+
+    private static Entry entry(Doctor doctor) {
+        boolean am = false;
+        boolean pm = false;
+        if (doctor.getAvailableTimes() != null) {
+            for (String availableTime : doctor.getAvailableTimes()) {
+                if (AvailabilityService.slotOf(availableTime) < 12) {
+                    am = true;
+                } else {
+                    pm = true;
+                }
+            }
+        }
+        return new Entry(doctor, normalize(doctor.getName()), normalize(doctor.getSpecialty()), am, pm);
+    }
+
+    // Treats the "null" sent by the patient dashboard for an unset filter like a missing one
+    private static String normalize(String value) {
+        if (value == null || value.isBlank() || value.equals("null")) {
+            return null;
+        }
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Set<String> grams(String text) {
+        var grams = new LinkedHashSet<String>();
+        if (text == null) {
+            return grams;
+        }
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private static long[] sorted(List<Long> ids) {
+        long[] sorted = ids.stream().mapToLong(Long::longValue).distinct().toArray();
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    static long[] union(long[] ids, long[] added) {
+        int at = Arrays.binarySearch(ids, added[0]);
+        if (at >= 0) {
+            return ids;
+        }
+        int insert = -at - 1;
+        long[] copy = new long[ids.length + 1];
+        System.arraycopy(ids, 0, copy, 0, insert);
+        copy[insert] = added[0];
+        System.arraycopy(ids, insert, copy, insert + 1, ids.length - insert);
+        return copy;
+    }
+
+    static long[] without(long[] ids, long id) {
+        int at = Arrays.binarySearch(ids, id);
+        if (at < 0) {
+            return ids;
+        }
+        if (ids.length == 1) {
+            return null;
+        }
+        long[] copy = new long[ids.length - 1];
+        System.arraycopy(ids, 0, copy, 0, at);
+        System.arraycopy(ids, at + 1, copy, at, ids.length - at - 1);
+        return copy;
+    }
+
+    static long[] intersect(long[] a, long[] b) {
+        long[] out = new long[Math.min(a.length, b.length)];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+}
@@ -1,53 +1,64 @@
 package com.project.back_end.services;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.project.back_end.DTO.Login;
-import com.project.back_end.models.Appointment;
 import com.project.back_end.models.Doctor;
-import com.project.back_end.repo.AppointmentRepository;
 import com.project.back_end.repo.DoctorRepository;
+import io.micrometer.core.annotation.Timed;
 import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
 @Service
+@Timed("service")
 public class DoctorService {
     private DoctorRepository doctorRepository;
-    private AppointmentRepository appointmentRepository;
     private TokenService tokenService;
+    private CredentialService credentialService;
+    private AvailabilityService availabilityService;
+    private DoctorSearchIndex doctorSearchIndex;
+    private DoctorCache doctorCache;
+    private DoctorRemovalService doctorRemovalService;
+    private ObjectMapper objectMapper;
 
-    public DoctorService(DoctorRepository doctorRepository, AppointmentRepository appointmentRepository, TokenService tokenService) {
+    @Value("${doctor.page.default-size:50}")
+    private int defaultPageSize;
+
+    @Value("${doctor.page.max-size:500}")
+    private int maxPageSize;
+
+    public DoctorService(DoctorRepository doctorRepository, TokenService tokenService, CredentialService credentialService, AvailabilityService availabilityService, DoctorSearchIndex doctorSearchIndex, DoctorCache doctorCache, DoctorRemovalService doctorRemovalService, ObjectMapper objectMapper) {
         this.doctorRepository = doctorRepository;
-        this.appointmentRepository = appointmentRepository;
         this.tokenService = tokenService;
+        this.credentialService = credentialService;
+        this.availabilityService = availabilityService;
+        this.doctorSearchIndex = doctorSearchIndex;
+        this.doctorCache = doctorCache;
+        this.doctorRemovalService = doctorRemovalService;
+        this.objectMapper = objectMapper;
     }
 
-    @Transactional
     public List<String> getDoctorAvailability(Long doctorId, LocalDate date) {
-        LocalDateTime startOfDay = date.atStartOfDay();
-        LocalDateTime endOfDay = startOfDay.plusHours(23);
-        var result = doctorRepository.findById(doctorId);
-        if (result.isEmpty()) {
-            throw new RuntimeException("Invalid doctor ID.");
-        }
-        Doctor doctor = result.get();
-        List<String> doctorTimes = doctor.getAvailableTimes();
-        List<Appointment> appointments = appointmentRepository.findByDoctorIdAndAppointmentTimeBetween(doctorId, startOfDay, endOfDay);
-        if (appointments.isEmpty()) {
-            return doctorTimes;
-        }
+        return availabilityService.getAvailableTimes(doctorId, date);
+    }
 
-        return doctorTimes
-                .stream()
-                .filter(time -> appointments.stream().anyMatch(apt -> apt.getAppointmentTime().toString().equals(time)))
-                .toList();
+    public Map<LocalDate, List<String>> getDoctorAvailability(Long doctorId, LocalDate from, LocalDate to) {
+        return availabilityService.getAvailableTimes(doctorId, from, to);
     }
 
     @Transactional
@@ -56,7 +67,11 @@ public class DoctorService {
             if (doctorRepository.findByEmail(doctor.getEmail()) != null) {
                 return -1;
             }
+            doctor.setPassword(credentialService.encode(doctor.getPassword()));
             doctorRepository.save(doctor);
+            availabilityService.doctorChanged(doctor.getId(), doctor.getAvailableTimes());
+            Transactions.afterCommit(() -> doctorSearchIndex.index(doctor));
+            Transactions.afterCommit(() -> doctorCache.evict(doctor));
         } catch (Exception e) {
             return 0;
         }
@@ -71,7 +86,14 @@ public class DoctorService {
             if (existingDoctor.isEmpty()) {
                 return -1;
             }
+            // Passwords are never sent to clients, so an update without one keeps the stored hash
+            doctor.setPassword(doctor.getPassword() == null
+                    ? existingDoctor.get().getPassword()
+                    : credentialService.encode(doctor.getPassword()));
             doctorRepository.save(doctor);
+            availabilityService.doctorChanged(doctor.getId(), doctor.getAvailableTimes());
+            Transactions.afterCommit(() -> doctorSearchIndex.index(doctor));
+            Transactions.afterCommit(() -> doctorCache.evict(doctor));
         } catch (RuntimeException e) {
             return 0;
         }
@@ -79,20 +101,71 @@ public class DoctorService {
         return 1;
     }
 
-    @Transactional
     public List<Doctor> getDoctors() {
-        return doctorRepository.findAll();
+        return doctorCache.findAll();
     }
 
-    @Transactional
+    /**
+     * Returns up to {@code size} doctors with an id greater than {@code after}, ordered by id,
+     * under "doctors", and the id to pass as {@code after} for the next page under "next"
+     * (null on the last page). Seeking on the primary key keeps every page an index range scan,
+     * and the available times of the whole page are fetched in one query.
+     */
+    public Map<String, Object> getDoctorPage(Long after, Integer size) {
+        var message = new HashMap<String, Object>();
+        int pageSize = size == null || size <= 0 ? defaultPageSize : Math.min(size, maxPageSize);
+
+        List<Doctor> doctors = fetchPage(after == null ? 0L : after, pageSize);
+        message.put("doctors", doctors);
+        message.put("next", doctors.size() < pageSize ? null : doctors.get(doctors.size() - 1).getId());
+
+        return message;
+    }
+
+    /**
+     * Writes every doctor to {@code out} as one JSON array, a page at a time, flushing after each
+     * page. Each page is read in its own short transaction and dropped once written, so memory
+     * use does not grow with the size of the directory.
+     */
+    public void streamDoctors(OutputStream out) throws IOException {
+        try (JsonGenerator generator = objectMapper.createGenerator(out)) {
+            generator.writeStartArray();
+            long after = 0L;
+            List<Doctor> doctors;
+            do {
+                doctors = fetchPage(after, maxPageSize);
+                for (Doctor doctor : doctors) {
+                    generator.writeObject(doctor);
+                    after = doctor.getId();
+                }
+                generator.flush();
+            } while (doctors.size() == maxPageSize);
+            generator.writeEndArray();
+        }
+    }
+
+    public Map<String, Object> getCacheStats() {
+        return doctorCache.stats();
+    }
+
+    private List<Doctor> fetchPage(long after, int pageSize) {
+        List<Long> ids = doctorRepository.findIdsAfter(after, Limit.of(pageSize));
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return doctorRepository.findAllWithAvailableTimesByIdIn(ids);
+    }
+
+    /**
+     * Removes the doctor through {@link DoctorRemovalService}, archiving their appointments in
+     * chunks. Returns -1 if there is no such doctor and 0 if the removal stopped part way; calling
+     * again resumes it.
+     */
     public int deleteDoctor(long id) {
         try {
-            Optional<Doctor> doctor = doctorRepository.findById(id);
-            if (doctor.isEmpty()) {
+            if (doctorRemovalService.remove(id) == null) {
                 return -1;
             }
-            appointmentRepository.deleteAllByDoctorId(id);
-            doctorRepository.deleteById(id);
         } catch (RuntimeException e) {
             return 0;
         }
@@ -100,29 +173,48 @@ public class DoctorService {
         return 1;
     }
 
-    public ResponseEntity<Map<String, String>> validateDoctor(Login login) {
+    /**
+     * Checks the login on the {@link CredentialService} hashing pool and completes there, so the
+     * request thread is released while the hash is computed. Answers 503 with Retry-After when
+     * the pool's queue is full. A doctor whose stored password is outdated gets the new hash.
+     */
+    public CompletableFuture<ResponseEntity<Map<String, String>>> validateDoctor(Login login) {
         var message = new HashMap<String, String>();
 
-        Doctor doctor = doctorRepository.findByEmail(login.getEmail());
-        if (doctor == null) {
-            message.put("error", "Invalid _email_ or password");
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(message);
-        }
-
-        if (!doctor.getPassword().equals(login.getPassword())) {
-            message.put("error", "Invalid email or _password_");
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(message);
+        Doctor doctor = doctorCache.findByEmail(login.getEmail());
+        CompletableFuture<Boolean> verified;
+        try {
+            verified = credentialService.verify(doctor == null ? null : doctor.getPassword(), login.getPassword(),
+                    hash -> {
+                        doctorRepository.updatePassword(doctor.getId(), hash);
+                        doctorCache.evict(doctor);
+                    });
+        } catch (RejectedExecutionException e) {
+            message.put("error", "Too many login attempts, try again shortly");
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(message));
         }
 
-        message.put("token", tokenService.generateToken(login.getEmail()));
+        return verified.thenApply(matches -> {
+            if (doctor == null) {
+                message.put("error", "Invalid _email_ or password");
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(message);
+            }
+            if (!matches) {
+                message.put("error", "Invalid email or _password_");
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(message);
+            }
 
-        return ResponseEntity.ok().body(message);
+            message.put("token", tokenService.generateToken(doctor.getEmail(), "doctor", doctor.getId()));
+            return ResponseEntity.ok().body(message);
+        });
     }
 
     public Map<String, Object> findDoctorByName(String name) {
         var message = new HashMap<String, Object>();
 
-        var doctors = doctorRepository.findByNameLike(name);
+        var doctors = doctorSearchIndex.search(name, null, null);
         message.put("doctors", doctors);
 
         return message;
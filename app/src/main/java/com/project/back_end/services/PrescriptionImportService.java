@@ -0,0 +1,163 @@
+package com.project.back_end.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import com.project.back_end.DTO.ImportReport;
+import com.project.back_end.config.ReplicaRouting;
+import com.project.back_end.models.Prescription;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Bulk ingestion of prescriptions from NDJSON, one document per line.
+ * <p>
+ * The input is read line by line, so only one batch is held in memory. Each line is parsed
+ * and validated against the constraints on {@link Prescription}. Valid documents are written
+ * with unordered bulk inserts of {@code prescription.import.batch-size} documents, so one bad
+ * document does not stop the rest of its batch. Lines that fail parsing, validation or the
+ * insert are reported with their line number. Documents without {@code issuedAt} are stamped
+ * with the time the import started.
+ * <p>
+ * As in {@link PrescriptionService#savePrescription}, the patient is taken from the appointment
+ * rather than the document, with one lookup per batch in either {@link AppointmentTiers} table.
+ * Lines whose appointment does not exist are reported and skipped.
+ */
+@Service
+public class PrescriptionImportService {
+    private static final Logger log = LoggerFactory.getLogger(PrescriptionImportService.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final AppointmentTiers appointmentTiers;
+
+    @Value("${prescription.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${prescription.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    public PrescriptionImportService(MongoTemplate mongoTemplate, ObjectMapper objectMapper, Validator validator,
+                                     AppointmentTiers appointmentTiers) {
+        this.mongoTemplate = mongoTemplate;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.appointmentTiers = appointmentTiers;
+    }
+
+    public ImportReport importNdjson(InputStream input) throws IOException {
+        return importNdjson(input, report -> log.info("Prescription import progress: {}", report));
+    }
+
+    /**
+     * Imports every line of {@code input}, calling {@code progress} after each batch is written.
+     */
+    public ImportReport importNdjson(InputStream input, Consumer<ImportReport> progress) throws IOException {
+        var report = new ImportReport(maxReportedErrors);
+        var batch = new ArrayList<Prescription>(batchSize);
+        var lines = new ArrayList<Long>(batchSize);
+        var importedAt = LocalDateTime.now();
+
+        try (var reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                report.recordRead();
+
+                Prescription prescription;
+                try {
+                    prescription = objectMapper.readValue(line, Prescription.class);
+                } catch (JsonProcessingException e) {
+                    report.recordFailure(lineNumber, "unreadable JSON: " + e.getOriginalMessage());
+                    continue;
+                }
+                Set<ConstraintViolation<Prescription>> violations = validator.validate(prescription);
+                if (!violations.isEmpty()) {
+                    report.recordFailure(lineNumber, violations.stream()
+                            .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                            .sorted()
+                            .collect(Collectors.joining(", ")));
+                    continue;
+                }
+                if (prescription.getIssuedAt() == null) {
+                    prescription.setIssuedAt(importedAt);
+                }
+
+                batch.add(prescription);
+                lines.add(lineNumber);
+                if (batch.size() == batchSize) {
+                    insert(batch, lines, report);
+                    progress.accept(report);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            insert(batch, lines, report);
+            progress.accept(report);
+        }
+
+        return report;
+    }
+
+    private void insert(List<Prescription> batch, List<Long> lines, ImportReport report) {
+        // From the primary, since the appointments may have been booked moments ago
+        Map<Long, Long> patientIds = ReplicaRouting.onPrimary(() ->
+                appointmentTiers.findPatientIds(batch.stream().map(Prescription::getAppointmentId).toList()));
+        var documents = new ArrayList<Prescription>(batch.size());
+        var documentLines = new ArrayList<Long>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            Prescription prescription = batch.get(i);
+            Long patientId = patientIds.get(prescription.getAppointmentId());
+            if (patientId == null) {
+                report.recordFailure(lines.get(i), "no appointment with id " + prescription.getAppointmentId());
+                continue;
+            }
+            prescription.setPatientId(patientId);
+            documents.add(prescription);
+            documentLines.add(lines.get(i));
+        }
+
+        if (documents.isEmpty()) {
+            report.recordBatch(0);
+        } else {
+            try {
+                var result = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Prescription.class)
+                        .insert(documents)
+                        .execute();
+                report.recordBatch(result.getInsertedCount());
+            } catch (BulkOperationException e) {
+                report.recordBatch(e.getResult().getInsertedCount());
+                for (BulkWriteError error : e.getErrors()) {
+                    report.recordFailure(documentLines.get(error.getIndex()), error.getMessage());
+                }
+            }
+        }
+        batch.clear();
+        lines.clear();
+    }
+}
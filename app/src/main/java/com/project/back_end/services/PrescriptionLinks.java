@@ -0,0 +1,56 @@
+package com.project.back_end.services;
+
+import com.project.back_end.models.AppointmentEvent;
+import com.project.back_end.models.Prescription;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Keeps prescriptions in Mongo in step with the appointments they were issued for: when an
+ * appointment is cancelled, its prescriptions are flagged {@code appointmentCancelled}. The
+ * update is idempotent, so redelivered events are harmless. Prescriptions of a removed doctor
+ * are patient records and are kept; {@link DoctorRemovalService} flags them
+ * {@code appointmentArchived} through {@link #appointmentsArchived}.
+ */
+@Service
+@ConditionalOnProperty(name = "appointment.events.prescriptions.enabled", havingValue = "true", matchIfMissing = true)
+public class PrescriptionLinks implements AppointmentEventSubscriber {
+    private final MongoTemplate mongoTemplate;
+
+    public PrescriptionLinks(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public String name() {
+        return "prescriptions";
+    }
+
+    @Override
+    public void handle(List<AppointmentEvent> events) {
+        List<Long> cancelled = events.stream()
+                .filter(event -> event.getType() == AppointmentEvent.Type.CANCELLED)
+                .map(AppointmentEvent::getAppointmentId)
+                .toList();
+        if (cancelled.isEmpty()) {
+            return;
+        }
+        mongoTemplate.updateMulti(Query.query(Criteria.where("appointmentId").in(cancelled)),
+                Update.update("appointmentCancelled", true), Prescription.class);
+    }
+
+    /**
+     * Flags the prescriptions of appointments moved to the archive and returns how many were
+     * updated. Safe to repeat.
+     */
+    public long appointmentsArchived(List<Long> appointmentIds) {
+        return mongoTemplate.updateMulti(Query.query(Criteria.where("appointmentId").in(appointmentIds)),
+                Update.update("appointmentArchived", true), Prescription.class).getModifiedCount();
+    }
+}
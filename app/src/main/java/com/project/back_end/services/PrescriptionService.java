@@ -1,8 +1,42 @@
 package com.project.back_end.services;
 
+import com.project.back_end.config.ReplicaRouting;
+import com.project.back_end.models.Prescription;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.ReactivePrescriptionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Prescription reads and writes on the reactive MongoDB driver. Nothing here blocks: the
+ * controller hands the returned publishers to Spring MVC, which releases the servlet thread
+ * until Mongo answers, so a slow Mongo node cannot starve the MySQL-backed endpoints. The one
+ * MySQL lookup, the patient of the appointment being prescribed for, runs on the bounded
+ * elastic scheduler.
+ */
+@Service
 public class PrescriptionService {
-    
- // 1. **Add @Service Annotation**:
+    private static final Logger log = LoggerFactory.getLogger(PrescriptionService.class);
+
+    private final ReactivePrescriptionRepository prescriptionRepository;
+    private final AppointmentRepository appointmentRepository;
+
+    public PrescriptionService(ReactivePrescriptionRepository prescriptionRepository, AppointmentRepository appointmentRepository) {
+        this.prescriptionRepository = prescriptionRepository;
+        this.appointmentRepository = appointmentRepository;
+    }
+
+// 1. **Add @Service Annotation**:
 //    - The `@Service` annotation marks this class as a Spring service component, allowing Spring's container to manage it.
 //    - This class contains the business logic related to managing prescriptions in the healthcare system.
 //    - Instruction: Ensure the `@Service` annotation is applied to mark this class as a Spring-managed service.
@@ -14,16 +48,67 @@ public class PrescriptionService {
 
 // 3. **savePrescription Method**:
 //    - This method saves a new prescription to the database.
-//    - Before saving, it checks if a prescription already exists for the same appointment (using the appointment ID).
-//    - If a prescription exists, it returns a `400 Bad Request` with a message stating the prescription already exists.
-//    - If no prescription exists, it saves the new prescription and returns a `201 Created` status with a success message.
+//    - The patient is taken from the appointment, whatever the request body says; an unknown appointment is a `400 Bad Request`.
+//    - The unique `appointment_unique` index allows one prescription per appointment. A second one is rejected by Mongo
+//      and returned as `409 Conflict`, so two concurrent requests cannot both save.
+//    - Otherwise it saves the new prescription and returns a `201 Created` status with a success message.
 //    - Instruction: Handle errors by providing appropriate status codes and messages, ensuring that multiple prescriptions for the same appointment are not saved.
+    public Mono<ResponseEntity<Map<String, String>>> savePrescription(Prescription prescription) {
+        if (prescription.getIssuedAt() == null) {
+            prescription.setIssuedAt(LocalDateTime.now());
+        }
+        Long appointmentId = prescription.getAppointmentId();
+        return Mono.fromCallable(() -> ReplicaRouting.onPrimary(() -> appointmentRepository.findPatientIdById(appointmentId)))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(patientId -> {
+                    if (patientId.isEmpty()) {
+                        return Mono.just(ResponseEntity.badRequest()
+                                .body(Map.of("message", "No appointment found for this prescription")));
+                    }
+                    prescription.setPatientId(patientId.get());
+                    return prescriptionRepository.save(prescription)
+                            .map(saved -> ResponseEntity.status(HttpStatus.CREATED)
+                                    .body(Map.of("message", "Prescription saved")));
+                })
+                .onErrorResume(DuplicateKeyException.class, e -> Mono.just(ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body(Map.of("message", "Prescription already exists for this appointment"))))
+                .onErrorResume(e -> {
+                    log.error("Could not save prescription for appointment {}", prescription.getAppointmentId(), e);
+                    return Mono.just(ResponseEntity.internalServerError()
+                            .body(Map.of("message", "Internal server error")));
+                });
+    }
 
 // 4. **getPrescription Method**:
 //    - Retrieves a prescription associated with a specific appointment based on the `appointmentId`.
 //    - If a prescription is found, it returns it within a map wrapped in a `200 OK` status.
 //    - If there is an error while fetching the prescription, it logs the error and returns a `500 Internal Server Error` status with an error message.
 //    - Instruction: Ensure that this method handles edge cases, such as no prescriptions found for the given appointment, by returning meaningful responses.
+    public Mono<ResponseEntity<Map<String, Object>>> getPrescription(Long appointmentId) {
+        return prescriptionRepository.findByAppointmentId(appointmentId)
+                .collectList()
+                .map(prescriptions -> {
+                    if (prescriptions.isEmpty()) {
+                        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                                .body(Map.<String, Object>of("message", "No prescription found for this appointment"));
+                    }
+                    return ResponseEntity.ok(Map.<String, Object>of("prescription", prescriptions));
+                })
+                .onErrorResume(e -> {
+                    log.error("Could not fetch prescription for appointment {}", appointmentId, e);
+                    return Mono.just(ResponseEntity.internalServerError()
+                            .body(Map.of("message", "Internal server error")));
+                });
+    }
+
+    /**
+     * Streams every prescription of a patient, newest first. Documents are pulled from the
+     * cursor only as fast as the subscriber requests them, so a long history is never held in
+     * memory.
+     */
+    public Flux<Prescription> getPrescriptionHistory(Long patientId) {
+        return prescriptionRepository.findByPatientIdOrderByIssuedAtDesc(patientId);
+    }
 
 // 5. **Exception Handling and Error Responses**:
 //    - Both methods (`savePrescription` and `getPrescription`) contain try-catch blocks to handle exceptions that may occur during database interaction.
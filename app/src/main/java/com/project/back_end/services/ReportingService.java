@@ -0,0 +1,285 @@
+package com.project.back_end.services;
+
+import com.project.back_end.DTO.DoctorActivity;
+import com.project.back_end.models.AppointmentEvent;
+import com.project.back_end.models.ReportCounter;
+import com.project.back_end.models.ReportPeriod;
+import com.project.back_end.repo.AppointmentEventRepository;
+import com.project.back_end.repo.ReportCounterRepository;
+import com.project.back_end.repo.ReportVisitRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Per-doctor appointment and distinct-patient counts by day, month and year, replacing the
+ * stored procedures in procedures.md, which ran {@code DATE()}, {@code MONTH()} and {@code YEAR()}
+ * over every appointment.
+ * <p>
+ * Appointment changes arrive from the outbox as {@link AppointmentEvent}s, after the booking
+ * request has committed. {@link #handle} applies them in the transaction that removes them from
+ * the outbox, so each is counted exactly once. Each change is a handful of upserts on
+ * {@code report_counter} and {@code report_visit}. Reports read one index range of
+ * {@code report_counter} and never touch {@code appointment}, and trail the bookings by the
+ * dispatcher's delay.
+ * <p>
+ * {@link #reconcile} recounts a period from both {@link AppointmentTiers} and rewrites it when the
+ * counters have drifted, for example after rows were edited by hand.
+ */
+@Service
+public class ReportingService implements AppointmentEventSubscriber {
+    private static final Logger log = LoggerFactory.getLogger(ReportingService.class);
+    private static final String SUBSCRIBER = "reporting";
+
+    private final ReportCounterRepository counterRepository;
+    private final ReportVisitRepository visitRepository;
+    private final AppointmentTiers appointmentTiers;
+    private final AppointmentEventRepository eventRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${reporting.reconcile.months-back:1}")
+    private int monthsBack;
+
+    @Value("${reporting.reconcile.months-ahead:3}")
+    private int monthsAhead;
+
+    public ReportingService(ReportCounterRepository counterRepository, ReportVisitRepository visitRepository,
+                            AppointmentTiers appointmentTiers, AppointmentEventRepository eventRepository,
+                            TransactionTemplate transactionTemplate) {
+        this.counterRepository = counterRepository;
+        this.visitRepository = visitRepository;
+        this.appointmentTiers = appointmentTiers;
+        this.eventRepository = eventRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public String name() {
+        return SUBSCRIBER;
+    }
+
+    @Override
+    @Transactional
+    public void handle(List<AppointmentEvent> events) {
+        for (AppointmentEvent event : events) {
+            switch (event.getType()) {
+                case BOOKED -> booked(event.getDoctorId(), event.getPatientId(), event.getAppointmentTime());
+                case MOVED -> moved(event.getDoctorId(), event.getPatientId(), event.getPreviousTime(), event.getAppointmentTime());
+                case CANCELLED -> cancelled(event.getDoctorId(), event.getPatientId(), event.getAppointmentTime());
+                case DOCTOR_REMOVED -> doctorRemoved(event.getDoctorId());
+            }
+        }
+    }
+
+    @Transactional
+    public void booked(Long doctorId, Long patientId, LocalDateTime time) {
+        for (ReportPeriod period : ReportPeriod.values()) {
+            LocalDate start = period.start(time.toLocalDate());
+            visitRepository.add(doctorId, period.name(), start, patientId, 1);
+            boolean firstVisit = Long.valueOf(1).equals(visitRepository.findVisits(doctorId, period, start, patientId));
+            counterRepository.add(doctorId, period.name(), start, 1, firstVisit ? 1 : 0);
+        }
+    }
+
+    @Transactional
+    public void cancelled(Long doctorId, Long patientId, LocalDateTime time) {
+        for (ReportPeriod period : ReportPeriod.values()) {
+            LocalDate start = period.start(time.toLocalDate());
+            visitRepository.add(doctorId, period.name(), start, patientId, -1);
+            boolean lastVisit = visitRepository.deleteIfEmpty(doctorId, period, start, patientId) > 0;
+            counterRepository.add(doctorId, period.name(), start, -1, lastVisit ? -1 : 0);
+        }
+    }
+
+    /**
+     * Counts appointments that were inserted without an outbox event, such as imported ones, in
+     * the caller's transaction, so they are counted if and only if the insert commits. The
+     * appointments are grouped first, so each doctor, period and patient costs one visit upsert
+     * and each doctor and period one counter upsert, however many appointments they have. The
+     * upserts are made in key order, so concurrent imports lock the rows in the same order.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void bookedAll(List<Booked> appointments) {
+        var visits = new TreeMap<VisitKey, Long>(VisitKey.ORDER);
+        for (Booked appointment : appointments) {
+            for (ReportPeriod period : ReportPeriod.values()) {
+                var key = new VisitKey(appointment.doctorId(), period, period.start(appointment.time().toLocalDate()), appointment.patientId());
+                visits.merge(key, 1L, Long::sum);
+            }
+        }
+
+        var counters = new TreeMap<VisitKey, long[]>(VisitKey.ORDER);
+        visits.forEach((key, count) -> {
+            visitRepository.add(key.doctorId(), key.period().name(), key.start(), key.patientId(), count);
+            boolean firstVisit = count.equals(visitRepository.findVisits(key.doctorId(), key.period(), key.start(), key.patientId()));
+            long[] counter = counters.computeIfAbsent(new VisitKey(key.doctorId(), key.period(), key.start(), null), k -> new long[2]);
+            counter[0] += count;
+            counter[1] += firstVisit ? 1 : 0;
+        });
+        counters.forEach((key, counter) -> counterRepository.add(key.doctorId(), key.period().name(), key.start(), counter[0], counter[1]));
+    }
+
+    public record Booked(Long doctorId, Long patientId, LocalDateTime time) {
+    }
+
+    // A patient's visits to a doctor in one period, or with no patient that doctor's counter
+    private record VisitKey(Long doctorId, ReportPeriod period, LocalDate start, Long patientId) {
+        static final Comparator<VisitKey> ORDER = Comparator.comparing(VisitKey::doctorId)
+                .thenComparing(VisitKey::period)
+                .thenComparing(VisitKey::start)
+                .thenComparing(VisitKey::patientId, Comparator.nullsFirst(Comparator.naturalOrder()));
+    }
+
+    @Transactional
+    public void moved(Long doctorId, Long patientId, LocalDateTime from, LocalDateTime to) {
+        cancelled(doctorId, patientId, from);
+        booked(doctorId, patientId, to);
+    }
+
+    @Transactional
+    public void doctorRemoved(Long doctorId) {
+        counterRepository.deleteByDoctorId(doctorId);
+        visitRepository.deleteByDoctorId(doctorId);
+    }
+
+    /**
+     * Every doctor with appointments on {@code date}, ordered by name.
+     */
+    @Transactional(readOnly = true)
+    public List<DoctorActivity> getDailyReport(LocalDate date) {
+        return counterRepository.findActivity(ReportPeriod.DAY, date);
+    }
+
+    /**
+     * The {@code top} doctors with the most appointments in the month, most first.
+     */
+    @Transactional(readOnly = true)
+    public List<DoctorActivity> getMonthlyReport(YearMonth month, int top) {
+        return counterRepository.findTopActivity(ReportPeriod.MONTH, month.atDay(1), Limit.of(top));
+    }
+
+    /**
+     * The {@code top} doctors with the most appointments in the year, most first.
+     */
+    @Transactional(readOnly = true)
+    public List<DoctorActivity> getYearlyReport(int year, int top) {
+        return counterRepository.findTopActivity(ReportPeriod.YEAR, LocalDate.of(year, 1, 1), Limit.of(top));
+    }
+
+    /**
+     * Reconciles every day and month from {@code reporting.reconcile.months-back} months ago to
+     * {@code reporting.reconcile.months-ahead} months ahead, and the years they fall in.
+     * Returns the number of periods that had to be rewritten.
+     */
+    @Scheduled(cron = "${reporting.reconcile.cron:0 30 3 * * *}")
+    public int reconcileRecent() {
+        YearMonth current = YearMonth.now();
+        var years = new LinkedHashSet<Integer>();
+        int repaired = 0;
+        for (YearMonth month = current.minusMonths(monthsBack); !month.isAfter(current.plusMonths(monthsAhead)); month = month.plusMonths(1)) {
+            for (LocalDate day = month.atDay(1); !day.isAfter(month.atEndOfMonth()); day = day.plusDays(1)) {
+                repaired += reconcile(ReportPeriod.DAY, day) ? 1 : 0;
+            }
+            repaired += reconcile(ReportPeriod.MONTH, month.atDay(1)) ? 1 : 0;
+            years.add(month.getYear());
+        }
+        for (int year : years) {
+            repaired += reconcile(ReportPeriod.YEAR, LocalDate.of(year, 1, 1)) ? 1 : 0;
+        }
+        log.info("Report reconciliation rewrote {} periods", repaired);
+        return repaired;
+    }
+
+    /**
+     * Compares the counters of one period with a recount of the appointments and rewrites the
+     * period's counters and visits if they differ, in one transaction per period. Returns whether
+     * anything was rewritten.
+     * <p>
+     * The period's visits and counters are locked first, in the order event delivery writes them,
+     * so no event touching the period is counted until the rewrite commits. The recount and the
+     * events still waiting in the outbox are then read from one snapshot. Those events' changes
+     * are in the recount but not yet in the counters, so they are taken back out of it, and
+     * delivering them later adds them on top of the rewritten counters. Parked events will never
+     * be delivered, so the recount keeps their changes and repairs the counters they missed.
+     */
+    public boolean reconcile(ReportPeriod period, LocalDate start) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> rewriteIfDrifted(period, start)));
+    }
+
+    private boolean rewriteIfDrifted(ReportPeriod period, LocalDate start) {
+        // Locking reads do not start MySQL's repeatable read snapshot, so it is taken by the recount, after the locks
+        visitRepository.lockByPeriod(period.name(), start);
+        List<ReportCounter> counters = counterRepository.lockByPeriod(period, start);
+        LocalDateTime from = start.atStartOfDay();
+        LocalDateTime to = period.next(start).atStartOfDay();
+
+        var visits = new HashMap<List<Long>, Long>();
+        for (Object[] row : appointmentTiers.countByDoctorAndPatientBetween(from, to)) {
+            visits.put(List.of((Long) row[0], (Long) row[1]), (Long) row[2]);
+        }
+        // Doctors being removed lose all their counters once the event is delivered
+        var removed = new HashSet<Long>();
+        for (AppointmentEvent event : eventRepository.findPendingBetween(SUBSCRIBER, from, to)) {
+            switch (event.getType()) {
+                case BOOKED -> uncount(visits, event, event.getAppointmentTime(), from, to, -1);
+                case CANCELLED -> uncount(visits, event, event.getAppointmentTime(), from, to, 1);
+                case MOVED -> {
+                    uncount(visits, event, event.getPreviousTime(), from, to, 1);
+                    uncount(visits, event, event.getAppointmentTime(), from, to, -1);
+                }
+                case DOCTOR_REMOVED -> removed.add(event.getDoctorId());
+            }
+        }
+        visits.values().removeIf(count -> count <= 0);
+
+        var expected = new HashMap<Long, List<Long>>();
+        visits.forEach((key, count) -> expected.merge(key.get(0), List.of(count, 1L),
+                (a, b) -> List.of(a.get(0) + b.get(0), a.get(1) + b.get(1))));
+        var stored = new HashMap<Long, List<Long>>();
+        for (ReportCounter counter : counters) {
+            if (counter.getAppointments() != 0 || counter.getUniquePatients() != 0) {
+                stored.put(counter.getDoctorId(), List.of(counter.getAppointments(), counter.getUniquePatients()));
+            }
+        }
+        expected.keySet().removeAll(removed);
+        stored.keySet().removeAll(removed);
+        if (expected.equals(stored)) {
+            return false;
+        }
+
+        log.warn("Report counters for {} {} drifted from the appointment table, rewriting them", period, start);
+        counterRepository.deleteByPeriod(period, start);
+        visitRepository.deleteByPeriod(period, start);
+        expected.forEach((doctorId, counts) -> counterRepository.add(doctorId, period.name(), start, counts.get(0), counts.get(1)));
+        visits.forEach((key, count) -> {
+            if (!removed.contains(key.get(0))) {
+                visitRepository.add(key.get(0), period.name(), start, key.get(1), count);
+            }
+        });
+        return true;
+    }
+
+    private static void uncount(Map<List<Long>, Long> visits, AppointmentEvent event, LocalDateTime time,
+                                LocalDateTime from, LocalDateTime to, long change) {
+        if (!time.isBefore(from) && time.isBefore(to)) {
+            visits.merge(List.of(event.getDoctorId(), event.getPatientId()), change, Long::sum);
+        }
+    }
+}
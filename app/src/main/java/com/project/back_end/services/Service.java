@@ -1,8 +1,15 @@
 package com.project.back_end.services;
 
+import com.project.back_end.models.Appointment;
+
+import java.util.HashMap;
+import java.util.Map;
+
 @org.springframework.stereotype.Service
 public class Service {
     private TokenService tokenService;
+    private AvailabilityService availabilityService;
+    private DoctorSearchIndex doctorSearchIndex;
 // 1. **@Service Annotation**
 // The @Service annotation marks this class as a service component in Spring. This allows Spring to automatically detect it through component scanning
 // and manage its lifecycle, enabling it to be injected into controllers or other services using @Autowired or constructor injection.
@@ -10,14 +17,25 @@ public class Service {
 // 2. **Constructor Injection for Dependencies**
 // The constructor injects all required dependencies (TokenService, Repositories, and other Services). This approach promotes loose coupling, improves testability,
 // and ensures that all required dependencies are provided at object creation time.
-    public Service(TokenService tokenService) {
+    public Service(TokenService tokenService, AvailabilityService availabilityService, DoctorSearchIndex doctorSearchIndex) {
         this.tokenService = tokenService;
+        this.availabilityService = availabilityService;
+        this.doctorSearchIndex = doctorSearchIndex;
     }
 
 // 3. **validateToken Method**
 // This method checks if the provided JWT token is valid for a specific user. It uses the TokenService to perform the validation.
 // If the token is invalid or expired, it returns a 401 Unauthorized response with an appropriate error message. This ensures security by preventing
 // unauthorized access to protected resources.
+    public boolean validateToken(String token, String role) {
+        return tokenService.validateToken(token, role);
+    }
+
+// **isSender Method**
+// This method checks that the token was issued to the user with the given ID, so patients can only book for themselves.
+    public boolean isSender(String token, Long userId) {
+        return userId != null && userId.equals(tokenService.extractUserId(token));
+    }
 
 // 4. **validateAdmin Method**
 // This method validates the login credentials for an admin user.
@@ -34,6 +52,12 @@ public class Service {
 // - It supports various combinations of the three filters.
 // - If none of the filters are provided, it returns all available doctors.
 // This flexible filtering mechanism allows the frontend or consumers of the API to search and narrow down doctors based on user criteria.
+// The lookup is served by the in-memory DoctorSearchIndex instead of `LIKE '%name%'` scans of the doctor table.
+    public Map<String, Object> filterDoctor(String name, String specialty, String time) {
+        var message = new HashMap<String, Object>();
+        message.put("doctors", doctorSearchIndex.search(name, specialty, time));
+        return message;
+    }
 
 // 6. **validateAppointment Method**
 // This method validates if the requested appointment time for a doctor is available.
@@ -44,6 +68,14 @@ public class Service {
 // - If no matching time slot is found, it returns 0 (invalid).
 // - If the doctor doesn’t exist, it returns -1.
 // This logic prevents overlapping or invalid appointment bookings.
+    public int validateAppointment(Appointment appointment, String role) {
+        Long doctorId = appointment.getDoctor().getId();
+        if (!availabilityService.isKnownDoctor(doctorId)) {
+            return -1;
+        }
+
+        return availabilityService.isAvailable(doctorId, appointment.getAppointmentTime()) ? 1 : 0;
+    }
 
 // 7. **validatePatient Method**
 // This method checks whether a patient with the same email or phone number already exists in the system.
@@ -1,54 +1,80 @@
 package com.project.back_end.services;
 
-import com.project.back_end.repo.AdminRepository;
-import com.project.back_end.repo.DoctorRepository;
-import com.project.back_end.repo.PatientRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.temporal.Temporal;
 import java.time.temporal.TemporalUnit;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
 @Component
+@Timed("service")
 public class TokenService {
-    private AdminRepository adminRepository;
-    private DoctorRepository doctorRepository;
-    private PatientRepository patientRepository;
+    public static final String ROLE_CLAIM = "role";
+    public static final String USER_ID_CLAIM = "uid";
 
     @Value("${jwt.secret}")
     private String jwtSecret;
 
-    public TokenService(AdminRepository adminRepository, DoctorRepository doctorRepository, PatientRepository patientRepository) {
-        this.adminRepository = adminRepository;
-        this.doctorRepository = doctorRepository;
-        this.patientRepository = patientRepository;
-    }
+    @Value("${jwt.cache.max-size:10000}")
+    private int cacheMaxSize;
+
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    // Verified claims keyed by the SHA-256 of the token, each expiring with its token
+    private Cache<ByteBuffer, Claims> verifiedClaims;
 
 
 // 3. **getSigningKey Method**
 // This method retrieves the HMAC SHA key used to sign JWT tokens.
 // It uses the `jwt.secret` value, which is provided from an external source (like application properties).
 // The `Keys.hmacShaKeyFor()` method converts the secret key string into a valid `SecretKey` for signing and verification of JWTs.
+// The key and the parser built on it are created once at startup and shared by every call.
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        parser = Jwts.parser().verifyWith(signingKey).build();
+        if (cacheMaxSize > 0) {
+            verifiedClaims = Caffeine.newBuilder()
+                    .maximumSize(cacheMaxSize)
+                    .expireAfter(new TokenExpiry())
+                    .build();
+        }
+    }
+
     public SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        return signingKey;
     }
 
 // 4. **generateToken Method**
 // This method generates a JWT token for a user based on their email.
 // - The `subject` of the token is set to the user's email, which is used as an identifier.
+// - The `role` and `uid` claims carry the user's role and numeric id, so validation needs no repository lookup.
 // - The `issuedAt` is set to the current date and time.
 // - The `expiration` is set to 7 days from the issue date, ensuring the token expires after one week.
 // - The token is signed using the signing key generated by `getSigningKey()`, making it secure and tamper-proof.
 // The method returns the JWT token as a string.
-    public String generateToken(String email) {
+    public String generateToken(String email, String role, Long userId) {
         return Jwts.builder()
                 .subject(email)
+                .claim(ROLE_CLAIM, role)
+                .claim(USER_ID_CLAIM, userId)
                 .issuedAt(Date.from(Instant.now()))
                 .expiration(Date.from(Instant.now().plusSeconds(7 * 24 * 60 * 60)))
                 .signWith(getSigningKey())
@@ -61,34 +87,72 @@ public class TokenService {
 // - After verification, the token is parsed, and the subject (which represents the email) is extracted.
 // This method allows the application to retrieve the user's identity (email) from the token for further use.
     public String extractEmail(String token) {
-        var verifier = Jwts.parser().verifyWith(getSigningKey()).build();
-        if (!verifier.isSigned(token)) {
-            throw new RuntimeException("Invalid JWT token");
+        return verify(token).getSubject();
+    }
+
+    public Long extractUserId(String token) {
+        return verify(token).get(USER_ID_CLAIM, Long.class);
+    }
+
+// Verifies the token once and serves later calls for the same token from the cache until it expires.
+// The cache holds at most `jwt.cache.max-size` tokens, evicting the least used ones when full;
+// tokens without an expiry are never cached. Setting `jwt.cache.max-size` to 0 disables the cache.
+    public Claims verify(String token) {
+        if (verifiedClaims == null) {
+            return parser.parseSignedClaims(token).getPayload();
+        }
+        ByteBuffer key = hash(token);
+        Claims cached = verifiedClaims.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        if (claims.getExpiration() != null) {
+            verifiedClaims.put(key, claims);
+        }
+        return claims;
+    }
+
+    // An entry lives until its token's `exp`; reads and replacements do not extend it
+    private static final class TokenExpiry implements Expiry<ByteBuffer, Claims> {
+        @Override
+        public long expireAfterCreate(ByteBuffer key, Claims claims, long currentTime) {
+            long left = claims.getExpiration().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(left, 0));
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
         }
 
-        return verifier
-                .parseSignedClaims(token)
-                .getPayload()
-                .getSubject();
+        @Override
+        public long expireAfterRead(ByteBuffer key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    private static ByteBuffer hash(String token) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 
 // 6. **validateToken Method**
 // This method validates whether a provided JWT token is valid for a specific user role (admin, doctor, or patient).
-// - It first extracts the email from the token using the `extractEmail()` method.
-// - Depending on the role (`admin`, `doctor`, or `patient`), it checks the corresponding repository (AdminRepository, DoctorRepository, or PatientRepository)
-//   to see if a user with the extracted email exists.
-// - If a match is found for the specified user role, it returns true, indicating the token is valid.
-// - If the role or user does not exist, it returns false, indicating the token is invalid.
+// - The token is verified (or served from the verified-claims cache) using the signing key.
+// - The `role` claim written by `generateToken()` must match the requested role.
 // - The method gracefully handles any errors by returning false if the token is invalid or an exception occurs.
-// This ensures secure access control based on the user's role and their existence in the system.
+// No repository is consulted: the signature guarantees the role was issued at login, which keeps this a pure CPU check.
     public boolean validateToken(String token, String role) {
         try {
-            String email = extractEmail(token);
+            return role.equals(verify(token).get(ROLE_CLAIM, String.class));
         } catch (Exception e) {
             return false;
         }
-
-        return true;
     }
 
 }
@@ -1,11 +1,17 @@
 import { openModal } from './components/modals.js';
 import { getDoctors, filterDoctors, saveDoctor } from './services/doctorServices.js';
-import { createDoctorCard } from './components/doctorCard.js';
+import { createDoctorCard, bindDoctorCard } from './components/doctorCard.js';
 document.getElementById('addDocBtn').addEventListener('click', () => {
     openModal('addDoctor');
 });
 
 document.addEventListener("DOMContentLoaded", () => {
+    const contentDiv = document.getElementById("content");
+    // In production mode the server has already rendered the cards
+    if (contentDiv.dataset.prerendered === "true") {
+        contentDiv.querySelectorAll(".doctor-card").forEach(bindDoctorCard);
+        return;
+    }
     loadDoctorCards();
 });
 
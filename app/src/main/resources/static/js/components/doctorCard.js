@@ -2,6 +2,32 @@ import { showBookingOverlay } from "../loggedPatient.js";
 import { deleteDoctor } from "../services/doctorServices.js"
 import { getPatientData } from "../services/patientServices.js";
 
+// Wires up a card rendered by the server (templates/admin/doctorCards.html)
+export function bindDoctorCard(card) {
+	card.querySelector(".delete-doctor")
+		.addEventListener("click", () => removeDoctorCard(card, card.dataset.id, card.dataset.name));
+}
+
+async function removeDoctorCard(card, id, name) {
+	const confirmDelete = confirm(`Are you sure you want to delete ${name}?`);
+	if (!confirmDelete) return;
+
+	const token = localStorage.getItem("token");
+	if (!token) {
+		alert("Admin token not found. Please log in again.");
+		return;
+	}
+
+	const { success, message } = await deleteDoctor(id, token);
+
+	if (success) {
+		alert(message || "Doctor deleted successfully");
+		card.remove();
+	} else {
+		alert(message || "Failed to delete doctor");
+	}
+}
+
 export function createDoctorCard(doctor) {
 	const card = document.createElement("div");
 	card.classList.add("doctor-card");
@@ -34,26 +60,7 @@ export function createDoctorCard(doctor) {
 	if (role === "admin") {
 		const removeBtn = document.createElement("button");
 		removeBtn.textContent = "Delete";
-
-		removeBtn.addEventListener("click", async () => {
-			const confirmDelete = confirm(`Are you sure you want to delete ${doctor.name}?`);
-			if (!confirmDelete) return;
-
-			const token = localStorage.getItem("token");
-			if (!token) {
-				alert("Admin token not found. Please log in again.");
-				return;
-			}
-
-			const { success, message } = await deleteDoctor(doctor.id, token);
-
-			if (success) {
-				alert(message || "Doctor deleted successfully");
-				card.remove();
-			} else {
-				alert(message || "Failed to delete doctor");
-			}
-		});
+		removeBtn.addEventListener("click", () => removeDoctorCard(card, doctor.id, doctor.name));
 
 		actionsDiv.appendChild(removeBtn);
 	}
@@ -0,0 +1,51 @@
+package com.project.back_end.DTO;
+
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AppointmentDTOSerializerTest {
+    // Spring Boot's default: java.time values as ISO strings
+    private final ObjectMapper compact = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private final ObjectMapper bean = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .mixIn(AppointmentDTO.class, BeanSerialization.class)
+            .build();
+
+    @JsonSerialize(using = JsonSerializer.None.class)
+    private interface BeanSerialization {
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"2026-10-19T09:00", "2026-12-31T23:30:15", "2026-03-01T08:05:07.123456789", "0999-01-01T00:00"})
+    void writesWhatTheBeanSerializerWrote(String time) throws Exception {
+        var appointment = new AppointmentDTO(7L, 2L, 3L, "Dr. Adams", "Ann \"Nan\" Patient", "ann@example.com",
+                "5550100000", null, LocalDateTime.parse(time), 1);
+
+        // Property order is not part of the contract; the bean serializer orders derived getters by method
+        assertThat(compact.readTree(compact.writeValueAsString(appointment)))
+                .isEqualTo(bean.readTree(bean.writeValueAsString(appointment)));
+    }
+
+    @Test
+    void aListSharesTheBufferWithoutMixingTimes() throws Exception {
+        List<AppointmentDTO> appointments = List.of(
+                new AppointmentDTO(1L, 2L, 3L, "Dr. Adams", "Ann", null, null, null, LocalDateTime.parse("2026-10-19T09:00"), 1),
+                new AppointmentDTO(2L, 2L, 4L, "Dr. Adams", "Bob", null, null, null, LocalDateTime.parse("2027-01-02T16:00"), 1));
+
+        assertThat(compact.readTree(compact.writeValueAsString(appointments)))
+                .isEqualTo(bean.readTree(bean.writeValueAsString(appointments)));
+    }
+}
@@ -0,0 +1,56 @@
+package com.project.back_end;
+
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Valid, unsaved entities for the tests. Each test class that boots its own context names its
+ * H2 database with {@code test.database}, which the test {@code application.properties} puts
+ * into the datasource url.
+ */
+public final class TestData {
+    public static final String PASSWORD = "secret123";
+    public static final List<String> MORNING = List.of("09:00-10:00", "10:00-11:00", "11:00-12:00");
+
+    private TestData() {
+    }
+
+    public static Doctor doctor(String name, String email) {
+        return doctor(name, email, MORNING);
+    }
+
+    public static Doctor doctor(String name, String email, List<String> availableTimes) {
+        var doctor = new Doctor();
+        doctor.setName(name);
+        doctor.setSpecialty("Cardiologist");
+        doctor.setEmail(email);
+        doctor.setPassword(PASSWORD);
+        doctor.setPhone("5551012020");
+        doctor.setAvailableTimes(new ArrayList<>(availableTimes));
+        return doctor;
+    }
+
+    public static Patient patient(String name, String email) {
+        var patient = new Patient();
+        patient.setName(name);
+        patient.setEmail(email);
+        patient.setPassword(PASSWORD);
+        patient.setPhone("5550100000");
+        patient.setAddress("1 Test Street");
+        return patient;
+    }
+
+    public static Appointment appointment(Doctor doctor, Patient patient, LocalDateTime time) {
+        var appointment = new Appointment();
+        appointment.setDoctor(doctor);
+        appointment.setPatient(patient);
+        appointment.setAppointmentTime(time);
+        appointment.setStatus(0);
+        return appointment;
+    }
+}
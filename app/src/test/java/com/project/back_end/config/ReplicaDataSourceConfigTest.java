@@ -0,0 +1,145 @@
+package com.project.back_end.config;
+
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+import com.project.back_end.repo.AppointmentEventRepository;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.PatientRepository;
+import com.project.back_end.services.TokenService;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static com.project.back_end.TestData.doctor;
+import static com.project.back_end.TestData.patient;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "test.database=routing",
+        "datasource.replica.url=jdbc:h2:mem:routing_replica;${test.h2-options}",
+        "datasource.replica.read-your-writes=1m"})
+@AutoConfigureMockMvc
+class ReplicaDataSourceConfigTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private HikariDataSource primaryDataSource;
+    @Autowired
+    private HikariDataSource replicaDataSource;
+    @Autowired
+    private ReadYourWrites readYourWrites;
+    @Autowired
+    private TokenService tokenService;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private DoctorRepository doctorRepository;
+    @Autowired
+    private PatientRepository patientRepository;
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+    @Autowired
+    private AppointmentEventRepository eventRepository;
+
+    private TransactionTemplate readOnly;
+    private Doctor doctor;
+    private Patient patient;
+
+    @BeforeEach
+    void setUp() {
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        doctor = doctorRepository.save(doctor("Dr. Replica", "dr.replica@example.com"));
+        patient = patientRepository.save(patient("Ann Patient", "ann@example.com"));
+        replicate();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        appointmentRepository.deleteAll();
+        eventRepository.deleteAll();
+        doctorRepository.deleteAll();
+        patientRepository.deleteAll();
+    }
+
+    @Test
+    void readOnlyTransactionsReadTheReplica() {
+        doctorRepository.save(doctor("Dr. Lagging", "dr.lagging@example.com"));
+
+        assertThat(readOnlyDoctorCount()).isEqualTo(1);
+        assertThat(ReplicaRouting.onPrimary(this::readOnlyDoctorCount)).isEqualTo(2);
+        replicate();
+        assertThat(readOnlyDoctorCount()).isEqualTo(2);
+
+        assertThat(meterRegistry.find("hikaricp.connections.max").tag("pool", "primary").gauge()).isNotNull();
+        assertThat(meterRegistry.find("hikaricp.connections.max").tag("pool", "replica").gauge()).isNotNull();
+    }
+
+    @Test
+    void aPatientWhoJustBookedReadsTheBooking() throws Exception {
+        String patientToken = tokenService.generateToken(patient.getEmail(), "patient", patient.getId());
+        String doctorToken = tokenService.generateToken(doctor.getEmail(), "doctor", doctor.getId());
+        LocalDateTime time = LocalDateTime.now().plusDays(1).withHour(9).withMinute(0).withSecond(0).withNano(0);
+        mockMvc.perform(post("/appointments/" + patientToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"doctor\":{\"id\":" + doctor.getId() + "},\"patient\":{\"id\":" + patient.getId() + "},"
+                                + "\"appointmentTime\":\"" + time + "\",\"status\":0}"))
+                .andExpect(status().isCreated());
+
+        assertThat(appointmentsSeenBy(patientToken)).isEqualTo(1);
+        // Nobody else is held on the primary, and the replica has not caught up
+        assertThat(appointmentsSeenBy(doctorToken)).isZero();
+        replicate();
+        assertThat(appointmentsSeenBy(doctorToken)).isEqualTo(1);
+    }
+
+    private long readOnlyDoctorCount() {
+        Long count = readOnly.execute(status -> doctorRepository.count());
+        return count == null ? 0 : count;
+    }
+
+    private long appointmentsSeenBy(String token) {
+        var request = new MockHttpServletRequest();
+        request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, Map.of("token", token));
+        var response = new MockHttpServletResponse();
+        readYourWrites.preHandle(request, response, new Object());
+        try {
+            Long count = readOnly.execute(status -> appointmentRepository.count());
+            return count == null ? 0 : count;
+        } finally {
+            readYourWrites.afterCompletion(request, response, new Object(), null);
+        }
+    }
+
+    // Stands in for replication: copies the primary's schema and rows to the replica
+    private void replicate() {
+        var primary = new JdbcTemplate(primaryDataSource);
+        var replica = new JdbcTemplate(replicaDataSource);
+        List<String> script = primary.queryForList("SCRIPT", String.class);
+        replica.execute("SET AUTOCOMMIT TRUE");
+        replica.execute("DROP ALL OBJECTS");
+        script.forEach(replica::execute);
+    }
+}
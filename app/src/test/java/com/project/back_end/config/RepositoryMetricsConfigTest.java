@@ -0,0 +1,96 @@
+package com.project.back_end.config;
+
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.services.DoctorService;
+import com.project.back_end.services.TokenService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+
+import static com.project.back_end.TestData.doctor;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "test.database=metrics")
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+class RepositoryMetricsConfigTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private DoctorRepository doctorRepository;
+    @Autowired
+    private DoctorService doctorService;
+    @Autowired
+    private TokenService tokenService;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+        for (int i = 1; i <= 3; i++) {
+            doctorRepository.save(doctor("Dr. Metric" + i, "dr.metric" + i + "@example.com"));
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        doctorRepository.deleteAll();
+    }
+
+    @Test
+    void lazyLoadsOutsideRepositoriesAreCountedSeparately() {
+        double repository = statements("DoctorRepository");
+        double none = statements(RepositoryMetricsConfig.NONE);
+
+        transactionTemplate.executeWithoutResult(status ->
+                doctorRepository.findAll().forEach(doctor -> Hibernate.initialize(doctor.getAvailableTimes())));
+        assertThat(statements("DoctorRepository") - repository).isEqualTo(1);
+        assertThat(statements(RepositoryMetricsConfig.NONE) - none).isEqualTo(3);
+
+        transactionTemplate.executeWithoutResult(status -> doctorRepository.findAllWithAvailableTimes());
+        assertThat(statements("DoctorRepository") - repository).isEqualTo(2);
+        assertThat(statements(RepositoryMetricsConfig.NONE) - none).isEqualTo(3);
+    }
+
+    @Test
+    void serviceRepositoryAndHibernateMetricsAreExposed() throws Exception {
+        tokenService.validateToken(tokenService.generateToken("admin", "admin", 1L), "admin");
+        doctorService.getDoctors();
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(allOf(
+                        containsString("service_seconds_bucket{class=\"com.project.back_end.services.DoctorService\""),
+                        containsString("service_seconds_count{class=\"com.project.back_end.services.TokenService\""),
+                        containsString("spring_data_repository_invocations_seconds_bucket{"),
+                        containsString("repository_statements_total{repository=\"DoctorRepository\"}"),
+                        containsString("hibernate_statements_total{"))));
+
+        mockMvc.perform(get("/actuator/metrics/service").param("tag", "method:getDoctors"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.measurements[?(@.statistic == 'COUNT')].value").isNotEmpty());
+    }
+
+    private double statements(String repository) {
+        var counter = meterRegistry.find("repository.statements").tag("repository", repository).counter();
+        return counter == null ? 0 : counter.count();
+    }
+}
@@ -0,0 +1,35 @@
+package com.project.back_end.controllers;
+
+import com.project.back_end.services.DoctorService;
+import com.project.back_end.services.Service;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DoctorControllerTest {
+    private final DoctorService doctorService = mock(DoctorService.class);
+    private final Service service = mock(Service.class);
+    private final DoctorController controller = new DoctorController(doctorService, service);
+
+    @Test
+    void directoryExportsNeedAValidToken() throws Exception {
+        when(service.validateToken("valid", "patient")).thenReturn(true);
+        when(doctorService.getDoctorPage(null, 10)).thenReturn(Map.of("doctors", List.of()));
+
+        assertThat(controller.getDoctorPage("patient", "forged", null, 10).getStatusCode().value()).isEqualTo(401);
+        assertThat(controller.streamDoctors("patient", "forged").getStatusCode().value()).isEqualTo(401);
+        verify(doctorService, never()).getDoctorPage(any(), any());
+        verify(doctorService, never()).streamDoctors(any());
+
+        assertThat(controller.getDoctorPage("patient", "valid", null, 10).getStatusCode().value()).isEqualTo(200);
+        assertThat(controller.streamDoctors("patient", "valid").getStatusCode().value()).isEqualTo(200);
+    }
+}
@@ -0,0 +1,14 @@
+package com.project.back_end.controllers;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        ThreadingModeLoadTest.TOMCAT_THREADS,
+        "spring.threads.virtual.enabled=false",
+        "test.database=load-platform"})
+class PlatformThreadsLoadTest extends ThreadingModeLoadTest {
+    @Override
+    String mode() {
+        return "platform";
+    }
+}
@@ -0,0 +1,154 @@
+package com.project.back_end.controllers;
+
+import com.project.back_end.TestData;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.PatientRepository;
+import com.project.back_end.services.TokenService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Drives the availability and booking endpoints over HTTP with many concurrent clients against a
+ * deliberately small Tomcat pool, and logs throughput and latency percentiles. Subclasses run
+ * it with platform and with virtual request threads so the two can be compared. Tagged
+ * {@code load}, so it only runs with {@code mvn test -Pload}.
+ */
+@Tag("load")
+abstract class ThreadingModeLoadTest {
+    private static final Logger log = LoggerFactory.getLogger(ThreadingModeLoadTest.class);
+    static final String TOMCAT_THREADS = "server.tomcat.threads.max=16";
+
+    private static final int CLIENTS = 64;
+    private static final int DOCTORS = 50;
+    private static final int HOURS = 8;
+    private static final int DAYS = 5;
+    private static final int REQUESTS = DOCTORS * HOURS * DAYS;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TokenService tokenService;
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+    @Autowired
+    private DoctorRepository doctorRepository;
+    @Autowired
+    private PatientRepository patientRepository;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final LocalDate firstDay = LocalDate.now().plusDays(14);
+    private final List<Long> doctorIds = new ArrayList<>();
+    private Patient patient;
+    private String patientToken;
+
+    abstract String mode();
+
+    @BeforeEach
+    void seed() {
+        for (int i = 0; i < DOCTORS; i++) {
+            doctorIds.add(doctorRepository.save(doctor(i)).getId());
+        }
+        patient = patientRepository.save(TestData.patient("Load Patient", "load.patient@example.com"));
+        patientToken = tokenService.generateToken(patient.getEmail(), "patient", patient.getId());
+    }
+
+    @AfterEach
+    void cleanUp() {
+        appointmentRepository.deleteAll();
+        doctorRepository.deleteAll();
+        patientRepository.deleteAll();
+    }
+
+    @Test
+    void availabilityAndBookingUnderLoad() throws Exception {
+        int[] availability = run("availability", i -> HttpRequest.newBuilder(uri("/doctor/availability/patient/"
+                + doctorIds.get(i % DOCTORS) + "/" + firstDay.plusDays(i % DAYS) + "/" + patientToken)).GET().build());
+        assertThat(availability).containsOnly(200);
+
+        int[] booking = run("booking", i -> {
+            String body = """
+                    {"doctor": {"id": %d}, "patient": {"id": %d}, "appointmentTime": "%s", "status": 0}
+                    """.formatted(doctorIds.get(i % DOCTORS), patient.getId(),
+                    firstDay.plusDays(i / (DOCTORS * HOURS)).atTime(9 + (i / DOCTORS) % HOURS, 0));
+            return HttpRequest.newBuilder(uri("/appointments/" + patientToken))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+        });
+        assertThat(booking).containsOnly(201);
+        assertThat(appointmentRepository.count()).isEqualTo(REQUESTS);
+    }
+
+    private int[] run(String endpoint, IntFunction<HttpRequest> request) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(CLIENTS);
+        var statuses = new int[REQUESTS];
+        var latencies = new long[REQUESTS];
+        try {
+            var futures = new ArrayList<Future<?>>();
+            long began = System.nanoTime();
+            for (int i = 0; i < REQUESTS; i++) {
+                int n = i;
+                futures.add(executor.submit(() -> {
+                    long start = System.nanoTime();
+                    statuses[n] = client.send(request.apply(n), HttpResponse.BodyHandlers.discarding()).statusCode();
+                    latencies[n] = System.nanoTime() - start;
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+            double seconds = (System.nanoTime() - began) / 1e9;
+            Arrays.sort(latencies);
+            log.info("{} threads, {}: {} requests from {} clients in {} ms ({} req/s), p50 {} ms, p99 {} ms, max {} ms",
+                    mode(), endpoint, REQUESTS, CLIENTS, Math.round(seconds * 1000), Math.round(REQUESTS / seconds),
+                    "%.1f".formatted(percentile(latencies, 0.50)), "%.1f".formatted(percentile(latencies, 0.99)),
+                    "%.1f".formatted(latencies[REQUESTS - 1] / 1e6));
+            return statuses;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        return sorted[(int) Math.ceil(p * sorted.length) - 1] / 1e6;
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static Doctor doctor(int i) {
+        var times = new ArrayList<String>();
+        for (int hour = 9; hour < 9 + HOURS; hour++) {
+            times.add("%02d:00-%02d:00".formatted(hour, hour + 1));
+        }
+        return TestData.doctor("Dr. Load " + i, "dr.load" + i + "@example.com", times);
+    }
+}
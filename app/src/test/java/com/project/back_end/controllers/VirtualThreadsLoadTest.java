@@ -0,0 +1,17 @@
+package com.project.back_end.controllers;
+
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@EnabledForJreRange(min = JRE.JAVA_21)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        ThreadingModeLoadTest.TOMCAT_THREADS,
+        "spring.threads.virtual.enabled=true",
+        "test.database=load-virtual"})
+class VirtualThreadsLoadTest extends ThreadingModeLoadTest {
+    @Override
+    String mode() {
+        return "virtual";
+    }
+}
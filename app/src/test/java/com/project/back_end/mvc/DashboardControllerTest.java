@@ -0,0 +1,82 @@
+package com.project.back_end.mvc;
+
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.services.DoctorService;
+import com.project.back_end.services.TokenService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+
+import static com.project.back_end.TestData.doctor;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "dashboard.prerender=true",
+        "test.database=dashboard"
+})
+@AutoConfigureMockMvc
+class DashboardControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private DoctorService doctorService;
+    @Autowired
+    private DoctorRepository doctorRepository;
+    @Autowired
+    private TokenService tokenService;
+
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+        token = tokenService.generateToken("admin", "admin", 1L);
+        doctorService.saveDoctor(doctor("Dr. Adams", "dr.adams@example.com"));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        doctorRepository.findAll().forEach(doctor -> doctorService.deleteDoctor(doctor.getId()));
+    }
+
+    @Test
+    void cardsAreRenderedOnTheServerAndRevalidatedWithTheETag() throws Exception {
+        String etag = mockMvc.perform(get("/adminDashboard/{token}", token))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+                .andExpect(content().string(containsString("data-prerendered=\"true\"")))
+                .andExpect(content().string(containsString("<h3>Dr. Adams</h3>")))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotBlank();
+
+        mockMvc.perform(get("/adminDashboard/{token}", token).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        doctorService.saveDoctor(doctor("Dr. Brown", "dr.brown@example.com"));
+
+        String changed = mockMvc.perform(get("/adminDashboard/{token}", token).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("<h3>Dr. Brown</h3>")))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(changed).isNotEqualTo(etag);
+    }
+
+    @Test
+    void invalidTokenIsRedirectedWithoutTheCards() throws Exception {
+        mockMvc.perform(get("/adminDashboard/{token}", "not-a-token"))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+    }
+}
@@ -0,0 +1,169 @@
+package com.project.back_end.repo;
+
+import com.project.back_end.DTO.AppointmentDTO;
+import com.project.back_end.TestData;
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+import com.project.back_end.services.AppointmentService;
+import com.project.back_end.services.TokenService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static com.project.back_end.TestData.doctor;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the doctor's day view before and after the schedule projection: the old fetch-join
+ * BETWEEN query against {@link AppointmentRepository#findSchedule}. Also checks that the
+ * patient-name filter runs in the database. Statement counts come from Hibernate statistics;
+ * timings are printed for reference only.
+ */
+@SpringBootTest
+class AppointmentScheduleQueryTest {
+    private static final int RUNS = 200;
+
+    @Autowired
+    private AppointmentService appointmentService;
+    @Autowired
+    private TokenService tokenService;
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+    @Autowired
+    private DoctorRepository doctorRepository;
+    @Autowired
+    private PatientRepository patientRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final LocalDate day = LocalDate.now().plusDays(30);
+    private Statistics statistics;
+    private Doctor doctor;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        doctor = doctorRepository.save(doctor("Dr. Schedule", "dr.schedule@example.com"));
+        var appointments = new ArrayList<Appointment>();
+        for (int hour = 0; hour < 23; hour++) {
+            appointments.add(appointment(patient("Patient " + hour), day.atTime(hour, 0)));
+        }
+        appointments.add(appointment(patient("Late Patient"), day.atTime(23, 30)));
+        appointments.add(appointment(patient("Yesterday Patient"), day.minusDays(1).atTime(23, 0)));
+        appointments.add(appointment(patient("Tomorrow Patient"), day.plusDays(1).atStartOfDay()));
+        appointmentRepository.saveAll(appointments);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        statistics.setStatisticsEnabled(false);
+        appointmentRepository.deleteAll();
+        doctorRepository.deleteAll();
+        patientRepository.deleteAll();
+    }
+
+    @Test
+    void scheduleCoversTheWholeDayInOneStatement() {
+        LocalDateTime start = day.atStartOfDay();
+
+        Measured<Appointment> before = measure("fetch-join BETWEEN start and start+23h",
+                () -> appointmentRepository.findByDoctorIdAndAppointmentTimeBetween(doctor.getId(), start, start.plusHours(23)));
+        Measured<AppointmentDTO> after = measure("projection over [start, nextDay)",
+                () -> appointmentRepository.findSchedule(doctor.getId(), start, start.plusDays(1)));
+
+        // The old path loads each patient with its own select and misses the 23:30 appointment
+        assertThat(before.statements()).isEqualTo(1 + before.rows().size());
+        assertThat(before.rows()).hasSize(23);
+        assertThat(after.statements()).isEqualTo(1);
+        assertThat(after.rows()).hasSize(24);
+        assertThat(after.rows()).extracting(AppointmentDTO::getPatientName).contains("Late Patient")
+                .doesNotContain("Yesterday Patient", "Tomorrow Patient");
+        assertThat(after.rows()).extracting(AppointmentDTO::getAppointmentTime).isSorted();
+        assertThat(after.rows().get(0).getPatientEmail()).isEqualTo("patient.0@example.com");
+        assertThat(after.rows().get(0).getDoctorId()).isEqualTo(doctor.getId());
+    }
+
+    @Test
+    void doctorDayViewUsesTheSchedule() {
+        String token = tokenService.generateToken(doctor.getEmail(), "doctor", doctor.getId());
+
+        statistics.clear();
+        var all = appointmentService.getAppointment("null", day, token);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat((List<?>) all.get("appointments")).hasSize(24);
+        assertThat(all.get("total")).isEqualTo(24L);
+    }
+
+    @Test
+    void patientNameFilterRunsInTheDatabase() {
+        String token = tokenService.generateToken(doctor.getEmail(), "doctor", doctor.getId());
+
+        statistics.clear();
+        var firstPage = appointmentService.getAppointment("pAtIeNt", day, token, 0, 10);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(names(firstPage)).hasSize(10).allMatch(name -> name.startsWith("Patient "));
+        assertThat(firstPage.get("total")).isEqualTo(23L);
+
+        var lastPage = appointmentService.getAppointment("patient", day, token, 2, 10);
+        assertThat(names(lastPage)).containsExactly("Patient 20", "Patient 21", "Patient 22");
+
+        assertThat(names(appointmentService.getAppointment("late", day, token))).containsExactly("Late Patient");
+        assertThat(names(appointmentService.getAppointment("atient", day, token))).isEmpty();
+        assertThat(names(appointmentService.getAppointment("%", day, token))).isEmpty();
+        assertThat(names(appointmentService.getAppointment("Patient_1", day, token))).isEmpty();
+        assertThat(names(appointmentService.getAppointment("Yesterday", day, token))).isEmpty();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> names(Map<String, Object> response) {
+        return ((List<AppointmentDTO>) response.get("appointments")).stream()
+                .map(AppointmentDTO::getPatientName)
+                .toList();
+    }
+
+    private record Measured<T>(List<T> rows, long statements) {
+    }
+
+    private <T> Measured<T> measure(String scenario, Supplier<List<T>> query) {
+        statistics.clear();
+        List<T> result = query.get();
+        long statements = statistics.getPrepareStatementCount();
+
+        long began = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            query.get();
+        }
+        double millis = (System.nanoTime() - began) / 1e6 / RUNS;
+        System.out.printf("%s: %d rows, %d statements, %.3f ms/query%n", scenario, result.size(), statements, millis);
+        return new Measured<>(result, statements);
+    }
+
+    private Patient patient(String name) {
+        return patientRepository.save(TestData.patient(name, name.toLowerCase().replace(' ', '.') + "@example.com"));
+    }
+
+    private Appointment appointment(Patient patient, LocalDateTime time) {
+        var appointment = new Appointment();
+        appointment.setDoctor(doctor);
+        appointment.setPatient(patient);
+        appointment.setAppointmentTime(time);
+        appointment.setStatus(0);
+        return appointment;
+    }
+}
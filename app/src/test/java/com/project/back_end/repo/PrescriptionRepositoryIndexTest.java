@@ -0,0 +1,195 @@
+package com.project.back_end.repo;
+
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.project.back_end.models.Prescription;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the prescription lookups against a real mongod in a container and checks their query
+ * plans: the summary projections must be answered from an index alone (no FETCH stage and no
+ * documents examined), and the lookups returning whole documents must scan an index in the
+ * requested order. The plans are explained from the find commands the repositories actually
+ * send, recorded by a command listener, so the checks follow any change to the repository
+ * queries. Skipped when Docker is not available.
+ */
+@SpringBootTest
+@Testcontainers(disabledWithoutDocker = true)
+class PrescriptionRepositoryIndexTest {
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2025, 3, 3, 9, 0);
+
+    @Container
+    static final MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    @DynamicPropertySource
+    static void mongoProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", () -> mongo.getReplicaSetUrl("prescriptions"));
+    }
+
+    // Find commands sent to the prescriptions collection by either the blocking or reactive client
+    private static final List<BsonDocument> finds = new CopyOnWriteArrayList<>();
+
+    @TestConfiguration
+    static class RecordFinds {
+        @Bean
+        MongoClientSettingsBuilderCustomizer recordFinds() {
+            return settings -> settings.addCommandListener(new CommandListener() {
+                @Override
+                public void commandStarted(CommandStartedEvent event) {
+                    if (event.getCommandName().equals("find")
+                            && event.getCommand().getString("find").getValue().equals("prescriptions")) {
+                        finds.add(event.getCommand().clone());
+                    }
+                }
+            });
+        }
+    }
+
+    @Autowired
+    private PrescriptionRepository prescriptionRepository;
+
+    @Autowired
+    private ReactivePrescriptionRepository reactivePrescriptionRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    void seed() {
+        prescriptionRepository.deleteAll();
+        var prescriptions = new ArrayList<Prescription>();
+        for (int i = 0; i < 500; i++) {
+            var prescription = new Prescription("Patient " + (i % 50), (long) i, "Medication " + (i % 7), (i % 3 + 1) + " tablets", "Notes " + i);
+            prescription.setPatientId((long) (i % 50));
+            prescription.setIssuedAt(MONDAY.plusDays(i / 50));
+            prescriptions.add(prescription);
+        }
+        prescriptionRepository.saveAll(prescriptions);
+    }
+
+    @Test
+    void declaredIndexesAreCreatedAtStartup() {
+        List<String> names = mongoTemplate.indexOps(Prescription.class).getIndexInfo().stream()
+                .map(IndexInfo::getName)
+                .toList();
+
+        assertTrue(names.contains("appointment_medication_dosage"), names.toString());
+        assertTrue(names.contains("appointment_unique"), names.toString());
+        assertTrue(names.contains("patient_issued_medication_dosage"), names.toString());
+    }
+
+    @Test
+    void summariesByAppointmentAreCovered() {
+        finds.clear();
+        var summaries = prescriptionRepository.findSummariesByAppointmentId(42L);
+        assertEquals(1, summaries.size());
+        assertEquals("Medication 0", summaries.get(0).getMedication());
+        assertNull(summaries.get(0).getIssuedAt());
+        assertCovered(explainSentFind());
+
+        finds.clear();
+        assertEquals(1, prescriptionRepository.findByAppointmentId(42L).size());
+        assertIndexed(explainSentFind());
+
+        finds.clear();
+        assertEquals(1, reactivePrescriptionRepository.findByAppointmentId(42L).collectList().block().size());
+        assertIndexed(explainSentFind());
+    }
+
+    @Test
+    void summariesByPatientAndDateAreCovered() {
+        LocalDateTime from = MONDAY.plusDays(2);
+        LocalDateTime to = MONDAY.plusDays(5);
+
+        finds.clear();
+        var summaries = prescriptionRepository.findSummariesByPatientIdAndIssuedAtInRange(7L, from, to);
+        assertEquals(3, summaries.size());
+        assertEquals(MONDAY.plusDays(4), summaries.get(0).getIssuedAt());
+        assertCovered(explainSentFind());
+
+        finds.clear();
+        assertEquals(3, prescriptionRepository.findByPatientIdAndIssuedAtInRange(7L, from, to).size());
+        assertIndexed(explainSentFind());
+
+        finds.clear();
+        var history = reactivePrescriptionRepository.findByPatientIdOrderByIssuedAtDesc(7L).collectList().block();
+        assertEquals(10, history.size());
+        assertEquals(MONDAY.plusDays(9), history.get(0).getIssuedAt());
+        assertIndexed(explainSentFind());
+    }
+
+    // Explains the one find command recorded since finds was cleared, with its filter, projection and sort
+    private Document explainSentFind() {
+        assertEquals(1, finds.size(), finds.toString());
+        BsonDocument sent = finds.get(0);
+        var find = new BsonDocument("find", sent.get("find"));
+        for (String option : List.of("filter", "projection", "sort")) {
+            if (sent.containsKey(option)) {
+                find.append(option, sent.get(option));
+            }
+        }
+        return mongoTemplate.getDb().runCommand(new BsonDocument("explain", find)
+                .append("verbosity", new BsonString("executionStats")));
+    }
+
+    // The documents are fetched, but found and ordered through an index
+    private static void assertIndexed(Document plan) {
+        List<String> stages = stages(plan.get("queryPlanner", Document.class));
+        assertTrue(stages.contains("IXSCAN"), stages.toString());
+        assertFalse(stages.contains("COLLSCAN"), stages.toString());
+        assertFalse(stages.contains("SORT"), "sort should come from the index order: " + stages);
+    }
+
+    private static void assertCovered(Document plan) {
+        List<String> stages = stages(plan.get("queryPlanner", Document.class));
+        assertTrue(stages.contains("IXSCAN"), stages.toString());
+        assertFalse(stages.contains("FETCH"), stages.toString());
+        assertFalse(stages.contains("COLLSCAN"), stages.toString());
+        assertFalse(stages.contains("SORT"), "sort should come from the index order: " + stages);
+        assertEquals(0, plan.get("executionStats", Document.class).get("totalDocsExamined", Number.class).intValue());
+    }
+
+    // Collects every "stage" in the plan tree; newer servers nest the winning plan one level deeper
+    private static List<String> stages(Object node) {
+        var stages = new ArrayList<String>();
+        if (node instanceof Document document) {
+            if (document.get("stage") instanceof String stage) {
+                stages.add(stage);
+            }
+            document.forEach((key, value) -> {
+                if (!key.equals("rejectedPlans")) {
+                    stages.addAll(stages(value));
+                }
+            });
+        } else if (node instanceof List<?> list) {
+            list.forEach(value -> stages.addAll(stages(value)));
+        }
+        return stages;
+    }
+}
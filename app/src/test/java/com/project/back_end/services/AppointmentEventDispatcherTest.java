@@ -0,0 +1,190 @@
+package com.project.back_end.services;
+
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.AppointmentEvent;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+import com.project.back_end.repo.AppointmentEventRepository;
+import com.project.back_end.repo.ReportCounterRepository;
+import com.project.back_end.repo.ReportVisitRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest(properties = {
+        "test.database=events",
+        "appointment.events.batch-size=2",
+        "appointment.events.max-attempts=3"})
+class AppointmentEventDispatcherTest {
+    @Autowired
+    private AppointmentOutbox outbox;
+    @Autowired
+    private AppointmentEventDispatcher dispatcher;
+    @Autowired
+    private RecordingSubscriber recorder;
+    @Autowired
+    private AppointmentEventRepository eventRepository;
+    @Autowired
+    private ReportCounterRepository counterRepository;
+    @Autowired
+    private ReportVisitRepository visitRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @TestConfiguration
+    static class Subscribers {
+        @Bean
+        RecordingSubscriber recordingSubscriber() {
+            return new RecordingSubscriber();
+        }
+    }
+
+    static class RecordingSubscriber implements AppointmentEventSubscriber {
+        final List<AppointmentEvent> handled = new CopyOnWriteArrayList<>();
+        final Set<Long> failingDoctors = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public String name() {
+            return "recorder";
+        }
+
+        @Override
+        public void handle(List<AppointmentEvent> events) {
+            if (failingDoctors.contains(events.get(0).getDoctorId())) {
+                throw new IllegalStateException("unavailable");
+            }
+            handled.addAll(events);
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        recorder.handled.clear();
+        recorder.failingDoctors.clear();
+        eventRepository.deleteAll();
+        counterRepository.deleteAll();
+        visitRepository.deleteAll();
+    }
+
+    @Test
+    void retriesAFailedDoctorWithoutHoldingBackTheOthers() {
+        recorder.failingDoctors.add(1L);
+        LocalDateTime time = LocalDateTime.now().plusDays(1).withHour(9).withMinute(0).withSecond(0).withNano(0);
+        transactionTemplate.executeWithoutResult(status -> {
+            outbox.booked(appointment(10L, 1L, time));
+            outbox.booked(appointment(20L, 2L, time));
+            outbox.moved(appointment(10L, 1L, time.plusHours(1)), time);
+            outbox.cancelled(appointment(10L, 1L, time.plusHours(1)));
+        });
+
+        dispatcher.drain();
+        assertThat(recorder.handled).extracting(AppointmentEvent::getDoctorId, AppointmentEvent::getType)
+                .containsExactly(tuple(2L, AppointmentEvent.Type.BOOKED));
+        // The reporting subscriber has its own copy of every event and is not held back
+        assertThat(eventRepository.findAll()).extracting(AppointmentEvent::getSubscriber).containsOnly("recorder").hasSize(3);
+
+        // Doctor 1 waits out the backoff, and is not retried by the next drain
+        assertThat(dispatcher.drain()).isZero();
+        assertThat(recordedEvents()).extracting(AppointmentEvent::getAttempts).containsExactly(1, 0, 0);
+
+        recorder.failingDoctors.clear();
+        backoffElapsed();
+        dispatcher.drain();
+        assertThat(recorder.handled).extracting(AppointmentEvent::getDoctorId, AppointmentEvent::getType).containsExactly(
+                tuple(2L, AppointmentEvent.Type.BOOKED),
+                tuple(1L, AppointmentEvent.Type.BOOKED),
+                tuple(1L, AppointmentEvent.Type.MOVED),
+                tuple(1L, AppointmentEvent.Type.CANCELLED));
+        assertThat(eventRepository.count()).isZero();
+    }
+
+    @Test
+    void parksEventsThatKeepFailingWithoutHoldingBackTheDoctorsBehindThem() {
+        recorder.failingDoctors.add(4L);
+        LocalDateTime time = LocalDateTime.now().plusDays(1).withHour(9).withMinute(0).withSecond(0).withNano(0);
+        transactionTemplate.executeWithoutResult(status -> {
+            outbox.booked(appointment(40L, 4L, time));
+            outbox.moved(appointment(40L, 4L, time.plusHours(1)), time);
+            outbox.cancelled(appointment(40L, 4L, time.plusHours(1)));
+            outbox.booked(appointment(50L, 5L, time));
+        });
+
+        // Doctor 4's events fill the first batch; doctor 5's are read once doctor 4 is backing off
+        dispatcher.drain();
+        assertThat(recorder.handled).extracting(AppointmentEvent::getDoctorId).containsExactly(5L);
+
+        backoffElapsed();
+        dispatcher.drain();
+        backoffElapsed();
+        dispatcher.drain();
+        assertThat(recordedEvents()).extracting(AppointmentEvent::getType, AppointmentEvent::getAttempts, AppointmentEvent::isParked)
+                .containsExactly(
+                        tuple(AppointmentEvent.Type.BOOKED, 3, true),
+                        tuple(AppointmentEvent.Type.MOVED, 3, true),
+                        tuple(AppointmentEvent.Type.CANCELLED, 1, false));
+
+        recorder.failingDoctors.clear();
+        backoffElapsed();
+        dispatcher.drain();
+        assertThat(recorder.handled).extracting(AppointmentEvent::getDoctorId, AppointmentEvent::getType).containsExactly(
+                tuple(5L, AppointmentEvent.Type.BOOKED),
+                tuple(4L, AppointmentEvent.Type.CANCELLED));
+        assertThat(recordedEvents()).extracting(AppointmentEvent::getType).containsExactly(
+                AppointmentEvent.Type.BOOKED, AppointmentEvent.Type.MOVED);
+        assertThat(dispatcher.drain()).isZero();
+    }
+
+    @Test
+    void recordsNothingWhenTheChangeRollsBack() {
+        LocalDateTime time = LocalDateTime.now().plusDays(1);
+        transactionTemplate.executeWithoutResult(status -> {
+            outbox.booked(appointment(30L, 3L, time));
+            status.setRollbackOnly();
+        });
+
+        assertThat(eventRepository.count()).isZero();
+        dispatcher.drain();
+        assertThat(recorder.handled).extracting(AppointmentEvent::getDoctorId).doesNotContain(3L);
+    }
+
+    private List<AppointmentEvent> recordedEvents() {
+        return eventRepository.findAll().stream()
+                .filter(event -> event.getSubscriber().equals("recorder"))
+                .sorted((a, b) -> Long.compare(a.getId(), b.getId()))
+                .toList();
+    }
+
+    // Stands in for waiting out appointment.events.retry-backoff
+    private void backoffElapsed() {
+        jdbcTemplate.update("UPDATE appointment_event SET retry_at = NULL");
+    }
+
+    private static Appointment appointment(Long id, Long doctorId, LocalDateTime time) {
+        var doctor = new Doctor();
+        doctor.setId(doctorId);
+        var patient = new Patient();
+        patient.setId(100 + doctorId);
+        var appointment = new Appointment();
+        appointment.setId(id);
+        appointment.setDoctor(doctor);
+        appointment.setPatient(patient);
+        appointment.setAppointmentTime(time);
+        return appointment;
+    }
+}
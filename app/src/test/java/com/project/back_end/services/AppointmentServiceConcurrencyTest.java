@@ -0,0 +1,221 @@
+package com.project.back_end.services;
+
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.PatientRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.project.back_end.TestData.appointment;
+import static com.project.back_end.TestData.doctor;
+import static com.project.back_end.TestData.patient;
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class AppointmentServiceConcurrencyTest {
+    private static final Logger log = LoggerFactory.getLogger(AppointmentServiceConcurrencyTest.class);
+    private static final int THREADS = 32;
+    private static final int ATTEMPTS = 256;
+
+    @Autowired
+    private AppointmentService appointmentService;
+    @Autowired
+    private AvailabilityService availabilityService;
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+    @Autowired
+    private DoctorRepository doctorRepository;
+    @Autowired
+    private PatientRepository patientRepository;
+    @Autowired
+    private TokenService tokenService;
+
+    private final LocalDateTime slot = LocalDate.now().plusDays(7).atTime(9, 0);
+
+    @AfterEach
+    void cleanUp() {
+        appointmentRepository.deleteAll();
+        doctorRepository.deleteAll();
+        patientRepository.deleteAll();
+    }
+
+    @Test
+    void exactlyOneBookingWinsTheSameSlot() throws Exception {
+        Doctor doctor = doctorRepository.save(doctor("Dr. Test", "dr.hammer@example.com"));
+        List<Patient> patients = patients(ATTEMPTS);
+
+        var results = new ArrayList<Callable<Integer>>();
+        for (Patient patient : patients) {
+            results.add(() -> appointmentService.bookAppointment(appointment(doctor, patient, slot)));
+        }
+        List<Integer> outcomes = runConcurrently("same slot, booking service", results);
+
+        assertThat(outcomes).filteredOn(outcome -> outcome == 1).hasSize(1);
+        assertThat(outcomes).filteredOn(outcome -> outcome == -1).hasSize(ATTEMPTS - 1);
+        assertThat(appointmentRepository.count()).isEqualTo(1);
+        assertThat(availabilityService.isAvailable(doctor.getId(), slot)).isFalse();
+    }
+
+    @Test
+    void slotsOutsideWorkingHoursOffTheHourOrPastAreNeverClaimed() {
+        Doctor doctor = doctorRepository.save(doctor("Dr. Test", "dr.evening@example.com"));
+        Patient patient = patients(1).get(0);
+        LocalDateTime evening = slot.withHour(18);
+
+        assertThat(availabilityService.tryClaim(doctor.getId(), evening)).isFalse();
+        assertThat(appointmentService.bookAppointment(appointment(doctor, patient, evening))).isEqualTo(-1);
+        assertThat(appointmentRepository.count()).isZero();
+        assertThat(availabilityService.tryClaim(doctor.getId(), slot.withMinute(30))).isFalse();
+        LocalDateTime yesterday = LocalDate.now().minusDays(1).atTime(9, 0);
+        assertThat(availabilityService.isAvailable(doctor.getId(), yesterday)).isFalse();
+        assertThat(availabilityService.tryClaim(doctor.getId(), yesterday)).isFalse();
+        assertThat(availabilityService.tryClaim(doctor.getId(), slot)).isTrue();
+    }
+
+    @Test
+    void exactlyOneMoveWinsTheSameSlot() throws Exception {
+        var hours = new ArrayList<String>();
+        for (int hour = 9; hour < 17; hour++) {
+            hours.add("%02d:00-%02d:00".formatted(hour, hour + 1));
+        }
+        Doctor doctor = doctorRepository.save(doctor("Dr. Test", "dr.move@example.com", hours));
+        List<Patient> patients = patients(hours.size() - 1);
+        LocalDateTime target = slot.withHour(16);
+
+        var results = new ArrayList<Callable<Integer>>();
+        for (int i = 0; i < patients.size(); i++) {
+            Patient patient = patients.get(i);
+            Appointment booked = appointment(doctor, patient, slot.withHour(9 + i));
+            assertThat(appointmentService.bookAppointment(booked)).isEqualTo(1);
+            Appointment moved = appointment(doctor, patient, target);
+            moved.setId(booked.getId());
+            String token = tokenService.generateToken(patient.getEmail(), "patient", patient.getId());
+            results.add(() -> appointmentService.updateAppointment(moved, token).getStatusCode().value());
+        }
+        List<Integer> outcomes = runConcurrently("same slot, moves", results);
+
+        assertThat(outcomes).filteredOn(outcome -> outcome == 200).hasSize(1);
+        assertThat(outcomes).filteredOn(outcome -> outcome == 409).hasSize(patients.size() - 1);
+        assertThat(appointmentRepository.findAll()).filteredOn(appointment -> appointment.getAppointmentTime().equals(target)).hasSize(1);
+        // Only the winner's old slot was released
+        assertThat(availabilityService.getAvailableTimes(doctor.getId(), slot.toLocalDate())).hasSize(1);
+    }
+
+    @Test
+    void aMoveIntoASlotTakenByAnotherInstanceIsAConflict() {
+        Doctor doctor = doctorRepository.save(doctor("Dr. Test", "dr.elsewhere@example.com"));
+        List<Patient> patients = patients(2);
+        Appointment booked = appointment(doctor, patients.get(0), slot);
+        assertThat(appointmentService.bookAppointment(booked)).isEqualTo(1);
+        // Saved past this instance's calendar, as another instance would
+        appointmentRepository.save(appointment(doctor, patients.get(1), slot.plusHours(1)));
+
+        Appointment moved = appointment(doctor, patients.get(0), slot.plusHours(1));
+        moved.setId(booked.getId());
+        String token = tokenService.generateToken(patients.get(0).getEmail(), "patient", patients.get(0).getId());
+        assertThat(appointmentService.updateAppointment(moved, token).getStatusCode().value()).isEqualTo(409);
+
+        assertThat(appointmentRepository.findById(booked.getId()).orElseThrow().getAppointmentTime()).isEqualTo(slot);
+        assertThat(availabilityService.isAvailable(doctor.getId(), slot)).isFalse();
+        assertThat(availabilityService.isAvailable(doctor.getId(), slot.plusHours(1))).isFalse();
+    }
+
+    @Test
+    void uniqueSlotConstraintHoldsWithoutTheInMemoryClaim() throws Exception {
+        Doctor doctor = doctorRepository.save(doctor("Dr. Test", "dr.constraint@example.com"));
+        List<Patient> patients = patients(ATTEMPTS);
+        var conflicts = new AtomicInteger();
+
+        var results = new ArrayList<Callable<Integer>>();
+        for (Patient patient : patients) {
+            results.add(() -> {
+                try {
+                    appointmentRepository.save(appointment(doctor, patient, slot));
+                    return 1;
+                } catch (DataIntegrityViolationException e) {
+                    conflicts.incrementAndGet();
+                    return -1;
+                }
+            });
+        }
+        List<Integer> outcomes = runConcurrently("same slot, repository only", results);
+
+        assertThat(outcomes).filteredOn(outcome -> outcome == 1).hasSize(1);
+        assertThat(conflicts).hasValue(ATTEMPTS - 1);
+        assertThat(appointmentRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void bookingsForDifferentDoctorsDoNotContend() throws Exception {
+        List<Patient> patients = patients(ATTEMPTS);
+        var doctors = new ArrayList<Doctor>();
+        for (int i = 0; i < ATTEMPTS; i++) {
+            doctors.add(doctorRepository.save(doctor("Dr. Test", "dr.parallel" + i + "@example.com")));
+        }
+
+        var results = new ArrayList<Callable<Integer>>();
+        for (int i = 0; i < ATTEMPTS; i++) {
+            Doctor doctor = doctors.get(i);
+            Patient patient = patients.get(i);
+            results.add(() -> appointmentService.bookAppointment(appointment(doctor, patient, slot)));
+        }
+        List<Integer> outcomes = runConcurrently("distinct doctors, booking service", results);
+
+        assertThat(outcomes).containsOnly(1);
+        assertThat(appointmentRepository.count()).isEqualTo(ATTEMPTS);
+    }
+
+    private List<Integer> runConcurrently(String scenario, List<Callable<Integer>> tasks) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        var start = new CountDownLatch(1);
+        try {
+            var futures = new ArrayList<Future<Integer>>();
+            for (Callable<Integer> task : tasks) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            long began = System.nanoTime();
+            start.countDown();
+            var outcomes = new ArrayList<Integer>();
+            for (Future<Integer> future : futures) {
+                outcomes.add(future.get(30, TimeUnit.SECONDS));
+            }
+            double seconds = (System.nanoTime() - began) / 1e9;
+            log.info("{}: {} attempts on {} threads in {} ms ({} attempts/s)", scenario, tasks.size(), THREADS,
+                    Math.round(seconds * 1000), Math.round(tasks.size() / seconds));
+            return outcomes;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private List<Patient> patients(int count) {
+        var patients = new ArrayList<Patient>();
+        for (int i = 0; i < count; i++) {
+            patients.add(patient("Patient " + i, "patient" + i + "@example.com"));
+        }
+        return patientRepository.saveAll(patients);
+    }
+}
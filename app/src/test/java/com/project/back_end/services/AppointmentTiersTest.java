@@ -0,0 +1,153 @@
+package com.project.back_end.services;
+
+import com.project.back_end.DTO.AppointmentDTO;
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.ArchivedAppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.PatientRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.project.back_end.TestData.doctor;
+import static com.project.back_end.TestData.patient;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest(properties = {
+        "test.database=tiers",
+        "appointment.cold.horizon=30d",
+        "appointment.cold.chunk-size=2"})
+class AppointmentTiersTest {
+    @Autowired
+    private AppointmentTiers appointmentTiers;
+    @Autowired
+    private AppointmentService appointmentService;
+    @Autowired
+    private TokenService tokenService;
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+    @Autowired
+    private ArchivedAppointmentRepository archivedAppointmentRepository;
+    @Autowired
+    private DoctorRepository doctorRepository;
+    @Autowired
+    private PatientRepository patientRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final LocalDate oldDay = LocalDate.now().minusDays(60);
+    private Doctor doctor;
+    private Patient ann;
+    private Patient bob;
+
+    @BeforeEach
+    void setUp() {
+        doctor = doctorRepository.save(doctor("Dr. Adams", "dr.adams@example.com"));
+        ann = patientRepository.save(patient("Ann Patient", "ann@example.com"));
+        bob = patientRepository.save(patient("Bob Patient", "bob@example.com"));
+        // Past appointments fail @Future, so they are inserted as they would have been booked back then
+        insert(ann, oldDay.atTime(9, 0));
+        insert(bob, oldDay.atTime(10, 0));
+        insert(ann, oldDay.atTime(11, 0));
+        insert(ann, LocalDate.now().minusDays(10).atTime(9, 0));
+        var upcoming = new Appointment();
+        upcoming.setDoctor(doctor);
+        upcoming.setPatient(ann);
+        upcoming.setAppointmentTime(LocalDate.now().plusDays(1).atTime(9, 0));
+        appointmentRepository.save(upcoming);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        appointmentRepository.deleteAll();
+        archivedAppointmentRepository.deleteAll();
+        doctorRepository.deleteAll();
+        patientRepository.deleteAll();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void movesOldAppointmentsAndStillFindsThem() {
+        // One of the old appointments is moved, the other two are still waiting for the next run
+        jdbcTemplate.update("INSERT INTO archived_appointment (id, doctor_id, patient_id, appointment_time, status, archived_at) " +
+                "SELECT id, doctor_id, patient_id, appointment_time, status, CURRENT_TIMESTAMP FROM appointment WHERE appointment_time = ?", oldDay.atTime(10, 0));
+        jdbcTemplate.update("DELETE FROM appointment WHERE appointment_time = ?", oldDay.atTime(10, 0));
+        assertThat(dayView(oldDay)).extracting(AppointmentDTO::getPatientName)
+                .containsExactly("Ann Patient", "Bob Patient", "Ann Patient");
+        // Pages of one seek across the tiers, which interleave here
+        String token = tokenService.generateToken(doctor.getEmail(), "doctor", doctor.getId());
+        for (int page = 0; page < 3; page++) {
+            var single = appointmentService.getAppointment("null", oldDay, token, page, 1);
+            assertThat((List<AppointmentDTO>) single.get("appointments")).extracting(AppointmentDTO::getAppointmentTime)
+                    .containsExactly(oldDay.atTime(9 + page, 0));
+        }
+        assertThat((List<AppointmentDTO>) appointmentService.getAppointment("null", oldDay, token, 3, 1).get("appointments")).isEmpty();
+
+        assertThat(appointmentTiers.moveCold()).isEqualTo(2);
+        assertThat(appointmentRepository.count()).isEqualTo(2);
+        assertThat(archivedAppointmentRepository.count()).isEqualTo(3);
+
+        assertThat(dayView(oldDay)).extracting(AppointmentDTO::getPatientName, AppointmentDTO::getAppointmentTime).containsExactly(
+                tuple("Ann Patient", oldDay.atTime(9, 0)),
+                tuple("Bob Patient", oldDay.atTime(10, 0)),
+                tuple("Ann Patient", oldDay.atTime(11, 0)));
+        var secondPage = appointmentService.getAppointment("null", oldDay, token, 1, 2);
+        assertThat((List<AppointmentDTO>) secondPage.get("appointments")).extracting(AppointmentDTO::getAppointmentTime)
+                .containsExactly(oldDay.atTime(11, 0));
+        assertThat(secondPage.get("total")).isEqualTo(3L);
+
+        // Ann is counted once although her visits are split over both tables
+        assertThat(appointmentTiers.countByDoctorBetween(oldDay.atStartOfDay(), LocalDate.now().plusDays(2).atStartOfDay()))
+                .containsExactly(new Object[]{doctor.getId(), 5L, 2L});
+
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM appointment UNION ALL SELECT id FROM archived_appointment", Long.class);
+        assertThat(appointmentTiers.findPatientIds(ids)).hasSize(5);
+        assertThat(appointmentTiers.findPatientIds(List.of(-1L))).isEmpty();
+    }
+
+    @Test
+    void archivedAppointmentsAreRefusedAsArchived() {
+        appointmentTiers.moveCold();
+        Long archivedId = jdbcTemplate.queryForObject("SELECT id FROM archived_appointment WHERE appointment_time = ?",
+                Long.class, oldDay.atTime(9, 0));
+        String token = tokenService.generateToken(ann.getEmail(), "patient", ann.getId());
+
+        var cancelled = appointmentService.cancelAppointment(archivedId, token);
+        assertThat(cancelled.getStatusCode().value()).isEqualTo(409);
+        assertThat(cancelled.getBody()).containsEntry("error", "Archived appointments cannot be cancelled");
+
+        var moved = new Appointment();
+        moved.setId(archivedId);
+        moved.setDoctor(doctor);
+        moved.setPatient(ann);
+        moved.setAppointmentTime(LocalDate.now().plusDays(2).atTime(9, 0));
+        var updated = appointmentService.updateAppointment(moved, token);
+        assertThat(updated.getStatusCode().value()).isEqualTo(409);
+        assertThat(updated.getBody()).containsEntry("error", "Archived appointments cannot be changed");
+        assertThat(archivedAppointmentRepository.existsById(archivedId)).isTrue();
+
+        assertThat(appointmentService.cancelAppointment(-1L, token).getStatusCode().value()).isEqualTo(404);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<AppointmentDTO> dayView(LocalDate day) {
+        String token = tokenService.generateToken(doctor.getEmail(), "doctor", doctor.getId());
+        return (List<AppointmentDTO>) appointmentService.getAppointment("null", day, token).get("appointments");
+    }
+
+    private void insert(Patient patient, LocalDateTime time) {
+        jdbcTemplate.update("INSERT INTO appointment (doctor_id, patient_id, appointment_time, status) VALUES (?, ?, ?, 1)",
+                doctor.getId(), patient.getId(), time);
+    }
+}
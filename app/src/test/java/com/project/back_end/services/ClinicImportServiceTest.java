@@ -0,0 +1,139 @@
+package com.project.back_end.services;
+
+import com.project.back_end.DTO.ImportReport;
+import com.project.back_end.models.AppointmentEvent;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.ReportCounter;
+import com.project.back_end.models.ReportPeriod;
+import com.project.back_end.repo.AppointmentEventRepository;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.PatientRepository;
+import com.project.back_end.repo.ReportCounterRepository;
+import com.project.back_end.repo.ReportVisitRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest(properties = {
+        "test.database=clinic_import",
+        "clinic.import.batch-size=2",
+        "credentials.bcrypt.strength=4"})
+class ClinicImportServiceTest {
+    private static final String HASHED = "{bcrypt}$2a$04$Zr4mHvvCnV9v3Sv3p2A6QOyyN0gQpM1Jwz4c6y2KfW5q6s0T0qM2e";
+
+    @Autowired
+    private ClinicImportService clinicImportService;
+    @Autowired
+    private DoctorSearchIndex doctorSearchIndex;
+    @Autowired
+    private DoctorRepository doctorRepository;
+    @Autowired
+    private PatientRepository patientRepository;
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+    @Autowired
+    private ReportCounterRepository counterRepository;
+    @Autowired
+    private ReportVisitRepository visitRepository;
+    @Autowired
+    private AppointmentEventRepository eventRepository;
+
+    @AfterEach
+    void cleanUp() {
+        appointmentRepository.deleteAll();
+        doctorRepository.deleteAll();
+        patientRepository.deleteAll();
+        counterRepository.deleteAll();
+        visitRepository.deleteAll();
+        eventRepository.deleteAll();
+    }
+
+    @Test
+    void importsInBatchesAndReportsTheRejectedRows() throws IOException {
+        var progress = new ArrayList<String>();
+        ImportReport doctors = clinicImportService.importDoctors(csv("""
+                name,specialty,email,password,phone,availableTimes
+                Ada Lovelace,Cardiology,ada@clinic.test,secret1,5550000001,09:00-10:00;10:00-11:00
+                Grace Hopper,Neurology,grace@clinic.test,%s,5550000002,14:00-15:00
+                No Phone,Neurology,nophone@clinic.test,secret3,,14:00-15:00
+                Ada Again,Cardiology,ada@clinic.test,secret4,5550000004,09:00-10:00
+                Too,Many,Columns,in,this,row,here
+                """.formatted(HASHED)), report -> progress.add(report.toString()));
+
+        assertThat(doctors.getRead()).isEqualTo(5);
+        assertThat(doctors.getInserted()).isEqualTo(2);
+        // Rows are checked as they are read, emails when their batch is written
+        assertThat(doctors.getErrors()).satisfiesExactly(
+                error -> assertThat(error).startsWith("line 4: phone "),
+                error -> assertThat(error).startsWith("line 6: unreadable row: Too many entries"),
+                error -> assertThat(error).isEqualTo("line 5: email already registered: ada@clinic.test"));
+        assertThat(progress).containsExactly("read=2, inserted=2, failed=0, batches=1", "read=5, inserted=2, failed=3, batches=2");
+        Doctor ada = doctorRepository.findByEmail("ada@clinic.test");
+        assertThat(ada.getPassword()).startsWith("{bcrypt}");
+        assertThat(doctorRepository.findAllWithAvailableTimesByIdIn(List.of(ada.getId())).get(0).getAvailableTimes()).containsExactlyInAnyOrder("09:00-10:00", "10:00-11:00");
+        assertThat(doctorRepository.findByEmail("grace@clinic.test").getPassword()).isEqualTo(HASHED);
+        assertThat(doctorSearchIndex.search("grace", null, null)).extracting(Doctor::getEmail).containsExactly("grace@clinic.test");
+
+        ImportReport patients = clinicImportService.importPatients(csv("""
+                name,email,password,phone,address
+                Alan Turing,alan@patient.test,,5551000001,Bletchley Park
+                Joan Clarke,joan@patient.test,secret5,5551000002,Bletchley Park
+                """), report -> { });
+        assertThat(patients.getInserted()).isEqualTo(2);
+        assertThat(patientRepository.findByEmail("alan@patient.test").getPassword()).isNull();
+
+        // A live booking not yet counted does not hold the imported appointments back
+        eventRepository.save(new AppointmentEvent("reporting", AppointmentEvent.Type.BOOKED, 999L, 999L, 999L,
+                LocalDateTime.now().plusDays(1), null, LocalDateTime.now()));
+
+        LocalDate day = LocalDate.of(2024, 3, 4);
+        ImportReport appointments = clinicImportService.importAppointments(csv("""
+                doctorEmail,patientEmail,appointmentTime,status
+                ada@clinic.test,alan@patient.test,2024-03-04T09:00:00,1
+                ada@clinic.test,joan@patient.test,2024-03-04T10:00:00,1
+                grace@clinic.test,alan@patient.test,2024-03-04T14:00:00,
+                ada@clinic.test,joan@patient.test,2024-03-04T09:00:00,1
+                ada@clinic.test,nobody@patient.test,2024-03-05T09:00:00,0
+                ada@clinic.test,alan@patient.test,tomorrow,0
+                """), report -> { });
+
+        assertThat(appointments.getInserted()).isEqualTo(3);
+        assertThat(appointments.getErrors()).containsExactly(
+                "line 5: doctor ada@clinic.test already has an appointment at 2024-03-04T09:00",
+                "line 7: appointmentTime is not an ISO date-time: tomorrow",
+                "line 6: no patient with email nobody@patient.test");
+        assertThat(counterRepository.findByPeriodAndPeriodStart(ReportPeriod.DAY, day))
+                .extracting(ReportCounter::getDoctorId, ReportCounter::getAppointments, ReportCounter::getUniquePatients)
+                .containsExactlyInAnyOrder(
+                        tuple(ada.getId(), 2L, 2L),
+                        tuple(doctorRepository.findByEmail("grace@clinic.test").getId(), 1L, 1L));
+        assertThat(counterRepository.findByPeriodAndPeriodStart(ReportPeriod.YEAR, LocalDate.of(2024, 1, 1)))
+                .extracting(ReportCounter::getAppointments, ReportCounter::getUniquePatients)
+                .containsExactlyInAnyOrder(tuple(2L, 2L), tuple(1L, 1L));
+
+        // Nothing is imported twice
+        ImportReport again = clinicImportService.importAppointments(csv("""
+                doctorEmail,patientEmail,appointmentTime,status
+                ada@clinic.test,alan@patient.test,2024-03-04T09:00:00,1
+                """), report -> { });
+        assertThat(again.getInserted()).isZero();
+        assertThat(appointmentRepository.count()).isEqualTo(3);
+    }
+
+    private static ByteArrayInputStream csv(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,91 @@
+package com.project.back_end.services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CredentialServiceTest {
+    private final CredentialService credentialService = credentialService("bcrypt", 5, 1, 1);
+
+    @AfterEach
+    void tearDown() {
+        credentialService.shutdown();
+    }
+
+    @Test
+    void upgradesPlaintextAndCheaperHashesOnLogin() {
+        var rehashed = new ArrayList<String>();
+
+        assertThat(credentialService.verify("secret123", "secret123", rehashed::add).join()).isTrue();
+        assertThat(rehashed).singleElement().asString().startsWith("{bcrypt}$2a$05$");
+
+        var cheaper = credentialService("bcrypt", 4, 1, 1);
+        String cheaperHash = cheaper.encode("secret123");
+        cheaper.shutdown();
+        assertThat(credentialService.verify(cheaperHash, "secret123", rehashed::add).join()).isTrue();
+        assertThat(rehashed).hasSize(2);
+
+        var argon2 = credentialService("argon2", 5, 1, 1);
+        assertThat(argon2.verify(rehashed.get(1), "secret123", rehashed::add).join()).isTrue();
+        argon2.shutdown();
+        assertThat(rehashed).hasSize(3);
+        assertThat(rehashed.get(2)).startsWith("{argon2}");
+
+        // Current hashes are left alone
+        assertThat(credentialService.verify(rehashed.get(1), "secret123", rehashed::add).join()).isTrue();
+        assertThat(rehashed).hasSize(3);
+    }
+
+    @Test
+    void rejectsWrongPasswordsAndUnknownUsersWithoutRehashing() {
+        List<String> rehashed = new ArrayList<>();
+        String hash = credentialService.encode("secret123");
+
+        assertThat(credentialService.verify(hash, "secret124", rehashed::add).join()).isFalse();
+        assertThat(credentialService.verify("secret123", "secret124", rehashed::add).join()).isFalse();
+        assertThat(credentialService.verify(null, "secret123", rehashed::add).join()).isFalse();
+        assertThat(credentialService.verify(hash, null, rehashed::add).join()).isFalse();
+        assertThat(rehashed).isEmpty();
+    }
+
+    @Test
+    void rejectsLoginsOnceTheQueueIsFull() throws Exception {
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var running = credentialService.verify("secret123", "secret123", hash -> {
+            started.countDown();
+            await(release);
+        });
+        assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+        var queued = credentialService.verify("secret123", "secret123", hash -> {
+        });
+
+        assertThatThrownBy(() -> credentialService.verify("secret123", "secret123", hash -> {
+        })).isInstanceOf(RejectedExecutionException.class);
+
+        release.countDown();
+        assertThat(running.join()).isTrue();
+        assertThat(queued.join()).isTrue();
+    }
+
+    private static CredentialService credentialService(String algorithm, int cost, int threads, int queueCapacity) {
+        return new CredentialService(algorithm, cost, 1024, cost / 4, threads, queueCapacity, new SimpleMeterRegistry());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
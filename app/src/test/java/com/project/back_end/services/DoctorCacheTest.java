@@ -0,0 +1,101 @@
+package com.project.back_end.services;
+
+import com.project.back_end.models.Doctor;
+import com.project.back_end.repo.DoctorRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+
+import static com.project.back_end.TestData.doctor;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reads, write invalidation and missing rows of {@link DoctorCache}. Subclasses run it with
+ * {@code doctor.cache.mode=local} and {@code hibernate}; statements are counted from the
+ * Hibernate statistics, so a read that runs none was served from a cache.
+ */
+abstract class DoctorCacheTest {
+    @Autowired
+    private DoctorCache doctorCache;
+    @Autowired
+    private DoctorService doctorService;
+    @Autowired
+    private DoctorRepository doctorRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Doctor adams;
+
+    abstract String mode();
+
+    @BeforeEach
+    void setUp() {
+        assertThat(doctorCache.stats()).containsEntry("mode", mode());
+        doctorService.saveDoctor(doctor("Dr. Adams", "dr.adams@example.com"));
+        adams = doctorRepository.findByEmail("dr.adams@example.com");
+    }
+
+    @AfterEach
+    void cleanUp() {
+        doctorRepository.findAll().forEach(doctor -> doctorService.deleteDoctor(doctor.getId()));
+    }
+
+    @Test
+    void repeatedReadsRunNoStatements() {
+        warm();
+
+        long before = statements();
+        assertThat(doctorCache.findById(adams.getId()).orElseThrow().getName()).isEqualTo("Dr. Adams");
+        assertThat(doctorCache.findByEmail(adams.getEmail()).getId()).isEqualTo(adams.getId());
+        assertThat(doctorCache.findAll()).extracting(Doctor::getName).containsExactly("Dr. Adams");
+        assertThat(statements() - before).isZero();
+    }
+
+    @Test
+    void savesUpdatesAndDeletesEvict() {
+        warm();
+        doctorService.saveDoctor(doctor("Dr. Brown", "dr.brown@example.com"));
+        assertThat(doctorCache.findAll()).extracting(Doctor::getName).containsExactlyInAnyOrder("Dr. Adams", "Dr. Brown");
+        assertThat(doctorCache.findByEmail("dr.brown@example.com")).isNotNull();
+
+        warm();
+        Doctor renamed = doctor("Dr. Adams-Clark", "dr.clark@example.com", List.of("14:00-15:00"));
+        renamed.setId(adams.getId());
+        assertThat(doctorService.updateDoctor(renamed)).isEqualTo(1);
+        assertThat(doctorCache.findById(adams.getId()).orElseThrow().getAvailableTimes()).containsExactly("14:00-15:00");
+        assertThat(doctorCache.findByEmail("dr.adams@example.com")).isNull();
+        assertThat(doctorCache.findByEmail("dr.clark@example.com").getName()).isEqualTo("Dr. Adams-Clark");
+        assertThat(doctorCache.findAll()).extracting(Doctor::getName).containsExactlyInAnyOrder("Dr. Adams-Clark", "Dr. Brown");
+
+        warm();
+        assertThat(doctorService.deleteDoctor(adams.getId())).isEqualTo(1);
+        assertThat(doctorCache.findById(adams.getId())).isEmpty();
+        assertThat(doctorCache.findByEmail("dr.clark@example.com")).isNull();
+        assertThat(doctorCache.findAll()).extracting(Doctor::getName).containsExactly("Dr. Brown");
+    }
+
+    @Test
+    void missingDoctorsAreNotCached() {
+        assertThat(doctorCache.findByEmail("dr.late@example.com")).isNull();
+        // Written past DoctorService, so nothing is evicted
+        doctorRepository.save(doctor("Dr. Late", "dr.late@example.com"));
+        assertThat(doctorCache.findByEmail("dr.late@example.com").getName()).isEqualTo("Dr. Late");
+    }
+
+    private long statements() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void warm() {
+        doctorCache.findById(adams.getId());
+        doctorCache.findByEmail(adams.getEmail());
+        doctorCache.findAll();
+    }
+}
@@ -0,0 +1,103 @@
+package com.project.back_end.services;
+
+import com.project.back_end.DTO.DoctorRemovalReport;
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.ArchivedAppointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+import com.project.back_end.repo.AppointmentEventRepository;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.ArchivedAppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.PatientRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.project.back_end.TestData.appointment;
+import static com.project.back_end.TestData.doctor;
+import static com.project.back_end.TestData.patient;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "test.database=removal",
+        "doctor.removal.chunk-size=4"})
+class DoctorRemovalServiceTest {
+    @Autowired
+    private DoctorRemovalService doctorRemovalService;
+    @Autowired
+    private DoctorRepository doctorRepository;
+    @Autowired
+    private PatientRepository patientRepository;
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+    @Autowired
+    private ArchivedAppointmentRepository archivedAppointmentRepository;
+    @Autowired
+    private AppointmentEventRepository eventRepository;
+
+    private Doctor doctor;
+    private List<Long> appointmentIds;
+
+    @BeforeEach
+    void setUp() {
+        doctor = doctorRepository.save(doctor("Dr. Removed", "dr.removed@example.com"));
+        Patient patient = patientRepository.save(patient("Ann Patient", "ann@example.com"));
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withHour(9).withMinute(0).withSecond(0).withNano(0);
+        var appointments = new ArrayList<Appointment>();
+        for (int day = 0; day < 10; day++) {
+            appointments.add(appointment(doctor, patient, start.plusDays(day)));
+        }
+        appointmentIds = appointmentRepository.saveAll(appointments).stream().map(Appointment::getId).toList();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        appointmentRepository.deleteAll();
+        archivedAppointmentRepository.deleteAll();
+        doctorRepository.deleteAll();
+        patientRepository.deleteAll();
+        eventRepository.deleteAll();
+    }
+
+    @Test
+    void archivesTheAppointmentsInChunks() {
+        var progress = new ArrayList<String>();
+        DoctorRemovalReport report = doctorRemovalService.remove(doctor.getId(), r -> progress.add(r.getArchived() + "/" + r.getAvailableTimesDeleted()));
+
+        assertThat(progress).containsExactly("4/0", "8/0", "10/0", "10/3", "10/3");
+        assertThat(report.getAppointments()).isEqualTo(10);
+        assertThat(report.getChunks()).isEqualTo(4);
+        assertThat(report.isRemoved()).isTrue();
+        assertThat(archivedAppointmentRepository.findAll()).extracting(ArchivedAppointment::getId)
+                .containsExactlyInAnyOrderElementsOf(appointmentIds);
+        assertThat(appointmentRepository.count()).isZero();
+        assertThat(doctorRepository.existsById(doctor.getId())).isFalse();
+        assertThat(doctorRemovalService.remove(doctor.getId())).isNull();
+    }
+
+    @Test
+    void anInterruptedRemovalIsResumed() {
+        assertThatThrownBy(() -> doctorRemovalService.remove(doctor.getId(), r -> {
+            throw new IllegalStateException("interrupted");
+        })).isInstanceOf(IllegalStateException.class);
+
+        // The first chunk committed before the progress callback failed
+        assertThat(archivedAppointmentRepository.countByDoctorId(doctor.getId())).isEqualTo(4);
+        assertThat(doctorRepository.existsById(doctor.getId())).isTrue();
+
+        DoctorRemovalReport report = doctorRemovalService.remove(doctor.getId(), r -> {
+        });
+        assertThat(report.getAppointments()).isEqualTo(6);
+        assertThat(report.getArchived()).isEqualTo(6);
+        assertThat(archivedAppointmentRepository.countByDoctorId(doctor.getId())).isEqualTo(10);
+        assertThat(doctorRepository.existsById(doctor.getId())).isFalse();
+    }
+}
@@ -0,0 +1,104 @@
+package com.project.back_end.services;
+
+import com.project.back_end.TestData;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.repo.DoctorRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DoctorSearchIndexTest {
+    private final DoctorSearchIndex index = new DoctorSearchIndex(mock(DoctorRepository.class));
+
+    @BeforeEach
+    void setUp() {
+        index.load(List.of(
+                doctor(3L, "Dr. Anna Smith", "Cardiologist", List.of("09:00-10:00")),
+                doctor(1L, "Dr. Hannah Jones", "Dermatologist", List.of("14:00-15:00")),
+                doctor(2L, "Dr. Ann Smithers", "cardiologist", List.of("10:00-11:00", "16:00-17:00"))));
+    }
+
+    @Test
+    void postingsStaySortedAndDistinct() {
+        long[] ids = {2, 5, 9};
+
+        assertThat(DoctorSearchIndex.union(ids, new long[]{7})).containsExactly(2, 5, 7, 9);
+        assertThat(DoctorSearchIndex.union(ids, new long[]{1})).containsExactly(1, 2, 5, 9);
+        assertThat(DoctorSearchIndex.union(ids, new long[]{5})).isSameAs(ids);
+        assertThat(DoctorSearchIndex.without(ids, 5)).containsExactly(2, 9);
+        assertThat(DoctorSearchIndex.without(ids, 4)).isSameAs(ids);
+        assertThat(DoctorSearchIndex.without(new long[]{5}, 5)).isNull();
+        assertThat(DoctorSearchIndex.intersect(new long[]{1, 3, 5, 7}, new long[]{3, 4, 7, 8})).containsExactly(3, 7);
+        assertThat(DoctorSearchIndex.intersect(new long[]{1, 2}, new long[]{3, 4})).isEmpty();
+    }
+
+    @Test
+    void matchesNameSubstringsSpecialtyAndTimeOfDay() {
+        assertThat(ids(index.search("ann", null, null))).containsExactly(1L, 2L, 3L);
+        assertThat(ids(index.search("SMITH", null, null))).containsExactly(2L, 3L);
+        assertThat(ids(index.search("anna smith", null, null))).containsExactly(3L);
+        assertThat(ids(index.search("an", null, null))).containsExactly(1L, 2L, 3L);
+        assertThat(ids(index.search(null, "CARDIOLOGIST", null))).containsExactly(2L, 3L);
+        assertThat(ids(index.search("smith", "cardiologist", "PM"))).containsExactly(2L);
+        assertThat(ids(index.search("null", "null", "AM"))).containsExactly(2L, 3L);
+        assertThat(index.search("nobody", null, null)).isEmpty();
+    }
+
+    @Test
+    void followsWritesAndReloads() {
+        index.index(doctor(3L, "Dr. Anna Brown", "Cardiologist", List.of("09:00-10:00")));
+        index.remove(1L);
+
+        assertThat(ids(index.search("smith", null, null))).containsExactly(2L);
+        assertThat(ids(index.search("brown", null, null))).containsExactly(3L);
+        assertThat(ids(index.search("hannah", null, null))).isEmpty();
+        assertThat(ids(index.search(null, "dermatologist", null))).isEmpty();
+
+        index.load(List.of(doctor(4L, "Dr. Hannah Jones", "Dermatologist", List.of("14:00-15:00"))));
+        assertThat(ids(index.search(null, null, null))).containsExactly(4L);
+        assertThat(ids(index.search("ann", null, null))).containsExactly(4L);
+    }
+
+    @Test
+    void rebuildKeepsWritesMadeWhileItReads() {
+        var doctorRepository = mock(DoctorRepository.class);
+        var rebuilt = new DoctorSearchIndex(doctorRepository);
+        when(doctorRepository.findIdsAfter(eq(0L), any())).thenReturn(List.of(1L, 2L));
+        // The writes land between the read and the swap, as a save or delete on another thread would
+        when(doctorRepository.findAllWithAvailableTimesByIdIn(List.of(1L, 2L))).thenAnswer(invocation -> {
+            rebuilt.index(doctor(5L, "Dr. Eve Newman", "Neurologist", List.of("09:00-10:00")));
+            rebuilt.remove(2L);
+            return List.of(
+                    doctor(1L, "Dr. Hannah Jones", "Dermatologist", List.of("14:00-15:00")),
+                    doctor(2L, "Dr. Ann Smithers", "cardiologist", List.of("10:00-11:00")));
+        });
+
+        rebuilt.rebuild();
+
+        assertThat(ids(rebuilt.search(null, null, null))).containsExactly(1L, 5L);
+        assertThat(ids(rebuilt.search("newman", null, null))).containsExactly(5L);
+        assertThat(rebuilt.search("smithers", null, null)).isEmpty();
+
+        // Once published, writes go straight to the index again
+        rebuilt.remove(5L);
+        assertThat(ids(rebuilt.search(null, null, null))).containsExactly(1L);
+    }
+
+    private static Doctor doctor(Long id, String name, String specialty, List<String> availableTimes) {
+        Doctor doctor = TestData.doctor(name, "doctor" + id + "@example.com", availableTimes);
+        doctor.setId(id);
+        doctor.setSpecialty(specialty);
+        return doctor;
+    }
+
+    private static List<Long> ids(List<Doctor> doctors) {
+        return doctors.stream().map(Doctor::getId).toList();
+    }
+}
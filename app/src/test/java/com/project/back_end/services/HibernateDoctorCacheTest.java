@@ -0,0 +1,13 @@
+package com.project.back_end.services;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(properties = {
+        "doctor.cache.mode=hibernate",
+        "test.database=doctor-cache-hibernate"})
+class HibernateDoctorCacheTest extends DoctorCacheTest {
+    @Override
+    String mode() {
+        return "hibernate";
+    }
+}
@@ -0,0 +1,42 @@
+package com.project.back_end.services;
+
+import com.project.back_end.models.Doctor;
+import com.project.back_end.repo.DoctorRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+
+import static com.project.back_end.TestData.doctor;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest(properties = {
+        "doctor.cache.mode=local",
+        "test.database=doctor-cache-local"})
+class LocalDoctorCacheTest extends DoctorCacheTest {
+    @Override
+    String mode() {
+        return "local";
+    }
+
+    // Hibernate never caches a failed query, so only the local caches need this
+    @Test
+    void failedLoadsAreNotCached() {
+        var repository = mock(DoctorRepository.class);
+        var cache = new DoctorCache(repository, null, "local", 10, Duration.ofMinutes(1));
+        Doctor adams = doctor("Dr. Adams", "dr.adams@example.com");
+        when(repository.findWithAvailableTimesByEmail(adams.getEmail()))
+                .thenThrow(new IllegalStateException("database down"))
+                .thenReturn(adams);
+
+        assertThatThrownBy(() -> cache.findByEmail(adams.getEmail())).hasMessage("database down");
+        assertThat(cache.findByEmail(adams.getEmail())).isSameAs(adams);
+        assertThat(cache.findByEmail(adams.getEmail())).isSameAs(adams);
+        verify(repository, times(2)).findWithAvailableTimesByEmail(adams.getEmail());
+    }
+}
@@ -0,0 +1,106 @@
+package com.project.back_end.services;
+
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandSucceededEvent;
+import com.project.back_end.models.Prescription;
+import com.project.back_end.repo.ReactivePrescriptionRepository;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Streams a long prescription history from a real mongod in a container and counts the
+ * documents the server sends back in find and getMore replies, to check that the cursor is
+ * read only as far as the subscriber has asked. Skipped when Docker is not available.
+ */
+@SpringBootTest(properties = "test.database=prescription-history")
+@Testcontainers(disabledWithoutDocker = true)
+class PrescriptionHistoryStreamTest {
+    private static final int HISTORY = 5_000;
+    private static final LocalDateTime FIRST = LocalDateTime.of(2020, 1, 1, 9, 0);
+
+    @Container
+    static final MongoDBContainer mongo = new MongoDBContainer("mongo:7.0");
+
+    @DynamicPropertySource
+    static void mongoProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", () -> mongo.getReplicaSetUrl("prescriptions"));
+    }
+
+    // Documents returned to either client by find and getMore on the prescriptions collection
+    private static final AtomicInteger documentsSent = new AtomicInteger();
+
+    @TestConfiguration
+    static class CountDocumentsSent {
+        @Bean
+        MongoClientSettingsBuilderCustomizer countDocumentsSent() {
+            return settings -> settings.addCommandListener(new CommandListener() {
+                @Override
+                public void commandSucceeded(CommandSucceededEvent event) {
+                    if (!event.getCommandName().equals("find") && !event.getCommandName().equals("getMore")) {
+                        return;
+                    }
+                    BsonDocument cursor = event.getResponse().getDocument("cursor");
+                    String batch = cursor.containsKey("firstBatch") ? "firstBatch" : "nextBatch";
+                    documentsSent.addAndGet(cursor.getArray(batch).size());
+                }
+            });
+        }
+    }
+
+    @Autowired
+    private ReactivePrescriptionRepository prescriptionRepository;
+
+    @Autowired
+    private PrescriptionService prescriptionService;
+
+    @BeforeEach
+    void seed() {
+        prescriptionRepository.deleteAll().block();
+        var prescriptions = new ArrayList<Prescription>();
+        for (int i = 0; i < HISTORY; i++) {
+            var prescription = new Prescription("Patient 3", (long) i, "Medication " + (i % 7), "1 tablet", "Notes " + i);
+            prescription.setPatientId(3L);
+            prescription.setIssuedAt(FIRST.plusHours(i));
+            prescriptions.add(prescription);
+        }
+        prescriptionRepository.saveAll(prescriptions).then().block();
+    }
+
+    @Test
+    void historyIsPulledOnlyAsFastAsItIsConsumed() {
+        documentsSent.set(0);
+
+        StepVerifier.create(prescriptionService.getPrescriptionHistory(3L), 0)
+                .expectSubscription()
+                .expectNoEvent(Duration.ofMillis(50))
+                .thenRequest(2)
+                .assertNext(newest -> assertThat(newest.getIssuedAt()).isEqualTo(FIRST.plusHours(HISTORY - 1)))
+                .expectNextCount(1)
+                .thenRequest(3)
+                .expectNextCount(3)
+                .thenCancel()
+                .verify(Duration.ofSeconds(10));
+
+        // At most a default first batch, nowhere near the whole history
+        assertThat(documentsSent.get()).isBetween(5, 101);
+    }
+}
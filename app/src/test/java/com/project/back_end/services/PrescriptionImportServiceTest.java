@@ -0,0 +1,129 @@
+package com.project.back_end.services;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.project.back_end.DTO.ImportReport;
+import com.project.back_end.models.Prescription;
+import jakarta.validation.Validation;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PrescriptionImportServiceTest {
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final BulkOperations bulkOperations = mock(BulkOperations.class);
+    private final AppointmentTiers appointmentTiers = mock(AppointmentTiers.class);
+    private final PrescriptionImportService importService = new PrescriptionImportService(mongoTemplate,
+            Jackson2ObjectMapperBuilder.json().build(), Validation.buildDefaultValidatorFactory().getValidator(), appointmentTiers);
+
+    // Copies of every batch handed to insert, since the service reuses its batch list
+    private final List<List<Prescription>> batches = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(importService, "batchSize", 2);
+        ReflectionTestUtils.setField(importService, "maxReportedErrors", 10);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Prescription.class)).thenReturn(bulkOperations);
+        // Every appointment below 9 exists and belongs to patient 100 + its id
+        when(appointmentTiers.findPatientIds(anyList())).thenAnswer(invocation -> {
+            List<Long> ids = invocation.getArgument(0);
+            var patientIds = new HashMap<Long, Long>();
+            ids.stream().filter(id -> id < 9).forEach(id -> patientIds.put(id, 100 + id));
+            return patientIds;
+        });
+        when(bulkOperations.insert(anyList())).thenAnswer(invocation -> {
+            List<Prescription> batch = invocation.getArgument(0);
+            batches.add(List.copyOf(batch));
+            return bulkOperations;
+        });
+    }
+
+    @Test
+    void parsesValidatesAndInsertsInBatches() throws IOException {
+        when(bulkOperations.execute()).thenAnswer(invocation -> inserted(batches.get(batches.size() - 1).size()));
+        var progress = new ArrayList<Long>();
+
+        ImportReport report = importService.importNdjson(ndjson(
+                prescription(1, "Amoxicillin"),
+                "",
+                "{not json",
+                prescription(2, "Ibuprofen").replace("{", "{\"patientId\":555,"),
+                "{\"patientName\":\"Ann Patient\",\"appointmentId\":3,\"medication\":\"Ib\",\"dosage\":\"200mg\"}",
+                "{\"patientName\":\"Ann Patient\",\"medication\":\"Aspirin\"}",
+                prescription(4, "Paracetamol"),
+                prescription(9, "Aspirin")), p -> progress.add(p.getInserted()));
+
+        assertThat(batches).extracting(batch -> batch.stream().map(Prescription::getAppointmentId).toList())
+                .containsExactly(List.of(1L, 2L), List.of(4L));
+        // The patient comes from the appointment, whatever the line says
+        assertThat(batches).extracting(batch -> batch.stream().map(Prescription::getPatientId).toList())
+                .containsExactly(List.of(101L, 102L), List.of(104L));
+        assertThat(batches.get(0).get(0).getMedication()).isEqualTo("Amoxicillin");
+        assertThat(batches).allSatisfy(batch -> assertThat(batch).allSatisfy(p -> assertThat(p.getIssuedAt()).isNotNull()));
+        assertThat(progress).containsExactly(2L, 3L);
+
+        assertThat(report.getRead()).isEqualTo(7);
+        assertThat(report.getInserted()).isEqualTo(3);
+        assertThat(report.getFailed()).isEqualTo(4);
+        assertThat(report.getBatches()).isEqualTo(2);
+        assertThat(report.getErrors()).hasSize(4);
+        assertThat(report.getErrors().get(0)).startsWith("line 3: unreadable JSON");
+        assertThat(report.getErrors().get(1)).isEqualTo("line 5: medication size must be between 3 and 100");
+        assertThat(report.getErrors().get(2)).isEqualTo("line 6: appointmentId must not be null, dosage must not be null");
+        assertThat(report.getErrors().get(3)).isEqualTo("line 8: no appointment with id 9");
+    }
+
+    @Test
+    void bulkWriteErrorsAreReportedAgainstTheirLines() throws IOException {
+        when(bulkOperations.execute())
+                .thenThrow(new BulkOperationException("duplicate key", new MongoBulkWriteException(
+                        BulkWriteResult.acknowledged(1, 0, 0, 0, List.of(), List.of()),
+                        List.of(new BulkWriteError(11000, "E11000 duplicate key", new BsonDocument(), 0)),
+                        null, new ServerAddress(), Set.of())))
+                .thenAnswer(invocation -> inserted(1));
+
+        ImportReport report = importService.importNdjson(ndjson(
+                "{bad",
+                prescription(1, "Amoxicillin"),
+                prescription(2, "Ibuprofen"),
+                prescription(3, "Paracetamol")), p -> {
+        });
+
+        assertThat(report.getInserted()).isEqualTo(2);
+        assertThat(report.getFailed()).isEqualTo(2);
+        assertThat(report.getErrors().get(1)).isEqualTo("line 2: E11000 duplicate key");
+    }
+
+    private static BulkWriteResult inserted(int count) {
+        return BulkWriteResult.acknowledged(count, 0, 0, 0, List.of(), List.of());
+    }
+
+    private static String prescription(long appointmentId, String medication) {
+        return "{\"patientName\":\"Ann Patient\",\"appointmentId\":" + appointmentId
+                + ",\"medication\":\"" + medication + "\",\"dosage\":\"500mg\"}";
+    }
+
+    private static ByteArrayInputStream ndjson(String... lines) {
+        return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,87 @@
+package com.project.back_end.services;
+
+import com.project.back_end.models.Prescription;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.ReactivePrescriptionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PrescriptionServiceTest {
+    private final ReactivePrescriptionRepository repository = mock(ReactivePrescriptionRepository.class);
+    private final AppointmentRepository appointmentRepository = mock(AppointmentRepository.class);
+    private final PrescriptionService prescriptionService = new PrescriptionService(repository, appointmentRepository);
+
+    @Test
+    void savesWithThePatientOfTheAppointment() {
+        var prescription = prescription(7L);
+        prescription.setPatientId(99L);
+        when(appointmentRepository.findPatientIdById(7L)).thenReturn(Optional.of(3L));
+        when(repository.save(prescription)).thenReturn(Mono.just(prescription));
+
+        StepVerifier.create(prescriptionService.savePrescription(prescription))
+                .assertNext(response -> assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED))
+                .verifyComplete();
+        assertThat(prescription.getPatientId()).isEqualTo(3L);
+        assertThat(prescription.getIssuedAt()).isNotNull();
+    }
+
+    @Test
+    void secondPrescriptionOfAnAppointmentConflicts() {
+        when(appointmentRepository.findPatientIdById(7L)).thenReturn(Optional.of(3L));
+        when(repository.save(any())).thenReturn(Mono.error(new DuplicateKeyException("E11000 duplicate key error")));
+
+        StepVerifier.create(prescriptionService.savePrescription(prescription(7L)))
+                .assertNext(response -> assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CONFLICT))
+                .verifyComplete();
+    }
+
+    @Test
+    void unknownAppointmentIsRejected() {
+        when(appointmentRepository.findPatientIdById(7L)).thenReturn(Optional.empty());
+
+        StepVerifier.create(prescriptionService.savePrescription(prescription(7L)))
+                .assertNext(response -> assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST))
+                .verifyComplete();
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void mongoFailuresBecomeServerErrors() {
+        when(appointmentRepository.findPatientIdById(7L)).thenReturn(Optional.of(3L));
+        when(repository.save(any())).thenReturn(Mono.error(new IllegalStateException("node down")));
+        when(repository.findByAppointmentId(7L)).thenReturn(Flux.error(new IllegalStateException("node down")));
+
+        StepVerifier.create(prescriptionService.savePrescription(prescription(7L)))
+                .assertNext(response -> assertThat(response.getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR))
+                .verifyComplete();
+        StepVerifier.create(prescriptionService.getPrescription(7L))
+                .assertNext(response -> assertThat(response.getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR))
+                .verifyComplete();
+    }
+
+    @Test
+    void missingPrescriptionIsNotFound() {
+        when(repository.findByAppointmentId(8L)).thenReturn(Flux.empty());
+
+        StepVerifier.create(prescriptionService.getPrescription(8L))
+                .assertNext(response -> assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND))
+                .verifyComplete();
+    }
+
+    private static Prescription prescription(Long appointmentId) {
+        return new Prescription("Patient", appointmentId, "Medication", "1 tablet", "Notes");
+    }
+}
@@ -0,0 +1,172 @@
+package com.project.back_end.services;
+
+import com.project.back_end.DTO.DoctorActivity;
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+import com.project.back_end.models.ReportPeriod;
+import com.project.back_end.repo.AppointmentEventRepository;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.PatientRepository;
+import com.project.back_end.repo.ReportCounterRepository;
+import com.project.back_end.repo.ReportVisitRepository;
+import org.assertj.core.groups.Tuple;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static com.project.back_end.TestData.appointment;
+import static com.project.back_end.TestData.doctor;
+import static com.project.back_end.TestData.patient;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+@SpringBootTest
+class ReportingServiceTest {
+    @Autowired
+    private ReportingService reportingService;
+    @Autowired
+    private AppointmentService appointmentService;
+    @Autowired
+    private TokenService tokenService;
+    @Autowired
+    private AppointmentEventDispatcher dispatcher;
+    @Autowired
+    private AppointmentEventRepository eventRepository;
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+    @Autowired
+    private DoctorRepository doctorRepository;
+    @Autowired
+    private PatientRepository patientRepository;
+    @Autowired
+    private ReportCounterRepository counterRepository;
+    @Autowired
+    private ReportVisitRepository visitRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final YearMonth month = YearMonth.now().plusMonths(2);
+    private final LocalDate day1 = month.atDay(10);
+    private final LocalDate day2 = month.atDay(11);
+    private Doctor adams;
+    private Doctor brown;
+    private Patient ann;
+    private Patient bob;
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+        adams = doctorRepository.save(doctor("Dr. Adams", "dr.adams@example.com"));
+        brown = doctorRepository.save(doctor("Dr. Brown", "dr.brown@example.com"));
+        ann = patientRepository.save(patient("Ann Patient", "ann@example.com"));
+        bob = patientRepository.save(patient("Bob Patient", "bob@example.com"));
+    }
+
+    @AfterEach
+    void cleanUp() {
+        appointmentRepository.deleteAll();
+        doctorRepository.deleteAll();
+        patientRepository.deleteAll();
+        counterRepository.deleteAll();
+        visitRepository.deleteAll();
+        eventRepository.deleteAll();
+    }
+
+    @Test
+    void countersFollowBookingsMovesAndCancellations() {
+        book(adams, ann, day1.atTime(9, 0));
+        Appointment moving = book(adams, ann, day1.atTime(10, 0));
+        Appointment cancelled = book(adams, bob, day1.atTime(11, 0));
+        book(brown, ann, day1.atTime(9, 0));
+        book(adams, bob, day2.atTime(9, 0));
+        dispatcher.drain();
+
+        assertThat(activity(reportingService.getDailyReport(day1)))
+                .containsExactly(tuple("Dr. Adams", 3L, 2L), tuple("Dr. Brown", 1L, 1L));
+        assertThat(activity(reportingService.getMonthlyReport(month, 1))).containsExactly(tuple("Dr. Adams", 4L, 2L));
+        assertThat(activity(reportingService.getYearlyReport(month.getYear(), 2)))
+                .containsExactly(tuple("Dr. Adams", 4L, 2L), tuple("Dr. Brown", 1L, 1L));
+
+        String bobToken = tokenService.generateToken(bob.getEmail(), "patient", bob.getId());
+        assertThat(appointmentService.cancelAppointment(cancelled.getId(), bobToken).getStatusCode().is2xxSuccessful()).isTrue();
+
+        var moved = appointment(adams, ann, day2.atTime(10, 0));
+        moved.setId(moving.getId());
+        assertThat(appointmentService.updateAppointment(moved, bobToken).getStatusCode().value()).isEqualTo(403);
+        String annToken = tokenService.generateToken(ann.getEmail(), "patient", ann.getId());
+        assertThat(appointmentService.updateAppointment(moved, annToken).getStatusCode().is2xxSuccessful()).isTrue();
+        dispatcher.drain();
+
+        assertThat(activity(reportingService.getDailyReport(day1)))
+                .containsExactly(tuple("Dr. Adams", 1L, 1L), tuple("Dr. Brown", 1L, 1L));
+        assertThat(activity(reportingService.getDailyReport(day2))).containsExactly(tuple("Dr. Adams", 2L, 2L));
+        assertThat(activity(reportingService.getMonthlyReport(month, 1))).containsExactly(tuple("Dr. Adams", 3L, 2L));
+        assertThat(reportingService.reconcileRecent()).isZero();
+    }
+
+    @Test
+    void reconciliationRepairsDriftedCounters() {
+        book(adams, ann, day1.atTime(9, 0));
+        book(adams, bob, day1.atTime(10, 0));
+        dispatcher.drain();
+        transactionTemplate.executeWithoutResult(status -> {
+            counterRepository.add(adams.getId(), ReportPeriod.DAY.name(), day1, 5, -1);
+            counterRepository.add(brown.getId(), ReportPeriod.MONTH.name(), month.atDay(1), 1, 1);
+        });
+
+        assertThat(reportingService.reconcileRecent()).isEqualTo(2);
+
+        assertThat(activity(reportingService.getDailyReport(day1))).containsExactly(tuple("Dr. Adams", 2L, 2L));
+        assertThat(activity(reportingService.getMonthlyReport(month, 5))).containsExactly(tuple("Dr. Adams", 2L, 2L));
+        assertThat(reportingService.reconcile(ReportPeriod.DAY, day1)).isFalse();
+
+        // The rewritten visits keep later cancellations exact
+        book(adams, ann, day1.atTime(11, 0));
+        dispatcher.drain();
+        assertThat(activity(reportingService.getDailyReport(day1))).containsExactly(tuple("Dr. Adams", 3L, 2L));
+        assertThat(reportingService.reconcileRecent()).isZero();
+    }
+
+    @Test
+    void reconciliationLeavesPendingEventsToTheDispatcher() {
+        book(adams, ann, day1.atTime(9, 0));
+        Appointment cancelled = book(adams, bob, day1.atTime(10, 0));
+        dispatcher.drain();
+
+        // Changes whose events are still waiting are in the recount but not yet in the counters
+        book(adams, ann, day1.atTime(11, 0));
+        String bobToken = tokenService.generateToken(bob.getEmail(), "patient", bob.getId());
+        assertThat(appointmentService.cancelAppointment(cancelled.getId(), bobToken).getStatusCode().is2xxSuccessful()).isTrue();
+        assertThat(reportingService.reconcile(ReportPeriod.DAY, day1)).isFalse();
+
+        transactionTemplate.executeWithoutResult(status -> counterRepository.add(adams.getId(), ReportPeriod.DAY.name(), day1, 5, -1));
+        assertThat(reportingService.reconcile(ReportPeriod.DAY, day1)).isTrue();
+        assertThat(activity(reportingService.getDailyReport(day1))).containsExactly(tuple("Dr. Adams", 2L, 2L));
+
+        dispatcher.drain();
+        assertThat(activity(reportingService.getDailyReport(day1))).containsExactly(tuple("Dr. Adams", 2L, 1L));
+        assertThat(reportingService.reconcileRecent()).isZero();
+    }
+
+    private Appointment book(Doctor doctor, Patient patient, LocalDateTime time) {
+        Appointment appointment = appointment(doctor, patient, time);
+        assertThat(appointmentService.bookAppointment(appointment)).isEqualTo(1);
+        return appointment;
+    }
+
+    private static List<Tuple> activity(List<DoctorActivity> report) {
+        return report.stream()
+                .map(row -> tuple(row.getDoctorName(), row.getAppointments(), row.getUniquePatients()))
+                .toList();
+    }
+}
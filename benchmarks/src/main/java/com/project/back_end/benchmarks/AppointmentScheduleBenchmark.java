@@ -0,0 +1,126 @@
+package com.project.back_end.benchmarks;
+
+import com.project.back_end.DTO.AppointmentDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The doctor's day view behind {@code AppointmentService.getAppointment}.
+ * <ul>
+ *     <li>{@code dtoConstruction} builds one {@link AppointmentDTO} per row, as the JPQL
+ *     constructor projection in {@code AppointmentRepository.findSchedule} does.</li>
+ *     <li>{@code filterInMemory} is the patient-name filter the service used to run over the
+ *     whole day; {@code sqlPrefix} is the {@code LIKE 'prefix%'} query that replaced it, run on
+ *     an in-memory H2 table, so its numbers are a lower bound for MySQL.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AppointmentScheduleBenchmark {
+    private static final String SQL_PREFIX = "SELECT id, patient_name, appointment_time FROM appointment "
+            + "WHERE doctor_id = ? AND LOWER(patient_name) LIKE ? ESCAPE '!' AND appointment_time >= ? AND appointment_time < ? "
+            + "ORDER BY appointment_time";
+
+    @Param({"24", "500"})
+    public int rows;
+
+    @Param("emma")
+    public String name;
+
+    private List<Object[]> tuples;
+    private List<AppointmentDTO> day;
+    private Connection connection;
+    private PreparedStatement byPrefix;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        var random = new Random(3);
+        tuples = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            tuples.add(new Object[]{(long) i, 1L, (long) i, "Dr. Adams", Fixtures.patientName(random),
+                    "patient" + i + "@example.com", "5550100000", "1 Test Street", Fixtures.tomorrowAt(i % 24), 0});
+        }
+        day = dtoConstruction();
+
+        connection = DriverManager.getConnection("jdbc:h2:mem:schedule;MODE=MySQL");
+        try (var ddl = connection.createStatement()) {
+            ddl.execute("CREATE TABLE appointment (id BIGINT PRIMARY KEY, doctor_id BIGINT, patient_name VARCHAR(100), appointment_time TIMESTAMP)");
+            ddl.execute("CREATE INDEX idx_doctor_time ON appointment (doctor_id, appointment_time)");
+        }
+        try (var insert = connection.prepareStatement("INSERT INTO appointment VALUES (?, ?, ?, ?)")) {
+            for (Object[] tuple : tuples) {
+                insert.setLong(1, (Long) tuple[0]);
+                insert.setLong(2, (Long) tuple[1]);
+                insert.setString(3, (String) tuple[4]);
+                insert.setTimestamp(4, Timestamp.valueOf((LocalDateTime) tuple[8]));
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        byPrefix = connection.prepareStatement(SQL_PREFIX);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public List<AppointmentDTO> dtoConstruction() {
+        var dtos = new ArrayList<AppointmentDTO>(tuples.size());
+        for (Object[] t : tuples) {
+            dtos.add(new AppointmentDTO((Long) t[0], (Long) t[1], (Long) t[2], (String) t[3], (String) t[4],
+                    (String) t[5], (String) t[6], (String) t[7], (LocalDateTime) t[8], (Integer) t[9]));
+        }
+        return dtos;
+    }
+
+    @Benchmark
+    public List<AppointmentDTO> filterInMemory() {
+        return day.stream()
+                .filter(appointment -> appointment.getPatientName().toLowerCase().startsWith(name))
+                .toList();
+    }
+
+    @Benchmark
+    public List<Long> sqlPrefix() throws SQLException {
+        byPrefix.setLong(1, 1L);
+        byPrefix.setString(2, name + "%");
+        byPrefix.setTimestamp(3, Timestamp.valueOf(Fixtures.tomorrowAt(0)));
+        byPrefix.setTimestamp(4, Timestamp.valueOf(Fixtures.tomorrowAt(0).plusDays(1)));
+        var ids = new ArrayList<Long>();
+        try (ResultSet result = byPrefix.executeQuery()) {
+            while (result.next()) {
+                ids.add(result.getLong(1));
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,210 @@
+package com.project.back_end.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.project.back_end.DTO.AppointmentDTO;
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing a doctor's appointment list as the {@code {"appointments": [...]}} response body.
+ * <ul>
+ *     <li>{@code entityGraph} writes {@link Appointment} entities, nesting the doctor with its
+ *     available times and the patient in every element.</li>
+ *     <li>{@code beanDto} writes the DTO as it was before, with the derived date, time and end time
+ *     stored on it and found by bean introspection.</li>
+ *     <li>{@code compactDto} writes {@link AppointmentDTO} through {@code AppointmentDTOSerializer}.</li>
+ * </ul>
+ * Each operation writes {@code appointments} elements into a reused buffer and returns the body
+ * size in bytes, which is also printed at setup. Run with {@code -prof gc} for bytes allocated
+ * per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AppointmentSerializationBenchmark {
+    @Param("1000")
+    public int appointments;
+
+    // Spring Boot's defaults: java.time values as ISO strings
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(1 << 20);
+    private Map<String, Object> entities;
+    private Map<String, Object> beans;
+    private Map<String, Object> dtos;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        var random = new Random(5);
+        Doctor doctor = Fixtures.doctors(1).get(0);
+        var entityList = new ArrayList<Appointment>(appointments);
+        var beanList = new ArrayList<BeanAppointmentDTO>(appointments);
+        var dtoList = new ArrayList<AppointmentDTO>(appointments);
+        for (int i = 0; i < appointments; i++) {
+            var patient = new Patient();
+            patient.setId((long) i);
+            patient.setName(Fixtures.patientName(random));
+            patient.setEmail("patient" + i + "@example.com");
+            patient.setPassword("secret123");
+            patient.setPhone("5550100000");
+            patient.setAddress(i + " Test Street");
+            LocalDateTime time = Fixtures.tomorrowAt(i % 24).plusDays(i / 24);
+
+            var appointment = new Appointment();
+            appointment.setId((long) i);
+            appointment.setDoctor(doctor);
+            appointment.setPatient(patient);
+            appointment.setAppointmentTime(time);
+            entityList.add(appointment);
+            beanList.add(new BeanAppointmentDTO((long) i, doctor.getId(), patient.getId(), doctor.getName(), patient.getName(),
+                    patient.getEmail(), patient.getPhone(), patient.getAddress(), time, 0));
+            dtoList.add(new AppointmentDTO((long) i, doctor.getId(), patient.getId(), doctor.getName(), patient.getName(),
+                    patient.getEmail(), patient.getPhone(), patient.getAddress(), time, 0));
+        }
+        entities = Map.of("appointments", entityList);
+        beans = Map.of("appointments", beanList);
+        dtos = Map.of("appointments", dtoList);
+
+        System.out.printf("%nResponse bytes for %d appointments: entityGraph=%d beanDto=%d compactDto=%d%n",
+                appointments, entityGraph(), beanDto(), compactDto());
+    }
+
+    @Benchmark
+    public int entityGraph() throws IOException {
+        return write(entities);
+    }
+
+    @Benchmark
+    public int beanDto() throws IOException {
+        return write(beans);
+    }
+
+    @Benchmark
+    public int compactDto() throws IOException {
+        return write(dtos);
+    }
+
+    private int write(Object body) throws IOException {
+        buffer.reset();
+        objectMapper.writeValue(buffer, body);
+        return buffer.size();
+    }
+
+    // AppointmentDTO as it was before the compact serializer
+    public static class BeanAppointmentDTO {
+        private final Long id;
+        private final Long doctorId;
+        private final Long patientId;
+        private final String doctorName;
+        private final String patientName;
+        private final String patientEmail;
+        private final String patientPhone;
+        private final String patientAddress;
+        private final LocalDateTime appointmentTime;
+        private final int status;
+        private final LocalDate appointmentDate;
+        private final LocalTime appointmentTimeOnly;
+        private final LocalDateTime endTime;
+
+        BeanAppointmentDTO(Long id, Long doctorId, Long patientId, String doctorName, String patientName, String patientEmail,
+                           String patientPhone, String patientAddress, LocalDateTime appointmentTime, int status) {
+            this.id = id;
+            this.doctorId = doctorId;
+            this.patientId = patientId;
+            this.doctorName = doctorName;
+            this.patientName = patientName;
+            this.patientEmail = patientEmail;
+            this.patientPhone = patientPhone;
+            this.patientAddress = patientAddress;
+            this.appointmentTime = appointmentTime;
+            this.status = status;
+            this.appointmentDate = appointmentTime.toLocalDate();
+            this.appointmentTimeOnly = appointmentTime.toLocalTime();
+            this.endTime = appointmentTime.plusHours(1);
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public Long getDoctorId() {
+            return doctorId;
+        }
+
+        public Long getPatientId() {
+            return patientId;
+        }
+
+        public String getDoctorName() {
+            return doctorName;
+        }
+
+        public String getPatientName() {
+            return patientName;
+        }
+
+        public String getPatientEmail() {
+            return patientEmail;
+        }
+
+        public String getPatientPhone() {
+            return patientPhone;
+        }
+
+        public String getPatientAddress() {
+            return patientAddress;
+        }
+
+        public LocalDateTime getAppointmentTime() {
+            return appointmentTime;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public LocalDate getAppointmentDate() {
+            return appointmentDate;
+        }
+
+        public LocalTime getAppointmentTimeOnly() {
+            return appointmentTimeOnly;
+        }
+
+        public LocalDateTime getEndTime() {
+            return endTime;
+        }
+    }
+}
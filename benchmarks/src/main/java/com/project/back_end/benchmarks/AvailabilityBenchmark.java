@@ -0,0 +1,96 @@
+package com.project.back_end.benchmarks;
+
+import com.project.back_end.models.Doctor;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.services.AvailabilityService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The availability filter behind {@code DoctorService.getDoctorAvailability}: the slot-mask
+ * calendar in {@link AvailabilityService} against the list filter it replaced, which compared
+ * every working slot with every booking of the day. Both run on the same doctors and bookings,
+ * with the repositories replaced by canned results so only the filtering is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AvailabilityBenchmark {
+    private static final int DAYS = 7;
+
+    @Param("1000")
+    public int doctors;
+
+    @Param({"0.2", "0.8"})
+    public double fill;
+
+    private AvailabilityService availabilityService;
+    private Doctor doctor;
+    private List<LocalDateTime> dayBookings;
+    private LocalDate day;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Doctor> dataset = Fixtures.doctors(doctors);
+        List<Object[]> bookings = Fixtures.bookings(dataset, DAYS, fill);
+
+        var availableTimes = new ArrayList<Object[]>();
+        for (Doctor d : dataset) {
+            for (String time : d.getAvailableTimes()) {
+                availableTimes.add(new Object[]{d.getId(), time});
+            }
+        }
+        availabilityService = new AvailabilityService(
+                Fixtures.repository(DoctorRepository.class, Map.of("findAllAvailableTimes", availableTimes)),
+                Fixtures.repository(AppointmentRepository.class, Map.of("findSlotsFrom", bookings)),
+                null);
+        availabilityService.rebuild();
+
+        doctor = dataset.get(doctors / 2);
+        day = LocalDate.now().plusDays(1);
+        dayBookings = bookings.stream()
+                .filter(row -> row[0].equals(doctor.getId()) && ((LocalDateTime) row[1]).toLocalDate().equals(day))
+                .map(row -> (LocalDateTime) row[1])
+                .toList();
+    }
+
+    @Benchmark
+    public List<String> calendarDay() {
+        return availabilityService.getAvailableTimes(doctor.getId(), day);
+    }
+
+    @Benchmark
+    public Map<LocalDate, List<String>> calendarWeek() {
+        return availabilityService.getAvailableTimes(doctor.getId(), day, day.plusDays(DAYS - 1));
+    }
+
+    @Benchmark
+    public List<String> listFilterDay() {
+        return doctor.getAvailableTimes()
+                .stream()
+                .filter(time -> dayBookings.stream()
+                        .noneMatch(booked -> booked.toLocalTime().toString().equals(time.split("-")[0])))
+                .toList();
+    }
+}
@@ -0,0 +1,188 @@
+package com.project.back_end.benchmarks;
+
+import com.project.back_end.DTO.ImportReport;
+import com.project.back_end.services.ClinicImportService;
+import com.project.back_end.services.CredentialService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rows per second of a patient import: {@link ClinicImportService} streaming a CSV file into
+ * batched INSERTs, against the statement-per-row writes Hibernate issues for IDENTITY ids (one
+ * INSERT and generated-key read per entity, one commit per batch). The per-row path is handed
+ * the values already parsed, so its numbers are an upper bound.
+ * <p>
+ * Both run on an in-memory H2 table, which has no network round trips. {@code roundTripMicros}
+ * adds one of that length to every statement execution, batch and commit, as a MySQL server on
+ * the network costs; a batch counts as one, which is what {@code rewriteBatchedStatements=true}
+ * makes of it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ClinicImportBenchmark {
+    private static final int ROWS = 5_000;
+    private static final String INSERT_PATIENT = "INSERT INTO patient (name, email, password, phone, address) VALUES (?, ?, ?, ?, ?)";
+
+    @Param("1000")
+    public int batchSize;
+
+    @Param({"0", "200"})
+    public long roundTripMicros;
+
+    private byte[] csv;
+    private SingleConnectionDataSource h2;
+    private DataSource dataSource;
+    private ClinicImportService importService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        var content = new StringBuilder("name,email,password,phone,address\n");
+        for (int i = 0; i < ROWS; i++) {
+            content.append("Patient ").append(i).append(",patient").append(i).append("@bench.test,,")
+                    .append(5550000000L + i).append(",").append(i).append(" Main Street\n");
+        }
+        csv = content.toString().getBytes(StandardCharsets.UTF_8);
+
+        h2 = new SingleConnectionDataSource("jdbc:h2:mem:import;MODE=MySQL;DATABASE_TO_LOWER=TRUE", true);
+        dataSource = new RoundTripDataSource(h2, TimeUnit.MICROSECONDS.toNanos(roundTripMicros));
+        try (Statement ddl = h2.getConnection().createStatement()) {
+            ddl.execute("CREATE TABLE patient (id BIGINT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(100) NOT NULL, "
+                    + "email VARCHAR(255) NOT NULL, password VARCHAR(255), phone VARCHAR(255) NOT NULL, address VARCHAR(255) NOT NULL)");
+            ddl.execute("CREATE INDEX idx_patient_email ON patient (email)");
+        }
+        var credentialService = new CredentialService("bcrypt", 10, 19456, 2, 1, 64, new SimpleMeterRegistry());
+        importService = new ClinicImportService(new JdbcTemplate(dataSource),
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)),
+                Validation.buildDefaultValidatorFactory().getValidator(), credentialService,
+                null, null, null, null, null, batchSize, 100);
+    }
+
+    @Setup(Level.Invocation)
+    public void emptyTable() throws SQLException {
+        try (Statement truncate = h2.getConnection().createStatement()) {
+            truncate.execute("TRUNCATE TABLE patient");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        h2.destroy();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long batchedImport() throws IOException {
+        ImportReport report = importService.importPatients(new ByteArrayInputStream(csv), progress -> { });
+        if (report.getInserted() != ROWS) {
+            throw new IllegalStateException("Imported " + report);
+        }
+        return report.getInserted();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long statementPerRow() throws SQLException {
+        Connection connection = dataSource.getConnection();
+        connection.setAutoCommit(false);
+        long lastId = 0;
+        try (PreparedStatement insert = connection.prepareStatement(INSERT_PATIENT, Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < ROWS; i++) {
+                insert.setString(1, "Patient " + i);
+                insert.setString(2, "patient" + i + "@bench.test");
+                insert.setString(3, null);
+                insert.setString(4, String.valueOf(5550000000L + i));
+                insert.setString(5, i + " Main Street");
+                insert.executeUpdate();
+                try (ResultSet keys = insert.getGeneratedKeys()) {
+                    keys.next();
+                    lastId = keys.getLong(1);
+                }
+                if ((i + 1) % batchSize == 0) {
+                    connection.commit();
+                }
+            }
+            connection.commit();
+        } finally {
+            connection.setAutoCommit(true);
+        }
+        return lastId;
+    }
+
+    /**
+     * Waits {@code roundTripNanos} on each execute, executeBatch and commit of the connections it
+     * hands out. Spins rather than sleeps, since sleeps that short overshoot.
+     */
+    static class RoundTripDataSource extends DelegatingDataSource {
+        private final long roundTripNanos;
+
+        RoundTripDataSource(DataSource target, long roundTripNanos) {
+            super(target);
+            this.roundTripNanos = roundTripNanos;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return delayed(Connection.class, super.getConnection());
+        }
+
+        private <T> T delayed(Class<T> type, T target) {
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+                if (method.getName().startsWith("execute") || method.getName().equals("commit")) {
+                    long end = System.nanoTime() + roundTripNanos;
+                    while (System.nanoTime() < end) {
+                        Thread.onSpinWait();
+                    }
+                }
+                Object result;
+                try {
+                    result = method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+                if (result instanceof PreparedStatement statement) {
+                    return delayed(PreparedStatement.class, statement);
+                }
+                if (result instanceof Statement statement) {
+                    return delayed(Statement.class, statement);
+                }
+                return result;
+            }));
+        }
+    }
+}
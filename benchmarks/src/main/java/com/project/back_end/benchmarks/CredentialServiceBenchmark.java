@@ -0,0 +1,66 @@
+package com.project.back_end.benchmarks;
+
+import com.project.back_end.services.CredentialService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Password checks per second on one core, through {@link CredentialService#verify} on a
+ * one-thread hashing pool, as a login does. {@code setting} is {@code bcrypt:<strength>} or
+ * {@code argon2:<memory MiB>}, with two Argon2 passes. The score is the login rate one core can
+ * sustain; the pool's {@code credentials.hash.threads} multiplies it.
+ * <pre>
+ * java -jar target/benchmarks.jar CredentialServiceBenchmark -p setting=bcrypt:10,bcrypt:11,bcrypt:12
+ * java -jar target/benchmarks.jar CredentialServiceBenchmark -p setting=argon2:19,argon2:46
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(1)
+public class CredentialServiceBenchmark {
+    @Param({"bcrypt:10", "bcrypt:12", "argon2:19"})
+    public String setting;
+
+    private CredentialService credentialService;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        String algorithm = setting.substring(0, setting.indexOf(':'));
+        int cost = Integer.parseInt(setting.substring(setting.indexOf(':') + 1));
+        boolean bcrypt = algorithm.equals("bcrypt");
+        credentialService = new CredentialService(algorithm, bcrypt ? cost : 10, bcrypt ? 19456 : cost * 1024, 2,
+                1, 64, new SimpleMeterRegistry());
+        hash = credentialService.encode("secret123");
+    }
+
+    @TearDown
+    public void tearDown() {
+        credentialService.shutdown();
+    }
+
+    @Benchmark
+    public boolean login() {
+        return credentialService.verify(hash, "secret123", rehash -> {
+            throw new IllegalStateException("current hashes are not upgraded");
+        }).join();
+    }
+}
@@ -0,0 +1,118 @@
+package com.project.back_end.benchmarks;
+
+import com.project.back_end.models.Doctor;
+import com.project.back_end.services.DoctorSearchIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Doctor search through {@link DoctorSearchIndex} against the SQL that the JPQL queries in
+ * {@code DoctorRepository} produce ({@code LOWER(name) LIKE '%..%'}), run on an in-memory H2
+ * table holding the same doctors. H2 keeps the table in memory, so the SQL numbers are a lower
+ * bound for MySQL.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DoctorSearchBenchmark {
+    private static final String SQL_NAME = "SELECT id, name, specialty FROM doctor WHERE LOWER(name) LIKE CONCAT('%', LOWER(?), '%')";
+    private static final String SQL_NAME_AND_SPECIALTY = SQL_NAME + " AND LOWER(specialty) = LOWER(?)";
+
+    @Param("100000")
+    public int doctors;
+
+    @Param({"smith", "ann"})
+    public String name;
+
+    @Param("Cardiologist")
+    public String specialty;
+
+    private DoctorSearchIndex index;
+    private Connection connection;
+    private PreparedStatement byName;
+    private PreparedStatement byNameAndSpecialty;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        List<Doctor> dataset = Fixtures.doctors(doctors);
+        index = new DoctorSearchIndex(null);
+        index.load(dataset);
+
+        connection = DriverManager.getConnection("jdbc:h2:mem:search;MODE=MySQL");
+        try (var ddl = connection.createStatement()) {
+            ddl.execute("CREATE TABLE doctor (id BIGINT PRIMARY KEY, name VARCHAR(100), specialty VARCHAR(50))");
+        }
+        try (var insert = connection.prepareStatement("INSERT INTO doctor VALUES (?, ?, ?)")) {
+            for (Doctor doctor : dataset) {
+                insert.setLong(1, doctor.getId());
+                insert.setString(2, doctor.getName());
+                insert.setString(3, doctor.getSpecialty());
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        byName = connection.prepareStatement(SQL_NAME);
+        byNameAndSpecialty = connection.prepareStatement(SQL_NAME_AND_SPECIALTY);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public List<Doctor> indexName() {
+        return index.search(name, null, null);
+    }
+
+    @Benchmark
+    public List<Long> sqlName() throws SQLException {
+        byName.setString(1, name);
+        return ids(byName);
+    }
+
+    @Benchmark
+    public List<Doctor> indexNameAndSpecialty() {
+        return index.search(name, specialty, null);
+    }
+
+    @Benchmark
+    public List<Long> sqlNameAndSpecialty() throws SQLException {
+        byNameAndSpecialty.setString(1, name);
+        byNameAndSpecialty.setString(2, specialty);
+        return ids(byNameAndSpecialty);
+    }
+
+    private static List<Long> ids(PreparedStatement statement) throws SQLException {
+        var ids = new ArrayList<Long>();
+        try (ResultSet rows = statement.executeQuery()) {
+            while (rows.next()) {
+                ids.add(rows.getLong(1));
+            }
+        }
+        return ids;
+    }
+}
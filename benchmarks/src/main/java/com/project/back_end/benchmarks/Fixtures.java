@@ -0,0 +1,110 @@
+package com.project.back_end.benchmarks;
+
+import com.project.back_end.models.Doctor;
+import com.project.back_end.services.TokenService;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+final class Fixtures {
+    static final String JWT_SECRET = "$!@#$^%$$$%####$DDCPN0234FCFDPD8670M";
+
+    static final String[] FIRST_NAMES = {"Emily", "Mark", "Sarah", "Tom", "Alice", "Taylor", "Sam", "Emma", "Olivia", "Henry",
+            "Ella", "Leo", "Ivy", "Owen", "Ava", "Mia", "Jack", "Nora", "Liam", "Zoe", "Lily", "Lucas", "Grace", "Ethan", "Ruby",
+            "Anna", "Joanne", "Daniel", "Hannah", "Noah"};
+    static final String[] LAST_NAMES = {"Adams", "Johnson", "Lee", "Wilson", "Brown", "Grant", "White", "Clark", "Davis", "Miller",
+            "Moore", "Martin", "Jackson", "Thomas", "Hall", "Green", "Baker", "Walker", "Young", "King", "Scott", "Evans", "Turner",
+            "Hill", "Ward", "Smith", "Shannon", "Carter", "Nguyen", "Patel", "Garcia", "Kowalski", "Okafor", "Haddad", "Larsen"};
+    static final String[] SPECIALTIES = {"Cardiologist", "Neurologist", "Orthopedist", "Pediatrician", "Dermatologist",
+            "Oncologist", "Psychiatrist", "Radiologist", "Urologist", "Gynecologist"};
+    static final String[] SLOTS = {"09:00-10:00", "10:00-11:00", "11:00-12:00", "12:00-13:00", "14:00-15:00", "15:00-16:00",
+            "16:00-17:00"};
+
+    private Fixtures() {
+    }
+
+    static TokenService tokenService(int cacheMaxSize) {
+        var tokenService = new TokenService();
+        set(tokenService, "jwtSecret", JWT_SECRET);
+        set(tokenService, "cacheMaxSize", cacheMaxSize);
+        tokenService.init();
+        return tokenService;
+    }
+
+    // Deterministic doctors with ids 1..count, repeating names the way a real directory does
+    static List<Doctor> doctors(int count) {
+        var random = new Random(42);
+        var doctors = new ArrayList<Doctor>(count);
+        for (int i = 1; i <= count; i++) {
+            var doctor = new Doctor();
+            doctor.setId((long) i);
+            doctor.setName("Dr. " + FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)]);
+            doctor.setSpecialty(SPECIALTIES[random.nextInt(SPECIALTIES.length)]);
+            doctor.setEmail("doctor" + i + "@example.com");
+            doctor.setPassword("secret123");
+            doctor.setPhone(String.format("%010d", i));
+            var times = new ArrayList<String>();
+            for (String slot : SLOTS) {
+                if (random.nextBoolean()) {
+                    times.add(slot);
+                }
+            }
+            doctor.setAvailableTimes(times);
+            doctors.add(doctor);
+        }
+        return doctors;
+    }
+
+    // Deterministic bookings over the next {@code days} days, at most one per doctor and slot
+    static List<Object[]> bookings(List<Doctor> doctors, int days, double fill) {
+        var random = new Random(7);
+        var start = LocalDate.now().plusDays(1);
+        var bookings = new ArrayList<Object[]>();
+        for (Doctor doctor : doctors) {
+            for (int day = 0; day < days; day++) {
+                for (String slot : doctor.getAvailableTimes()) {
+                    if (random.nextDouble() < fill) {
+                        var time = start.plusDays(day).atTime(Integer.parseInt(slot.substring(0, 2)), 0);
+                        bookings.add(new Object[]{doctor.getId(), time});
+                    }
+                }
+            }
+        }
+        return bookings;
+    }
+
+    static String patientName(Random random) {
+        return FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+    }
+
+    static LocalDateTime tomorrowAt(int hour) {
+        return LocalDate.now().plusDays(1).atTime(hour, 0);
+    }
+
+    // Stands in for a Spring Data repository: each call returns the canned result for the method name
+    @SuppressWarnings("unchecked")
+    static <T> T repository(Class<T> type, Map<String, Object> results) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (!results.containsKey(method.getName())) {
+                throw new UnsupportedOperationException(method.getName());
+            }
+            return results.get(method.getName());
+        });
+    }
+
+    static void set(Object target, String field, Object value) {
+        try {
+            Field f = target.getClass().getDeclaredField(field);
+            f.setAccessible(true);
+            f.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
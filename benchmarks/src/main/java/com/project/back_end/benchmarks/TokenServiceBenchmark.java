@@ -0,0 +1,53 @@
+package com.project.back_end.benchmarks;
+
+import com.project.back_end.services.TokenService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token validation with the verified-claims cache disabled (every call checks the signature and
+ * parses the payload) against the cached path that most requests take.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenServiceBenchmark {
+    private TokenService cold;
+    private TokenService cached;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        cold = Fixtures.tokenService(0);
+        cached = Fixtures.tokenService(10_000);
+        token = cached.generateToken("dr.adams@example.com", "doctor", 1L);
+    }
+
+    @Benchmark
+    public boolean validateCold() {
+        return cold.validateToken(token, "doctor");
+    }
+
+    @Benchmark
+    public boolean validateCached() {
+        return cached.validateToken(token, "doctor");
+    }
+
+    @Benchmark
+    public String generate() {
+        return cached.generateToken("dr.adams@example.com", "doctor", 1L);
+    }
+}
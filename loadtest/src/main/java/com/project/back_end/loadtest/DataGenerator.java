@@ -0,0 +1,242 @@
+package com.project.back_end.loadtest;
+
+import com.project.back_end.models.Prescription;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Writes a seeded synthetic dataset into an empty schema through batched JDBC inserts, and
+ * prescriptions through unordered Mongo bulk inserts. The same seed and volumes always produce
+ * the same rows.
+ * <p>
+ * Each doctor gets a share of the appointments in proportion to its Zipf weight, capped by the
+ * slots it works over the generated days; what a full doctor cannot take goes to the others.
+ * Within a doctor's calendar each slot is booked with a probability scaled by its popularity,
+ * so the rows are streamed without remembering which slots are taken. Patients are drawn
+ * uniformly. Appointments before today are marked completed, and a share of them get a
+ * prescription.
+ */
+final class DataGenerator {
+    private static final Logger log = LoggerFactory.getLogger(DataGenerator.class);
+    private static final int BATCH_SIZE = 1000;
+
+    record Summary(int doctors, int patients, long appointments, long prescriptions) {
+    }
+
+    private final Dataset dataset;
+    private final DataSource dataSource;
+    private final MongoTemplate mongoTemplate;
+    // Every user has the same password, so it is hashed once
+    private final String passwordHash;
+
+    DataGenerator(Dataset dataset, DataSource dataSource, MongoTemplate mongoTemplate, String passwordHash) {
+        this.dataset = dataset;
+        this.dataSource = dataSource;
+        this.mongoTemplate = mongoTemplate;
+        this.passwordHash = passwordHash;
+    }
+
+    Summary generate(long appointments, double prescriptionRate) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            insertDoctors(connection);
+            insertPatients(connection);
+            long[] written = insertAppointments(connection, quotas(appointments), prescriptionRate);
+            if (connection.getMetaData().getDatabaseProductName().equals("H2")) {
+                restartIdentity(connection, "doctor", dataset.doctors);
+                restartIdentity(connection, "patient", dataset.patients);
+                restartIdentity(connection, "appointment", written[0]);
+            }
+            connection.commit();
+            return new Summary(dataset.doctors, dataset.patients, written[0], written[1]);
+        }
+    }
+
+    private void insertDoctors(Connection connection) throws SQLException {
+        try (PreparedStatement doctor = connection.prepareStatement(
+                "INSERT INTO doctor (id, name, specialty, email, password, phone) VALUES (?, ?, ?, ?, ?, ?)");
+             PreparedStatement times = connection.prepareStatement(
+                     "INSERT INTO doctor_available_times (doctor_id, available_times) VALUES (?, ?)")) {
+            for (long id = 1; id <= dataset.doctors; id++) {
+                doctor.setLong(1, id);
+                doctor.setString(2, dataset.doctorName(id));
+                doctor.setString(3, dataset.doctorSpecialty(id));
+                doctor.setString(4, Dataset.doctorEmail(id));
+                doctor.setString(5, passwordHash);
+                doctor.setString(6, Dataset.phone(id));
+                doctor.addBatch();
+                for (int hour : dataset.workingHours(id)) {
+                    times.setLong(1, id);
+                    times.setString(2, Dataset.slotLabel(hour));
+                    times.addBatch();
+                }
+                if (id % BATCH_SIZE == 0) {
+                    flush(connection, doctor, times);
+                }
+            }
+            flush(connection, doctor, times);
+        }
+        log.info("Inserted {} doctors", dataset.doctors);
+    }
+
+    private void insertPatients(Connection connection) throws SQLException {
+        try (PreparedStatement patient = connection.prepareStatement(
+                "INSERT INTO patient (id, name, email, password, phone, address) VALUES (?, ?, ?, ?, ?, ?)")) {
+            for (long id = 1; id <= dataset.patients; id++) {
+                patient.setLong(1, id);
+                patient.setString(2, dataset.patientName(id));
+                patient.setString(3, Dataset.patientEmail(id));
+                patient.setString(4, passwordHash);
+                patient.setString(5, Dataset.phone(id));
+                patient.setString(6, id + " Test Street");
+                patient.addBatch();
+                if (id % BATCH_SIZE == 0) {
+                    flush(connection, patient);
+                }
+                if (id % 1_000_000 == 0) {
+                    log.info("Inserted {} patients", id);
+                }
+            }
+            flush(connection, patient);
+        }
+        log.info("Inserted {} patients", dataset.patients);
+    }
+
+    // Water-filling: share the total by weight, cap at capacity, share what is left among the rest
+    private long[] quotas(long total) {
+        int days = (int) (dataset.lastDay.toEpochDay() - dataset.firstDay.toEpochDay() + 1);
+        long[] capacity = new long[dataset.doctors];
+        long[] quota = new long[dataset.doctors];
+        boolean[] full = new boolean[dataset.doctors];
+        for (int rank = 0; rank < dataset.doctors; rank++) {
+            capacity[rank] = (long) days * dataset.workingHours(rank + 1).size();
+        }
+
+        long remaining = total;
+        while (remaining > 0) {
+            double openWeight = 0;
+            for (int rank = 0; rank < dataset.doctors; rank++) {
+                openWeight += full[rank] ? 0 : dataset.doctorPopularity.weight(rank);
+            }
+            if (openWeight == 0) {
+                log.warn("Only {} of {} appointments fit in {} days; pass a larger --days", total - remaining, total, days);
+                break;
+            }
+            long assigned = 0;
+            for (int rank = 0; rank < dataset.doctors; rank++) {
+                if (full[rank]) {
+                    continue;
+                }
+                long share = Math.max(1, Math.round(remaining * dataset.doctorPopularity.weight(rank) / openWeight));
+                share = Math.min(share, Math.min(capacity[rank] - quota[rank], remaining - assigned));
+                quota[rank] += share;
+                assigned += share;
+                full[rank] = quota[rank] == capacity[rank];
+                if (assigned == remaining) {
+                    break;
+                }
+            }
+            remaining -= assigned;
+        }
+        return quota;
+    }
+
+    private long[] insertAppointments(Connection connection, long[] quotas, double prescriptionRate) throws SQLException {
+        var random = new SplittableRandom(dataset.seed);
+        var prescriptions = new ArrayList<Prescription>(BATCH_SIZE);
+        LocalDate today = LocalDate.now();
+        long id = 0;
+        long prescribed = 0;
+        try (PreparedStatement appointment = connection.prepareStatement(
+                "INSERT INTO appointment (id, doctor_id, patient_id, appointment_time, status) VALUES (?, ?, ?, ?, ?)")) {
+            for (int rank = 0; rank < quotas.length; rank++) {
+                if (quotas[rank] == 0) {
+                    continue;
+                }
+                long doctorId = rank + 1;
+                List<Integer> hours = dataset.workingHours(doctorId);
+                double meanPopularity = hours.stream().mapToDouble(Dataset::slotPopularity).average().orElse(1);
+                int days = (int) (dataset.lastDay.toEpochDay() - dataset.firstDay.toEpochDay() + 1);
+                double fill = (double) quotas[rank] / ((long) days * hours.size());
+
+                for (LocalDate day = dataset.firstDay; !day.isAfter(dataset.lastDay); day = day.plusDays(1)) {
+                    for (int hour : hours) {
+                        if (random.nextDouble() >= fill * Dataset.slotPopularity(hour) / meanPopularity) {
+                            continue;
+                        }
+                        long patientId = 1 + random.nextLong(dataset.patients);
+                        LocalDateTime time = day.atTime(hour, 0);
+                        boolean past = day.isBefore(today);
+                        appointment.setLong(1, ++id);
+                        appointment.setLong(2, doctorId);
+                        appointment.setLong(3, patientId);
+                        appointment.setTimestamp(4, Timestamp.valueOf(time));
+                        appointment.setInt(5, past ? 1 : 0);
+                        appointment.addBatch();
+                        if (id % BATCH_SIZE == 0) {
+                            flush(connection, appointment);
+                        }
+                        if (id % 1_000_000 == 0) {
+                            log.info("Inserted {} appointments", id);
+                        }
+
+                        if (mongoTemplate != null && past && random.nextDouble() < prescriptionRate) {
+                            prescriptions.add(prescription(id, patientId, time, random));
+                            prescribed++;
+                            if (prescriptions.size() == BATCH_SIZE) {
+                                insert(prescriptions);
+                            }
+                        }
+                    }
+                }
+            }
+            flush(connection, appointment);
+        }
+        if (!prescriptions.isEmpty()) {
+            insert(prescriptions);
+        }
+        log.info("Inserted {} appointments and {} prescriptions", id, prescribed);
+        return new long[]{id, prescribed};
+    }
+
+    private Prescription prescription(long appointmentId, long patientId, LocalDateTime time, SplittableRandom random) {
+        var prescription = new Prescription(dataset.patientName(patientId), appointmentId,
+                Dataset.MEDICATIONS[random.nextInt(Dataset.MEDICATIONS.length)],
+                Dataset.DOSAGES[random.nextInt(Dataset.DOSAGES.length)],
+                "Take after meals");
+        prescription.setPatientId(patientId);
+        prescription.setIssuedAt(time.plusMinutes(45));
+        return prescription;
+    }
+
+    private void insert(List<Prescription> prescriptions) {
+        mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Prescription.class).insert(prescriptions).execute();
+        prescriptions.clear();
+    }
+
+    private static void flush(Connection connection, PreparedStatement... statements) throws SQLException {
+        for (PreparedStatement statement : statements) {
+            statement.executeBatch();
+        }
+        connection.commit();
+    }
+
+    private static void restartIdentity(Connection connection, String table, long lastId) throws SQLException {
+        try (var statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + (lastId + 1));
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.project.back_end.loadtest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * The deterministic parts of the synthetic dataset, derived from ids and the seed alone, so the
+ * generator and the load driver agree on them without sharing state: names, emails, passwords,
+ * working slots and the popularity of doctors and slots.
+ * <p>
+ * Doctor popularity follows a Zipf distribution over ids, doctor 1 being the most popular.
+ * Morning slots are booked more often than afternoon ones.
+ */
+final class Dataset {
+    static final String PASSWORD = "password";
+
+    static final String[] FIRST_NAMES = {"Emily", "Mark", "Sarah", "Tom", "Alice", "Taylor", "Sam", "Emma", "Olivia", "Henry",
+            "Ella", "Leo", "Ivy", "Owen", "Ava", "Mia", "Jack", "Nora", "Liam", "Zoe", "Lily", "Lucas", "Grace", "Ethan", "Ruby",
+            "Anna", "Joanne", "Daniel", "Hannah", "Noah"};
+    static final String[] LAST_NAMES = {"Adams", "Johnson", "Lee", "Wilson", "Brown", "Grant", "White", "Clark", "Davis", "Miller",
+            "Moore", "Martin", "Jackson", "Thomas", "Hall", "Green", "Baker", "Walker", "Young", "King", "Scott", "Evans", "Turner",
+            "Hill", "Ward", "Smith", "Shannon", "Carter", "Nguyen", "Patel", "Garcia", "Kowalski", "Okafor", "Haddad", "Larsen"};
+    static final String[] SPECIALTIES = {"Cardiologist", "Neurologist", "Orthopedist", "Pediatrician", "Dermatologist",
+            "Oncologist", "Psychiatrist", "Radiologist", "Urologist", "Gynecologist"};
+    static final String[] MEDICATIONS = {"Amoxicillin", "Ibuprofen", "Metformin", "Lisinopril", "Atorvastatin", "Omeprazole",
+            "Amlodipine", "Sertraline", "Paracetamol", "Cetirizine"};
+    static final String[] DOSAGES = {"250mg", "500mg", "10mg", "20mg", "40mg", "5ml"};
+
+    // Working hours and how often each one is booked relative to the average
+    static final int[] SLOT_HOURS = {9, 10, 11, 12, 14, 15, 16};
+    static final double[] SLOT_POPULARITY = {1.6, 1.5, 1.2, 0.8, 0.9, 0.7, 0.5};
+
+    final int doctors;
+    final int patients;
+    final long seed;
+    final Zipf doctorPopularity;
+    final LocalDate firstDay;
+    final LocalDate lastDay;
+
+    Dataset(int doctors, int patients, int days, int daysAhead, double skew, long seed) {
+        this.doctors = doctors;
+        this.patients = patients;
+        this.seed = seed;
+        this.doctorPopularity = new Zipf(doctors, skew);
+        this.lastDay = LocalDate.now().plusDays(daysAhead);
+        this.firstDay = lastDay.minusDays(days - 1);
+    }
+
+    String doctorName(long id) {
+        var random = random(id, 1);
+        return "Dr. " + FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+    }
+
+    String doctorSpecialty(long id) {
+        return SPECIALTIES[random(id, 2).nextInt(SPECIALTIES.length)];
+    }
+
+    static String doctorEmail(long id) {
+        return "doctor" + id + "@example.com";
+    }
+
+    // At least three working hours, always in SLOT_HOURS order
+    List<Integer> workingHours(long id) {
+        var random = random(id, 3);
+        var hours = new ArrayList<Integer>();
+        for (int hour : SLOT_HOURS) {
+            if (random.nextInt(4) != 0) {
+                hours.add(hour);
+            }
+        }
+        for (int i = 0; hours.size() < 3; i++) {
+            if (!hours.contains(SLOT_HOURS[i])) {
+                hours.add(SLOT_HOURS[i]);
+            }
+        }
+        hours.sort(null);
+        return hours;
+    }
+
+    static String slotLabel(int hour) {
+        return String.format("%02d:00-%02d:00", hour, hour + 1);
+    }
+
+    static double slotPopularity(int hour) {
+        for (int i = 0; i < SLOT_HOURS.length; i++) {
+            if (SLOT_HOURS[i] == hour) {
+                return SLOT_POPULARITY[i];
+            }
+        }
+        return 1;
+    }
+
+    String patientName(long id) {
+        var random = random(id, 4);
+        return FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+    }
+
+    static String patientEmail(long id) {
+        return "patient" + id + "@example.com";
+    }
+
+    static String phone(long id) {
+        return String.format("%010d", id);
+    }
+
+    long popularDoctor(SplittableRandom random) {
+        return doctorPopularity.sample(random) + 1;
+    }
+
+    private SplittableRandom random(long id, int stream) {
+        return new SplittableRandom(seed * 31 + id * 7 + stream);
+    }
+}
@@ -0,0 +1,52 @@
+package com.project.back_end.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Outcome counts and an HDR latency histogram (microseconds, up to one minute) for one endpoint.
+ * Responses are split by status class, and requests that got no response count as failures.
+ */
+final class EndpointStats {
+    private final Histogram latency = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(1), 3);
+    private final LongAdder success = new LongAdder();
+    private final LongAdder clientErrors = new LongAdder();
+    private final LongAdder serverErrors = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    void record(int status, long nanos) {
+        latency.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), latency.getHighestTrackableValue()));
+        if (status >= 500) {
+            serverErrors.increment();
+        } else if (status >= 400) {
+            clientErrors.increment();
+        } else {
+            success.increment();
+        }
+    }
+
+    void failed() {
+        failures.increment();
+    }
+
+    static void print(Map<String, EndpointStats> stats, double seconds, PrintStream out) {
+        out.printf("%-58s %9s %9s %9s %7s %7s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "req/s", "2xx/3xx", "4xx", "5xx", "failed", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        stats.forEach((endpoint, s) -> {
+            long requests = s.latency.getTotalCount() + s.failures.sum();
+            out.printf("%-58s %9d %9.1f %9d %7d %7d %7d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    endpoint, requests, requests / seconds, s.success.sum(), s.clientErrors.sum(), s.serverErrors.sum(),
+                    s.failures.sum(), millis(s, 50), millis(s, 90), millis(s, 99), millis(s, 99.9),
+                    s.latency.getMaxValue() / 1000.0);
+        });
+    }
+
+    private static double millis(EndpointStats stats, double percentile) {
+        return stats.latency.getValueAtPercentile(percentile) / 1000.0;
+    }
+}
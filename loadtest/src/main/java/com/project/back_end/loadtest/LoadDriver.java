@@ -0,0 +1,241 @@
+package com.project.back_end.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+
+/**
+ * Closed-loop load against a running app: each worker picks a flow by weight, runs it, and
+ * starts the next one as soon as it returns. Doctors are picked with the dataset's Zipf
+ * popularity, so the hot doctors see the contention they would in production.
+ * <p>
+ * Requests made during the warm-up are not recorded.
+ */
+final class LoadDriver {
+    private static final Logger log = LoggerFactory.getLogger(LoadDriver.class);
+
+    enum Flow {
+        LOGIN, SEARCH, AVAILABILITY, BOOKING, SCHEDULE, PRESCRIPTION
+    }
+
+    private final Dataset dataset;
+    private final String baseUrl;
+    private final Function<Long, String> patientToken;
+    private final long appointments;
+    private final HttpClient client;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicReferenceArray<String> doctorTokens;
+    private final Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+    private volatile long recordFrom;
+
+    LoadDriver(Dataset dataset, String baseUrl, Function<Long, String> patientToken, long appointments) {
+        this.dataset = dataset;
+        this.baseUrl = baseUrl;
+        this.patientToken = patientToken;
+        this.appointments = appointments;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.doctorTokens = new AtomicReferenceArray<>(dataset.doctors + 1);
+    }
+
+    /**
+     * Runs {@code concurrency} workers for {@code warmup} plus {@code duration}, and returns the
+     * stats recorded after the warm-up, by endpoint in a stable order.
+     */
+    Map<String, EndpointStats> run(Map<Flow, Integer> mix, int concurrency, Duration warmup, Duration duration) throws InterruptedException {
+        var flows = new ArrayList<Flow>();
+        mix.forEach((flow, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                flows.add(flow);
+            }
+        });
+
+        long start = System.nanoTime();
+        recordFrom = start + warmup.toNanos();
+        long end = recordFrom + duration.toNanos();
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        for (int worker = 0; worker < concurrency; worker++) {
+            var random = new SplittableRandom(dataset.seed + worker);
+            workers.execute(() -> {
+                while (System.nanoTime() < end) {
+                    Flow flow = flows.get(random.nextInt(flows.size()));
+                    try {
+                        run(flow, random);
+                    } catch (RuntimeException e) {
+                        log.warn("{} flow failed", flow, e);
+                    }
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(warmup.plus(duration).toSeconds() + 60, TimeUnit.SECONDS);
+
+        var ordered = new LinkedHashMap<String, EndpointStats>();
+        stats.keySet().stream().sorted().forEach(endpoint -> ordered.put(endpoint, stats.get(endpoint)));
+        return ordered;
+    }
+
+    private void run(Flow flow, SplittableRandom random) {
+        switch (flow) {
+            case LOGIN -> login(dataset.popularDoctor(random));
+            case SEARCH -> search(random);
+            case AVAILABILITY -> availability(dataset.popularDoctor(random), futureDay(random), patient(random));
+            case BOOKING -> book(random);
+            case SCHEDULE -> schedule(random);
+            case PRESCRIPTION -> prescribe(random);
+        }
+    }
+
+    private String login(long doctorId) {
+        var body = Map.of("email", Dataset.doctorEmail(doctorId), "password", Dataset.PASSWORD);
+        JsonNode response = send("POST /doctor/login", post("/doctor/login", body));
+        if (response == null || !response.hasNonNull("token")) {
+            return null;
+        }
+        String token = response.get("token").asText();
+        doctorTokens.set((int) doctorId, token);
+        return token;
+    }
+
+    private String doctorToken(long doctorId) {
+        String token = doctorTokens.get((int) doctorId);
+        return token != null ? token : login(doctorId);
+    }
+
+    private void search(SplittableRandom random) {
+        String firstName = Dataset.FIRST_NAMES[random.nextInt(Dataset.FIRST_NAMES.length)];
+        String name = random.nextInt(4) == 0 ? "null"
+                : firstName.substring(0, Math.min(firstName.length(), 3 + random.nextInt(2))).toLowerCase();
+        String time = random.nextInt(3) == 0 ? (random.nextBoolean() ? "AM" : "PM") : "null";
+        String specialty = random.nextBoolean() ? Dataset.SPECIALTIES[random.nextInt(Dataset.SPECIALTIES.length)] : "null";
+        send("GET /doctor/filter/{name}/{time}/{speciality}", get("/doctor/filter/" + name + "/" + time + "/" + specialty));
+    }
+
+    private List<String> availability(long doctorId, LocalDate day, long patientId) {
+        JsonNode response = send("GET /doctor/availability/{user}/{doctorId}/{date}/{token}",
+                get("/doctor/availability/patient/" + doctorId + "/" + day + "/" + patientToken.apply(patientId)));
+        var times = new ArrayList<String>();
+        if (response != null && response.has("availableTimes")) {
+            response.get("availableTimes").forEach(time -> times.add(time.asText()));
+        }
+        return times;
+    }
+
+    // Looks up the doctor's free slots, then books one of them, as the patient dashboard does
+    private void book(SplittableRandom random) {
+        long doctorId = dataset.popularDoctor(random);
+        long patientId = patient(random);
+        LocalDate day = futureDay(random);
+        List<String> times = availability(doctorId, day, patientId);
+        if (times.isEmpty()) {
+            return;
+        }
+        int hour = Integer.parseInt(times.get(random.nextInt(times.size())).substring(0, 2));
+        var body = Map.of(
+                "doctor", Map.of("id", doctorId),
+                "patient", Map.of("id", patientId),
+                "appointmentTime", day.atTime(hour, 0).toString(),
+                "status", 0);
+        send("POST /appointments/{token}", post("/appointments/" + patientToken.apply(patientId), body));
+    }
+
+    private void schedule(SplittableRandom random) {
+        long doctorId = dataset.popularDoctor(random);
+        String token = doctorToken(doctorId);
+        if (token == null) {
+            return;
+        }
+        LocalDate day = LocalDate.now().minusDays(random.nextInt(14));
+        String name = random.nextInt(3) == 0
+                ? Dataset.FIRST_NAMES[random.nextInt(Dataset.FIRST_NAMES.length)].substring(0, 2)
+                : "null";
+        send("GET /appointments/{date}/{patientName}/{token}", get("/appointments/" + day + "/" + name + "/" + token));
+    }
+
+    private void prescribe(SplittableRandom random) {
+        long doctorId = dataset.popularDoctor(random);
+        String token = doctorToken(doctorId);
+        if (token == null || appointments == 0) {
+            return;
+        }
+        long appointmentId = 1 + random.nextLong(appointments);
+        long patientId = patient(random);
+        var body = Map.of(
+                "patientName", dataset.patientName(patientId),
+                "patientId", patientId,
+                "appointmentId", appointmentId,
+                "medication", Dataset.MEDICATIONS[random.nextInt(Dataset.MEDICATIONS.length)],
+                "dosage", Dataset.DOSAGES[random.nextInt(Dataset.DOSAGES.length)],
+                "doctorNotes", "Take after meals");
+        send("POST /prescription/{token}", post("/prescription/" + token, body));
+        send("GET /prescription/{appointmentId}/{token}", get("/prescription/" + appointmentId + "/" + token));
+    }
+
+    private long patient(SplittableRandom random) {
+        return 1 + random.nextLong(dataset.patients);
+    }
+
+    private static LocalDate futureDay(SplittableRandom random) {
+        return LocalDate.now().plusDays(1 + random.nextInt(13));
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+    }
+
+    private HttpRequest post(String path, Object body) {
+        try {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                    .build();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Returns the parsed body of a JSON response, or null when there is none
+    private JsonNode send(String endpoint, HttpRequest request) {
+        long start = System.nanoTime();
+        boolean recorded = start >= recordFrom;
+        EndpointStats endpointStats = recorded ? stats.computeIfAbsent(endpoint, key -> new EndpointStats()) : null;
+        try {
+            HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (recorded) {
+                endpointStats.record(response.statusCode(), System.nanoTime() - start);
+            }
+            byte[] body = response.body();
+            return body.length == 0 || body[0] != '{' ? null : objectMapper.readTree(body);
+        } catch (IOException e) {
+            if (recorded) {
+                endpointStats.failed();
+            }
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.project.back_end.loadtest;
+
+import com.project.back_end.BackEndApplication;
+import com.project.back_end.services.CredentialService;
+import com.project.back_end.services.ReportingService;
+import com.project.back_end.services.TokenService;
+import de.flapdoodle.embed.mongo.commands.ServerAddress;
+import de.flapdoodle.embed.mongo.distribution.Version;
+import de.flapdoodle.embed.mongo.transitions.Mongod;
+import de.flapdoodle.embed.mongo.transitions.RunningMongodProcess;
+import de.flapdoodle.reverse.TransitionWalker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.core.env.SimpleCommandLinePropertySource;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Generates a seeded dataset, starts the app against it and drives login, search, availability,
+ * booking, schedule and prescription flows, then prints throughput and latency percentiles per
+ * endpoint. See {@code loadtest/README.md} for the options.
+ * <p>
+ * The app runs twice in this JVM: once without a web server to create the schema and load the
+ * data, and once on a random port to serve the load, so it starts with warm-up work (the
+ * availability calendar and search index) built from the generated data. MySQL is stood in for
+ * by H2 in MySQL mode unless {@code --jdbc-url} is given, and Mongo by an embedded mongod
+ * unless {@code --mongo-uri} is given. Without a reachable Mongo the prescription flow is skipped.
+ */
+public final class LoadTest {
+    private static final Logger log = LoggerFactory.getLogger(LoadTest.class);
+
+    private static final String H2_URL = "jdbc:h2:mem:loadtest;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;IGNORECASE=TRUE";
+    private static final String MIX = "login:5,search:30,availability:30,booking:15,schedule:15,prescription:5";
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        var options = new SimpleCommandLinePropertySource(args);
+        int doctors = Integer.parseInt(option(options, "doctors", "1000"));
+        int patients = Integer.parseInt(option(options, "patients", "50000"));
+        long appointments = Long.parseLong(option(options, "appointments", "500000"));
+        int days = Integer.parseInt(option(options, "days", "120"));
+        double skew = Double.parseDouble(option(options, "skew", "1.0"));
+        double prescriptionRate = Double.parseDouble(option(options, "prescription-rate", "0.3"));
+        long seed = Long.parseLong(option(options, "seed", "42"));
+        boolean generate = Boolean.parseBoolean(option(options, "generate", "true"));
+        int concurrency = Integer.parseInt(option(options, "concurrency", "32"));
+        Duration warmup = DurationStyle.detectAndParse(option(options, "warmup", "15s"));
+        Duration duration = DurationStyle.detectAndParse(option(options, "duration", "60s"));
+        Map<LoadDriver.Flow, Integer> mix = mix(option(options, "mix", MIX));
+
+        var dataset = new Dataset(doctors, patients, days, 13, skew, seed);
+        TransitionWalker.ReachedState<RunningMongodProcess> embeddedMongo = null;
+        String mongoUri = options.getProperty("mongo-uri");
+        if (mongoUri == null) {
+            embeddedMongo = startMongo();
+            mongoUri = embeddedMongo == null ? null : uri(embeddedMongo.current().getServerAddress());
+        }
+        if (mongoUri == null) {
+            log.warn("No Mongo available: prescriptions are not generated and the prescription flow is skipped");
+            mix.remove(LoadDriver.Flow.PRESCRIPTION);
+        }
+
+        var properties = new HashMap<String, Object>();
+        properties.put("spring.datasource.url", option(options, "jdbc-url", H2_URL));
+        properties.put("spring.datasource.username", option(options, "jdbc-user", "sa"));
+        properties.put("spring.datasource.password", option(options, "jdbc-password", ""));
+        properties.put("spring.data.mongodb.uri", mongoUri != null ? mongoUri
+                : "mongodb://localhost:27017/prescriptions?serverSelectionTimeoutMS=1000");
+        properties.put("appointment.events.prescriptions.enabled", String.valueOf(mongoUri != null));
+        properties.put("spring.jpa.show-sql", "false");
+        properties.put("spring.main.banner-mode", "off");
+        properties.put("reporting.reconcile.cron", "-");
+        properties.put("logging.level.org.hibernate.engine.jdbc.spi.SqlExceptionHelper", "off");
+
+        try {
+            if (generate) {
+                properties.put("spring.jpa.hibernate.ddl-auto", "create");
+                // The bulk load bypasses the report counters, so every reconciled period reports drift
+                properties.put("logging.level.com.project.back_end.services.ReportingService", "error");
+                try (ConfigurableApplicationContext context = start(properties, WebApplicationType.NONE)) {
+                    var generator = new DataGenerator(dataset, context.getBean(DataSource.class),
+                            mongoUri != null ? context.getBean(MongoTemplate.class) : null,
+                            context.getBean(CredentialService.class).encode(Dataset.PASSWORD));
+                    long started = System.nanoTime();
+                    DataGenerator.Summary summary = generator.generate(appointments, prescriptionRate);
+                    log.info("Generated {} in {} s", summary, (System.nanoTime() - started) / 1_000_000_000);
+                    appointments = summary.appointments();
+                    context.getBean(ReportingService.class).reconcileRecent();
+                }
+            }
+
+            properties.put("spring.jpa.hibernate.ddl-auto", "none");
+            properties.remove("logging.level.com.project.back_end.services.ReportingService");
+            properties.put("server.port", "0");
+            try (ConfigurableApplicationContext context = start(properties, WebApplicationType.SERVLET)) {
+                int port = ((ServletWebServerApplicationContext) context).getWebServer().getPort();
+                TokenService tokenService = context.getBean(TokenService.class);
+                // There is no patient login endpoint, so patient tokens are issued directly
+                Map<Long, String> patientTokens = new ConcurrentHashMap<>();
+                var driver = new LoadDriver(dataset, "http://localhost:" + port, patientId -> patientTokens.computeIfAbsent(
+                        patientId, id -> tokenService.generateToken(Dataset.patientEmail(id), "patient", id)), appointments);
+
+                log.info("Driving {} workers for {} after a {} warm-up, mix {}", concurrency, duration, warmup, mix);
+                Map<String, EndpointStats> stats = driver.run(mix, concurrency, warmup, duration);
+                System.out.printf("%n%d doctors, %d patients, %d appointments, %d workers, %d s%n",
+                        doctors, patients, appointments, concurrency, duration.toSeconds());
+                EndpointStats.print(stats, duration.toMillis() / 1000.0, System.out);
+            }
+        } finally {
+            if (embeddedMongo != null) {
+                embeddedMongo.close();
+            }
+        }
+    }
+
+    // Passed as command-line arguments so they override the app's application.properties
+    private static ConfigurableApplicationContext start(Map<String, Object> properties, WebApplicationType type) {
+        return new SpringApplicationBuilder(BackEndApplication.class)
+                .web(type)
+                .run(properties.entrySet().stream()
+                        .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                        .toArray(String[]::new));
+    }
+
+    private static TransitionWalker.ReachedState<RunningMongodProcess> startMongo() {
+        try {
+            return Mongod.instance().start(Version.Main.V7_0);
+        } catch (RuntimeException e) {
+            log.warn("Could not start an embedded mongod: {}", NestedExceptionUtils.getMostSpecificCause(e).toString());
+            return null;
+        }
+    }
+
+    private static String uri(ServerAddress address) {
+        return "mongodb://" + address.getHost() + ":" + address.getPort() + "/prescriptions";
+    }
+
+    private static Map<LoadDriver.Flow, Integer> mix(String mix) {
+        var weights = new EnumMap<LoadDriver.Flow, Integer>(LoadDriver.Flow.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.split(":");
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                weights.put(LoadDriver.Flow.valueOf(parts[0].trim().toUpperCase()), weight);
+            }
+        }
+        return weights;
+    }
+
+    private static String option(SimpleCommandLinePropertySource options, String name, String defaultValue) {
+        String value = options.getProperty(name);
+        return value != null ? value : defaultValue;
+    }
+}
@@ -0,0 +1,38 @@
+package com.project.back_end.loadtest;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Zipf distribution over ranks {@code 0..n-1}: rank {@code r} is drawn with a probability
+ * proportional to {@code 1 / (r + 1)^exponent}, so a few ranks take most of the draws.
+ */
+final class Zipf {
+    private final double[] cdf;
+
+    Zipf(int n, double exponent) {
+        cdf = new double[n];
+        double total = 0;
+        for (int rank = 0; rank < n; rank++) {
+            total += 1 / Math.pow(rank + 1, exponent);
+            cdf[rank] = total;
+        }
+        for (int rank = 0; rank < n; rank++) {
+            cdf[rank] /= total;
+        }
+    }
+
+    int size() {
+        return cdf.length;
+    }
+
+    double weight(int rank) {
+        return rank == 0 ? cdf[0] : cdf[rank] - cdf[rank - 1];
+    }
+
+    int sample(RandomGenerator random) {
+        int index = Arrays.binarySearch(cdf, random.nextDouble());
+        int rank = index >= 0 ? index : -index - 1;
+        return Math.min(rank, cdf.length - 1);
+    }
+}